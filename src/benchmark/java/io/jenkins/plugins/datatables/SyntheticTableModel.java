@@ -0,0 +1,208 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jenkins.ui.symbol.SymbolRequest;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+import io.jenkins.plugins.datatables.TableColumn.ColumnType;
+import io.jenkins.plugins.util.JenkinsFacade;
+
+/**
+ * A {@link TableModel} with synthetic rows that mimic a typical table of a Jenkins plugin: a details column, plain
+ * text and number columns, and several columns that use {@link DetailedCell detailed cells}. The rows are created
+ * eagerly in the constructor so that benchmarks measure the processing of the rows only.
+ *
+ * @author Ullrich Hafner
+ */
+public class SyntheticTableModel extends TableModel {
+    private static final String[] SEVERITIES = {"Error", "High", "Normal", "Low"};
+    private static final String[] CATEGORIES = {"Design", "Performance", "Style", "Security", "Documentation"};
+    private static final String[] WORDS = {"cannot", "resolve", "symbol", "unused", "variable", "method", "field",
+            "should", "be", "final", "missing", "Javadoc", "comment", "in", "class", "deprecated", "call"};
+
+    private final int size;
+    private final List<Object> rows;
+
+    /**
+     * Creates a new model with the specified number of rows.
+     *
+     * @param size
+     *         the number of rows
+     */
+    public SyntheticTableModel(final int size) {
+        this.size = size;
+
+        rows = createRows(size);
+    }
+
+    private static List<Object> createRows(final int size) {
+        Random random = new Random(size);
+        JenkinsFacade facade = new StaticSymbolFacade();
+
+        List<Object> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String message = createMessage(random);
+            int severity = random.nextInt(SEVERITIES.length);
+            long age = random.nextInt(1000);
+            rows.add(new SyntheticRow(
+                    TableColumn.renderDetailsColumn("<p>" + message + "</p>", facade),
+                    "src/main/java/module" + random.nextInt(50) + "/File" + random.nextInt(500) + ".java",
+                    random.nextInt(5000),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    new DetailedCell<>("<span class=\"severity\">" + SEVERITIES[severity] + "</span>", severity),
+                    new DetailedCell<>(age + " builds", age),
+                    random.nextDouble(),
+                    message));
+        }
+        return rows;
+    }
+
+    private static String createMessage(final Random random) {
+        int length = 5 + random.nextInt(10);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            message.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return message.toString().trim();
+    }
+
+    @Override
+    public String getId() {
+        return "synthetic-" + size;
+    }
+
+    @Override
+    public List<TableColumn> getColumns() {
+        return createColumns();
+    }
+
+    /**
+     * Creates the columns of the synthetic table.
+     *
+     * @return the columns
+     */
+    public static List<TableColumn> createColumns() {
+        return List.of(
+                new ColumnBuilder().withHeaderLabel("Details").withDataPropertyKey("description")
+                        .withHeaderClass(ColumnCss.NO_SORT).build(),
+                new ColumnBuilder().withHeaderLabel("File").withDataPropertyKey("fileName").build(),
+                new ColumnBuilder().withHeaderLabel("Line").withDataPropertyKey("line")
+                        .withHeaderClass(ColumnCss.NUMBER).build(),
+                new ColumnBuilder().withHeaderLabel("Category").withDataPropertyKey("category").build(),
+                new ColumnBuilder().withHeaderLabel("Severity").withDataPropertyKey("severity")
+                        .withDetailedCell().build(),
+                new ColumnBuilder().withHeaderLabel("Age").withDataPropertyKey("age")
+                        .withDetailedCell().withType(ColumnType.NUMBER).build(),
+                new ColumnBuilder().withHeaderLabel("Coverage").withDataPropertyKey("coverage")
+                        .withHeaderClass(ColumnCss.PERCENTAGE).build(),
+                new ColumnBuilder().withHeaderLabel("Message").withDataPropertyKey("message")
+                        .withHeaderClass(ColumnCss.HIDDEN).build());
+    }
+
+    @Override
+    public List<Object> getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns a model with the same columns and rows that stores the rows in a {@link ColumnarRowStore}.
+     *
+     * @return the columnar model
+     */
+    public TableModel toColumnarModel() {
+        ColumnarRowStore store = TableSnapshot.toRowStore(this);
+        return new ColumnarTableModel() {
+            @Override
+            public String getId() {
+                return SyntheticTableModel.this.getId();
+            }
+
+            @Override
+            public List<TableColumn> getColumns() {
+                return createColumns();
+            }
+
+            @Override
+            public ColumnarRowStore getRowStore() {
+                return store;
+            }
+        };
+    }
+
+    /**
+     * A {@link JenkinsFacade} that returns a static SVG for all symbols, so that details columns can be rendered
+     * without a running Jenkins instance.
+     */
+    static class StaticSymbolFacade extends JenkinsFacade {
+        @Override
+        public String getSymbol(final SymbolRequest request) {
+            return "<svg class=\"details-icon\" viewBox=\"0 0 512 512\"><path d=\"M448 256c0-106-86-192-192-192"
+                    + "S64 150 64 256s86 192 192 192 192-86 192-192z\"/></svg>";
+        }
+    }
+
+    /**
+     * A row of the synthetic table.
+     */
+    @SuppressWarnings("unused") // Called by Jackson
+    public static class SyntheticRow {
+        private final String description;
+        private final String fileName;
+        private final int line;
+        private final String category;
+        private final DetailedCell<Integer> severity;
+        private final DetailedCell<Long> age;
+        private final double coverage;
+        private final String message;
+
+        @SuppressWarnings("checkstyle:ParameterNumber")
+        SyntheticRow(final String description, final String fileName, final int line, final String category,
+                final DetailedCell<Integer> severity, final DetailedCell<Long> age, final double coverage,
+                final String message) {
+            this.description = description;
+            this.fileName = fileName;
+            this.line = line;
+            this.category = category;
+            this.severity = severity;
+            this.age = age;
+            this.coverage = coverage;
+            this.message = message;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public DetailedCell<Integer> getSeverity() {
+            return severity;
+        }
+
+        public DetailedCell<Long> getAge() {
+            return age;
+        }
+
+        public double getCoverage() {
+            return coverage;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jenkins.plugins.util.JenkinsFacade;
+
+/**
+ * Measures the creation of the column schema of a table and the rendering of details columns.
+ *
+ * @author Ullrich Hafner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableColumnBenchmark {
+    @Param({"100", "10000"})
+    private int detailsLength;
+
+    private final JenkinsFacade facade = new SyntheticTableModel.StaticSymbolFacade();
+    private final TableModel model = new SyntheticTableModel(0);
+    private String details;
+
+    /**
+     * Creates the details text before the measurement starts.
+     */
+    @Setup
+    public void createDetails() {
+        details = "<p>" + "x".repeat(detailsLength) + "</p>";
+    }
+
+    /**
+     * Builds the columns of a typical table using the {@link TableColumn.ColumnBuilder}.
+     *
+     * @return the columns
+     */
+    @Benchmark
+    public List<TableColumn> buildColumns() {
+        return SyntheticTableModel.createColumns();
+    }
+
+    /**
+     * Creates the JSON definition of the columns of a typical table.
+     *
+     * @return the column definitions
+     */
+    @Benchmark
+    public String getColumnsDefinition() {
+        return model.getColumnsDefinition();
+    }
+
+    /**
+     * Renders a details column with the HTML of the details.
+     *
+     * @return the rendered column
+     */
+    @Benchmark
+    public String renderDetailsColumn() {
+        return TableColumn.renderDetailsColumn(details, facade);
+    }
+}
@@ -0,0 +1,244 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A load test for the table data endpoint. The test starts a local HTTP server that serves the rows of a
+ * {@link SyntheticTableModel} in the same way as the Stapler proxy of
+ * {@link DefaultAsyncTableContentProvider#requestTableRows(String)} does (i.e., the rows are returned as JSON encoded
+ * string). Then an increasing number of concurrent clients request the rows of the table. For each concurrency level
+ * the latency percentiles, the throughput, the number of busy responses, the heap growth and the GC pauses are
+ * reported. Unless configured otherwise, the test enables the {@link TableRequestExecutor} with half of the available
+ * processors as worker threads.
+ *
+ * <p>
+ * Usage: {@code mvn -Pbenchmark test-compile exec:exec@load-test -Dload.arguments="100000 objects 1,5,10,20,50 20"}
+ * where the arguments are the number of rows, the mode ({@code objects}, {@code columnar}, {@code cached}, or
+ * {@code snapshot}), the concurrency levels, and the number of requests per client.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableLoadTest {
+    private static final int SERVER_THREADS = 200;
+    private static final String ID = "synthetic";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final URI uri;
+
+    private TableLoadTest(final int port) {
+        uri = URI.create("http://localhost:" + port + "/requestTableRows?id=" + ID);
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args
+     *         the number of rows, the mode, the concurrency levels, and the number of requests per client
+     *
+     * @throws Exception
+     *         if the load test fails
+     */
+    public static void main(final String... args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String mode = args.length > 1 ? args[1] : "objects";
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "1,5,10,20,50").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        // All clients of this test share the same (anonymous) user, in production the requests come from many users
+        System.setProperty(TableRequestExecutor.class.getName() + ".requestsPerUser", String.valueOf(SERVER_THREADS));
+        if (System.getProperty(TableRequestExecutor.class.getName() + ".threads") == null) {
+            System.setProperty(TableRequestExecutor.class.getName() + ".threads",
+                    String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors() / 2)));
+        }
+
+        DefaultAsyncTableContentProvider provider = createProvider(rows, mode);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), SERVER_THREADS);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(SERVER_THREADS);
+        server.setExecutor(serverThreads);
+        server.createContext("/requestTableRows", exchange -> serve(provider, exchange));
+        server.start();
+        try {
+            System.out.printf(Locale.ENGLISH, "Table with %d rows, mode %s, %d requests per client%n",
+                    rows, mode, requests);
+            System.out.printf(Locale.ENGLISH, "%8s %10s %10s %10s %12s %6s %12s %10s %10s%n",
+                    "clients", "p50 [ms]", "p99 [ms]", "max [ms]", "req/s", "busy", "heap [MB]", "gc [ms]", "gc count");
+
+            TableLoadTest test = new TableLoadTest(server.getAddress().getPort());
+            test.run(1, Math.min(requests, 5)); // warm up
+            for (int level : levels) {
+                test.run(level, requests).print(level);
+            }
+        }
+        finally {
+            server.stop(0);
+            serverThreads.shutdownNow();
+        }
+    }
+
+    private static DefaultAsyncTableContentProvider createProvider(final int rows, final String mode)
+            throws IOException {
+        SyntheticTableModel objects = new SyntheticTableModel(rows);
+        TableModel model = "columnar".equals(mode) ? objects.toColumnarModel() : objects;
+        Optional<String> cacheKey = "cached".equals(mode) ? Optional.of(ID) : Optional.empty();
+        Optional<Path> snapshots = "snapshot".equals(mode)
+                ? Optional.of(Files.createTempDirectory("data-tables-load-test"))
+                : Optional.empty();
+        return new DefaultAsyncTableContentProvider() {
+            @Override
+            public TableModel getTableModel(final String id) {
+                return model;
+            }
+
+            @Override
+            protected Optional<String> getTableCacheKey(final String id) {
+                return cacheKey;
+            }
+
+            @Override
+            protected Optional<Path> getTableSnapshotDirectory() {
+                return snapshots;
+            }
+        };
+    }
+
+    private static void serve(final DefaultAsyncTableContentProvider provider, final HttpExchange exchange)
+            throws IOException {
+        try {
+            String rows = provider.requestTableRows(ID);
+            // Stapler sends the returned string as JSON encoded string
+            byte[] body = TableCells.getMapper().writeValueAsString(rows).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private Result run(final int clients, final int requests) throws Exception {
+        System.gc();
+        long heapBefore = getUsedHeap();
+        long gcTimeBefore = getGcTime();
+        long gcCountBefore = getGcCount();
+        AtomicInteger busy = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            long start = System.nanoTime();
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> request(requests, busy)));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                latencies.addAll(future.get());
+            }
+            long duration = System.nanoTime() - start;
+
+            return new Result(latencies, duration, busy.get(), getUsedHeap() - heapBefore,
+                    getGcTime() - gcTimeBefore, getGcCount() - gcCountBefore);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> request(final int requests, final AtomicInteger busy) throws IOException, InterruptedException {
+        List<Long> latencies = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.add(System.nanoTime() - start);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status code " + response.statusCode());
+            }
+            if (response.body().contains("\\\"busy\\\":true")) {
+                busy.incrementAndGet();
+            }
+        }
+        return latencies;
+    }
+
+    private static long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long getGcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+    }
+
+    private static long getGcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    /**
+     * The measured results of a concurrency level.
+     */
+    private static class Result {
+        private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+        private final List<Long> latencies;
+        private final long duration;
+        private final int busy;
+        private final long heapGrowth;
+        private final long gcTime;
+        private final long gcCount;
+
+        @SuppressWarnings("checkstyle:ParameterNumber")
+        Result(final List<Long> latencies, final long duration, final int busy, final long heapGrowth,
+                final long gcTime, final long gcCount) {
+            this.latencies = new ArrayList<>(latencies);
+            this.duration = duration;
+            this.busy = busy;
+            this.heapGrowth = heapGrowth;
+            this.gcTime = gcTime;
+            this.gcCount = gcCount;
+
+            Collections.sort(this.latencies);
+        }
+
+        private double percentile(final double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.size()) - 1;
+            return latencies.get(Math.max(0, index)) / NANOS_PER_MILLI;
+        }
+
+        void print(final int clients) {
+            System.out.printf(Locale.ENGLISH, "%8d %10.1f %10.1f %10.1f %12.1f %6d %12.1f %10d %10d%n",
+                    clients, percentile(0.5), percentile(0.99), percentile(1.0),
+                    latencies.size() * 1_000_000_000.0 / duration, busy,
+                    heapGrowth / (1024.0 * 1024.0), gcTime, gcCount);
+        }
+    }
+}
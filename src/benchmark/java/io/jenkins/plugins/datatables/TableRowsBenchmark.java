@@ -0,0 +1,70 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the serialization of the rows of a table with {@link DefaultAsyncTableContentProvider#getTableRows(String)}
+ * for tables of different sizes. The rows are either stored as objects (that are serialized using Jackson data
+ * binding) or in a {@link ColumnarRowStore}.
+ *
+ * @author Ullrich Hafner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dio.jenkins.plugins.datatables.TableRequestExecutor.threads=0"})
+public class TableRowsBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"objects", "columnar"})
+    private String storage;
+
+    private DefaultAsyncTableContentProvider provider;
+
+    /**
+     * Creates the table model before the measurement starts.
+     */
+    @Setup(Level.Trial)
+    public void createModel() {
+        TableModel model = createModel(new SyntheticTableModel(rows));
+        provider = new DefaultAsyncTableContentProvider() {
+            @Override
+            public TableModel getTableModel(final String id) {
+                return model;
+            }
+        };
+    }
+
+    private TableModel createModel(final SyntheticTableModel objects) {
+        if ("columnar".equals(storage)) {
+            return objects.toColumnarModel();
+        }
+        return objects;
+    }
+
+    /**
+     * Serializes all rows of the table to JSON.
+     *
+     * @return the serialized rows
+     */
+    @Benchmark
+    public String getTableRows() {
+        return provider.getTableRows("synthetic");
+    }
+}
@@ -0,0 +1,161 @@
+/* eslint-env node */
+/**
+ * Measures the client side performance of table.js for synthetic tables of increasing size. Each table is rendered
+ * in a headless jsdom window that contains the bundled jQuery, luxon, and DataTables scripts. The Ajax proxy of the
+ * table is replaced by a stub that returns the synthetic rows immediately, so the measured times contain the parsing
+ * of the rows, the DataTables rendering, and the event handlers of table.js only.
+ *
+ * Usage: npm run benchmark -- [sizes] [runs], e.g. npm run benchmark -- 1000,10000,50000 3
+ */
+'use strict';
+
+const fs = require('fs');
+const path = require('path');
+const {performance} = require('perf_hooks');
+
+let JSDOM;
+try {
+    ({JSDOM} = require('jsdom'));
+}
+catch (error) {
+    console.error('The benchmark requires jsdom, install it with: npm install --no-save jsdom@26');
+    process.exit(1);
+}
+
+const root = path.resolve(__dirname, '../../..');
+const sizes = (process.argv[2] || '1000,10000,50000').split(',').map(Number);
+const runs = Number(process.argv[3] || 3);
+
+const libraries = [
+    'node_modules/jquery/dist/jquery.js',
+    'node_modules/luxon/build/global/luxon.js',
+    'node_modules/datatables.net/js/dataTables.js'
+].map(file => fs.readFileSync(path.join(root, file), 'utf8'));
+const tableScript = fs.readFileSync(path.join(root, 'src/main/webapp/js/table.js'), 'utf8');
+
+const columns = [
+    {data: 'name', type: 'string'},
+    {data: 'line', type: 'num'},
+    {data: 'category', type: 'string'},
+    {data: 'severity', type: 'num', render: {_: 'display', sort: 'sort'}},
+    {data: 'date', type: 'date'},
+    {data: 'coverage', type: 'num'}
+];
+const headers = '<th>File</th><th class="text-end">Line</th><th>Category</th><th>Severity</th>'
+    + '<th class="date">Date</th><th class="percentage">Coverage</th>';
+const categories = ['Design', 'Performance', 'Style', 'Security', 'Documentation'];
+const severities = ['Error', 'High', 'Normal', 'Low'];
+
+/**
+ * Creates the synthetic rows of a table with a deterministic pseudo random generator.
+ */
+function createRows(size) {
+    let seed = size;
+    const random = function (bound) {
+        seed = (seed * 1103515245 + 12345) % 2147483648;
+        return seed % bound;
+    };
+    const now = Math.floor(Date.now() / 1000);
+    const rows = [];
+    for (let i = 0; i < size; i++) {
+        const severity = random(severities.length);
+        rows.push({
+            name: 'src/main/java/module' + random(50) + '/File' + random(500) + '.java',
+            line: random(5000),
+            category: categories[random(categories.length)],
+            severity: {display: '<span class="severity">' + severities[severity] + '</span>', sort: severity},
+            date: now - random(3600 * 24 * 365),
+            coverage: random(10000) / 10000
+        });
+    }
+    return JSON.stringify(rows);
+}
+
+/**
+ * Creates a new jsdom window with the table markup, the libraries, and a stub for the Ajax proxy.
+ */
+function createWindow(rows) {
+    const html = '<!DOCTYPE html><html><body><div class="table-responsive">'
+        + '<table class="table data-table" id="benchmark" data-columns-definition=\''
+        + JSON.stringify(columns) + '\' data-table-configuration=\'{}\'>'
+        + '<thead><tr>' + headers + '</tr></thead><tbody></tbody></table><div></div></div></body></html>';
+    const window = new JSDOM(html, {runScripts: 'outside-only', pretendToBeVisual: true, url: 'http://localhost/'})
+        .window;
+    libraries.forEach(library => window.eval(library));
+    window.jQuery3 = window.jQuery;
+    window.bootstrap5 = {
+        Tooltip: function () {
+            this.enable = function () {
+            };
+        }
+    };
+    window.tableDataProxy = {
+        getTableRows: function (id, callback) {
+            callback({responseObject: () => rows});
+        },
+        getTableSummary: function (id, search, callback) {
+            callback({responseObject: () => '{"columns":{}}'});
+        }
+    };
+    return window;
+}
+
+/**
+ * Waits until table.js has created the DataTables instance of the table.
+ */
+async function waitForDataTable(window) {
+    const table = window.document.getElementById('benchmark');
+    while (!window.jQuery.fn.dataTable.isDataTable(table)) {
+        await new Promise(resolve => setTimeout(resolve, 0));
+    }
+    return window.jQuery(table);
+}
+
+function measure(action) {
+    const start = performance.now();
+    action();
+    return performance.now() - start;
+}
+
+async function runOnce(rows) {
+    const window = createWindow(rows);
+    const initialize = performance.now();
+    window.eval(tableScript);
+    const table = await waitForDataTable(window);
+    const times = {initialize: performance.now() - initialize};
+    const dataTable = table.DataTable();
+
+    // jsdom has no layout, so the table is never visible: table.js waits for this event to load the rows
+    times.load = measure(() => table.trigger('becameVisible'));
+    times.sort = measure(() => dataTable.order([[1, 'desc']]).draw());
+    times.search = measure(() => dataTable.search('performance').draw());
+    times.clear = measure(() => dataTable.search('').draw());
+    times.page = measure(() => dataTable.page(3).draw('page'));
+    window.close();
+    return times;
+}
+
+function median(values) {
+    const sorted = values.slice().sort((a, b) => a - b);
+    return sorted[Math.floor(sorted.length / 2)];
+}
+
+async function main() {
+    const actions = ['initialize', 'load', 'sort', 'search', 'clear', 'page'];
+    console.log(['rows'].concat(actions).map(name => name.padStart(12)).join(''));
+    for (const size of sizes) {
+        const rows = createRows(size);
+        const results = [];
+        for (let i = 0; i < runs; i++) {
+            results.push(await runOnce(rows));
+        }
+        console.log(String(size).padStart(12) + actions
+            .map(action => median(results.map(result => result[action])).toFixed(1).padStart(12))
+            .join(''));
+    }
+}
+
+main().catch(error => {
+    console.error(error);
+    process.exit(1);
+});
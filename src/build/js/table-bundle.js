@@ -0,0 +1,129 @@
+/* eslint-env node */
+/**
+ * Creates the script and style sheet bundles of the table tag. The core bundle contains DataTables, the Bootstrap 5
+ * integration, mark.js, luxon, and table.js; each optional extension (responsive, buttons, colreorder, select) gets
+ * a bundle of its own that is loaded by table.js only if a table on the page requires the extension.
+ *
+ * The file name of each bundle contains a hash of its content, so the bundles can be cached by the browsers forever.
+ * The bundles and the manifest 'bundles.json' that maps the bundle names to the file names are written to the class
+ * path of the plugin, where they are served by the TableBundle action.
+ *
+ * Usage: npm run mvnbuild (called by Maven in the generate-sources phase)
+ */
+'use strict';
+
+const crypto = require('crypto');
+const fs = require('fs');
+const path = require('path');
+
+const root = path.resolve(__dirname, '../../..');
+const target = path.join(root, 'target/classes/io/jenkins/plugins/datatables/bundle');
+
+const bundles = {
+    core: {
+        js: [
+            'node_modules/datatables.net/js/dataTables.min.js',
+            'node_modules/datatables.net-bs5/js/dataTables.bootstrap5.min.js',
+            'node_modules/datatables.mark.js/dist/datatables.mark.min.js',
+            'node_modules/mark.js/dist/jquery.mark.min.js',
+            'node_modules/luxon/build/global/luxon.min.js',
+            'src/main/webapp/js/table.js'
+        ],
+        css: [
+            'node_modules/datatables.net-bs5/css/dataTables.bootstrap5.min.css',
+            'src/main/webapp/css/jenkins-style.css'
+        ]
+    },
+    responsive: {
+        js: [
+            'node_modules/datatables.net-responsive/js/dataTables.responsive.min.js',
+            'node_modules/datatables.net-responsive-bs5/js/responsive.bootstrap5.min.js'
+        ],
+        css: [
+            'node_modules/datatables.net-responsive-bs5/css/responsive.bootstrap5.min.css'
+        ]
+    },
+    buttons: {
+        js: [
+            'node_modules/datatables.net-buttons/js/dataTables.buttons.min.js',
+            'node_modules/datatables.net-buttons-bs5/js/buttons.bootstrap5.min.js',
+            'node_modules/datatables.net-buttons/js/buttons.colVis.min.js',
+            'node_modules/datatables.net-buttons/js/buttons.html5.min.js'
+        ],
+        css: [
+            'node_modules/datatables.net-buttons-bs5/css/buttons.bootstrap5.min.css'
+        ]
+    },
+    colreorder: {
+        js: [
+            'node_modules/datatables.net-colreorder/js/dataTables.colReorder.min.js',
+            'node_modules/datatables.net-colreorder-bs5/js/colReorder.bootstrap5.min.js'
+        ],
+        css: [
+            'node_modules/datatables.net-colreorder-bs5/css/colReorder.bootstrap5.min.css'
+        ]
+    },
+    select: {
+        js: [
+            'node_modules/datatables.net-select/js/dataTables.select.min.js',
+            'node_modules/datatables.net-select-bs5/js/select.bootstrap5.min.js'
+        ],
+        css: [
+            'node_modules/datatables.net-select-bs5/css/select.bootstrap5.min.css'
+        ]
+    }
+};
+
+/**
+ * Removes comments, indentation, and empty lines of a script or style sheet that has not been minified yet. Only
+ * lines that consist of a comment completely are removed, so strings and regular expressions are never touched.
+ */
+function minify(content) {
+    const lines = [];
+    let isComment = false;
+    content.split(/\r?\n/).forEach(function (line) {
+        const trimmed = line.trim();
+        if (isComment) {
+            isComment = !trimmed.endsWith('*/');
+        }
+        else if (trimmed.startsWith('/*')) {
+            isComment = !trimmed.endsWith('*/');
+        }
+        else if (trimmed.length > 0 && !trimmed.startsWith('//')) {
+            lines.push(trimmed);
+        }
+    });
+    return lines.join('\n');
+}
+
+function read(file) {
+    const content = fs.readFileSync(path.join(root, file), 'utf8');
+    return file.includes('.min.') ? content : minify(content);
+}
+
+function write(name, type, files) {
+    // the separator prevents that a missing semicolon at the end of a script breaks the next script
+    const separator = type === 'js' ? '\n;\n' : '\n';
+    const content = files.map(read).join(separator) + '\n';
+    const hash = crypto.createHash('sha256').update(content).digest('hex').substring(0, 16);
+    const fileName = name + '-' + hash + '.' + type;
+    fs.writeFileSync(path.join(target, fileName), content);
+    return fileName;
+}
+
+fs.rmSync(target, {recursive: true, force: true});
+fs.mkdirSync(target, {recursive: true});
+
+const manifest = {};
+Object.keys(bundles).forEach(function (name) {
+    manifest[name] = {
+        js: write(name, 'js', bundles[name].js),
+        css: write(name, 'css', bundles[name].css)
+    };
+});
+fs.writeFileSync(path.join(target, 'bundles.json'), JSON.stringify(manifest, null, 2) + '\n');
+
+console.log('Created table bundles in ' + path.relative(root, target) + ': '
+    + Object.keys(manifest).map(function (name) {
+        return manifest[name].js + ', ' + manifest[name].css;
+    }).join(', '));
@@ -0,0 +1,220 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Encodes the rows of a table in the binary CBOR format (RFC 8949). Compared to JSON, numbers are encoded in binary
+ * form and the property names of the rows are stored only once: the result is a CBOR map with the entries
+ * {@code columns} (the property names of all rows) and {@code rows} (an array with the property values of each row in
+ * the order of the property names). Properties that are missing in a row are encoded as {@code undefined}. Nested
+ * values (e.g., {@link DetailedCell} instances) are encoded as CBOR maps.
+ *
+ * <p>
+ * The rows will be decoded by {@code table.js} into the same JSON objects that are returned by
+ * {@link DefaultAsyncTableContentProvider#getTableRows(String)}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class CborRowEncoder {
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1 << 5;
+    private static final int TEXT = 3 << 5;
+    private static final int ARRAY = 4 << 5;
+    private static final int MAP = 5 << 5;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int UNDEFINED = 0xF7;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final ByteArrayOutputStream rows = new ByteArrayOutputStream();
+    private int rowCount;
+
+    /**
+     * Encodes the specified rows.
+     *
+     * @param tableRows
+     *         the rows to encode
+     *
+     * @return the encoder with the encoded rows
+     */
+    static CborRowEncoder encode(final List<?> tableRows) {
+        CborRowEncoder encoder = new CborRowEncoder();
+        for (Object row : tableRows) {
+            TableCancellation.checkCancelled();
+            encoder.add(TableCells.toNode(row));
+        }
+        return encoder;
+    }
+
+    private void add(final ObjectNode row) {
+        List<JsonNode> values = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> property : row.properties()) {
+            int index = columns.computeIfAbsent(property.getKey(), this::addColumn);
+            while (values.size() <= index) {
+                values.add(null);
+            }
+            values.set(index, property.getValue());
+        }
+        writeHeader(rows, ARRAY, values.size());
+        for (JsonNode value : values) {
+            if (value == null) {
+                rows.write(UNDEFINED);
+            }
+            else {
+                writeValue(rows, value);
+            }
+        }
+        rowCount++;
+    }
+
+    private int addColumn(final String name) {
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    /**
+     * Returns the number of encoded rows.
+     *
+     * @return the number of rows
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the size of the encoded rows.
+     *
+     * @return the size in bytes
+     */
+    int getSize() {
+        return createHeader().size() + rows.size();
+    }
+
+    /**
+     * Writes the encoded rows to the specified output stream.
+     *
+     * @param output
+     *         the stream to write the rows to
+     *
+     * @throws IOException
+     *         if the rows could not be written
+     */
+    void writeTo(final OutputStream output) throws IOException {
+        createHeader().writeTo(output);
+        rows.writeTo(output);
+    }
+
+    private ByteArrayOutputStream createHeader() {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(names.size() * 16 + 32);
+        writeHeader(header, MAP, 2);
+        writeText(header, "columns");
+        writeHeader(header, ARRAY, names.size());
+        for (String name : names) {
+            writeText(header, name);
+        }
+        writeText(header, "rows");
+        writeHeader(header, ARRAY, rowCount);
+        return header;
+    }
+
+    private static void writeValue(final ByteArrayOutputStream output, final JsonNode value) {
+        if (value.isObject()) {
+            writeHeader(output, MAP, value.size());
+            for (Map.Entry<String, JsonNode> property : value.properties()) {
+                writeText(output, property.getKey());
+                writeValue(output, property.getValue());
+            }
+        }
+        else if (value.isArray()) {
+            writeHeader(output, ARRAY, value.size());
+            for (JsonNode element : value.values()) {
+                writeValue(output, element);
+            }
+        }
+        else if (value.isIntegralNumber() && value.canConvertToLong()) {
+            long number = value.longValue();
+            if (number >= 0) {
+                writeHeader(output, UNSIGNED, number);
+            }
+            else {
+                writeHeader(output, NEGATIVE, -1 - number);
+            }
+        }
+        else if (value.isNumber()) {
+            writeDouble(output, value.doubleValue());
+        }
+        else if (value.isBoolean()) {
+            output.write(value.booleanValue() ? TRUE : FALSE);
+        }
+        else if (value.isNull() || value.isMissingNode()) {
+            output.write(NULL);
+        }
+        else {
+            writeText(output, value.asString());
+        }
+    }
+
+    private static void writeDouble(final ByteArrayOutputStream output, final double value) {
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            output.write(FLOAT32);
+            writeBytes(output, Float.floatToIntBits(single), 4);
+        }
+        else {
+            output.write(FLOAT64);
+            writeBytes(output, Double.doubleToLongBits(value), 8);
+        }
+    }
+
+    private static void writeText(final ByteArrayOutputStream output, final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHeader(output, TEXT, bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the initial byte of a data item with the specified major type and argument.
+     */
+    private static void writeHeader(final ByteArrayOutputStream output, final int majorType, final long argument) {
+        if (argument < 24) {
+            output.write(majorType | (int) argument);
+        }
+        else if (argument < 0x100) {
+            output.write(majorType | 24);
+            writeBytes(output, argument, 1);
+        }
+        else if (argument < 0x10000) {
+            output.write(majorType | 25);
+            writeBytes(output, argument, 2);
+        }
+        else if (argument < 0x100000000L) {
+            output.write(majorType | 26);
+            writeBytes(output, argument, 4);
+        }
+        else {
+            output.write(majorType | 27);
+            writeBytes(output, argument, 8);
+        }
+    }
+
+    private static void writeBytes(final ByteArrayOutputStream output, final long value, final int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            output.write((int) (value >>> (8 * i)) & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import tools.jackson.databind.JsonNode;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * Collects the timings that have been measured in the browsers of the users while loading tables. The timings are
+ * reported by {@code table.js} for all tables that have telemetry enabled (see {@link TableConfiguration#telemetry()}).
+ * For each table and phase the most recent samples are stored, so that percentiles of the times users actually wait
+ * can be computed.
+ *
+ * <p>
+ * The number of tables and the number of samples are bounded and can be configured using the system properties {@code
+ * io.jenkins.plugins.datatables.ClientTableTimings.size} (default: 256) and {@code
+ * io.jenkins.plugins.datatables.ClientTableTimings.samples} (default: 1024).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class ClientTableTimings {
+    /** The phases that are measured in the browser. */
+    public static final List<String> PHASES = List.of("request", "parse", "add", "draw", "adjust", "total");
+
+    private static final String PREFIX = ClientTableTimings.class.getName();
+    private static final int SIZE = SystemProperties.getInteger(PREFIX + ".size", 256);
+    private static final int SAMPLES = SystemProperties.getInteger(PREFIX + ".samples", 1024);
+    private static final int MAXIMUM_REPORTS = 32;
+    private static final double MAXIMUM_DURATION = 10 * 60 * 1000.0;
+    private static final Pattern VALID_ID = Pattern.compile("[\\w.:-]{1,128}");
+
+    private static final ClientTableTimings INSTANCE = new ClientTableTimings();
+
+    /**
+     * Returns the timings of this controller.
+     *
+     * @return the timings
+     */
+    public static ClientTableTimings getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<String, TableTiming> timings = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = -1946012964745315425L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, TableTiming> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    ClientTableTimings() {
+        // only the singleton and tests create instances
+    }
+
+    /**
+     * Records the timings that have been reported by a browser. The reports are validated: reports for invalid table
+     * IDs, unknown phases, or durations that are out of range will be ignored.
+     *
+     * @param reports
+     *         the reported timings as JSON array, each element contains the ID of the table and the duration of each
+     *         phase in milliseconds
+     * @param nameMapper
+     *         maps the ID of a table to the name of the table in the metrics
+     *
+     * @see DefaultAsyncTableContentProvider#getTableMetricsName(String)
+     */
+    void record(final JsonNode reports, final Function<String, String> nameMapper) {
+        if (!reports.isArray()) {
+            return;
+        }
+        int count = 0;
+        for (JsonNode report : reports) {
+            if (count++ >= MAXIMUM_REPORTS) {
+                return;
+            }
+            JsonNode id = report.path("id");
+            if (id.isString() && VALID_ID.matcher(id.asString()).matches()) {
+                TableTiming timing;
+                synchronized (timings) {
+                    timing = timings.computeIfAbsent(nameMapper.apply(id.asString()), TableTiming::new);
+                }
+                timing.add(report);
+            }
+        }
+    }
+
+    /**
+     * Returns the timings of the table with the specified name.
+     *
+     * @param name
+     *         the name of the table
+     *
+     * @return the timings, or an empty optional if no timings have been reported for the table yet
+     */
+    public Optional<TableTiming> getTable(final String name) {
+        synchronized (timings) {
+            return Optional.ofNullable(timings.get(name));
+        }
+    }
+
+    /**
+     * Returns the timings of all tables, ordered by the 90th percentile of the total time.
+     *
+     * @return the timings of all tables
+     */
+    public List<TableTiming> getTables() {
+        synchronized (timings) {
+            return timings.values().stream()
+                    .sorted(Comparator.comparingDouble((TableTiming timing) -> timing.getPercentile("total", 90))
+                            .reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Removes all timings.
+     */
+    public void reset() {
+        synchronized (timings) {
+            timings.clear();
+        }
+    }
+
+    /**
+     * The timings that have been reported for a single table. For each phase the most recent samples are stored.
+     */
+    public static final class TableTiming {
+        private final String name;
+        private final Map<String, Samples> samples = new LinkedHashMap<>();
+        private long count;
+
+        TableTiming(final String name) {
+            this.name = name;
+            for (String phase : PHASES) {
+                samples.put(phase, new Samples());
+            }
+        }
+
+        synchronized void add(final JsonNode report) {
+            count++;
+            for (String phase : PHASES) {
+                JsonNode duration = report.path(phase);
+                if (duration.isNumber()) {
+                    double value = duration.doubleValue();
+                    if (value >= 0 && value <= MAXIMUM_DURATION) {
+                        samples.get(phase).add(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the name of the table.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of reports for this table.
+         *
+         * @return the number of reports
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the percentile of the durations of the specified phase.
+         *
+         * @param phase
+         *         the phase, see {@link #PHASES}
+         * @param percentile
+         *         the percentile in the interval [0, 100]
+         *
+         * @return the duration in milliseconds, or 0 if there are no samples for the phase
+         */
+        public synchronized double getPercentile(final String phase, final int percentile) {
+            Samples values = samples.get(phase);
+            return values == null ? 0 : values.getPercentile(percentile);
+        }
+    }
+
+    /**
+     * Stores the most recent samples of a phase in a ring buffer that grows on demand.
+     */
+    private static final class Samples {
+        private double[] values = new double[16];
+        private int size;
+        private int next;
+
+        void add(final double value) {
+            if (size < SAMPLES) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(SAMPLES, values.length * 2));
+                }
+                values[size++] = value;
+            }
+            else {
+                values[next] = value;
+                next = (next + 1) % SAMPLES;
+            }
+        }
+
+        double getPercentile(final int percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            double[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
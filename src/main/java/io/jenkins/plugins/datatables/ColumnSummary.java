@@ -0,0 +1,166 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import io.jenkins.plugins.datatables.TableColumn.Aggregation;
+
+/**
+ * The aggregated values of a single column of a table. Only the aggregations that have been configured for the column
+ * (see {@link TableColumn.ColumnBuilder#withAggregation(Aggregation...)}) will be part of the JSON representation.
+ *
+ * @author Ullrich Hafner
+ */
+public class ColumnSummary {
+    private final String propertyKey;
+    private final Set<Aggregation> aggregations;
+    private final Map<String, Integer> facets = new HashMap<>();
+
+    private int count;
+    private int numberCount;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    ColumnSummary(final TableColumn column) {
+        this(column.getDataPropertyKey(), column.getAggregations());
+    }
+
+    ColumnSummary(final String propertyKey, final Set<Aggregation> aggregations) {
+        this.propertyKey = propertyKey;
+        this.aggregations = aggregations.isEmpty() ? EnumSet.noneOf(Aggregation.class) : EnumSet.copyOf(aggregations);
+    }
+
+    void add(final JsonNode row) {
+        JsonNode cell = TableCells.getCell(row, propertyKey);
+        if (TableCells.isEmpty(cell)) {
+            return;
+        }
+        count++;
+        TableCells.getNumber(cell).ifPresent(this::addNumber);
+        if (aggregations.contains(Aggregation.FACETS)) {
+            facets.merge(TableCells.getDisplayText(cell), 1, Integer::sum);
+        }
+    }
+
+    private void addNumber(final double value) {
+        numberCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public Set<Aggregation> getAggregations() {
+        return Collections.unmodifiableSet(aggregations);
+    }
+
+    /**
+     * Returns the number of rows that have a value in this column.
+     *
+     * @return the number of values
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of all numeric values in this column.
+     *
+     * @return the sum
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the minimum of all numeric values in this column.
+     *
+     * @return the minimum, or an empty value if the column contains no numbers
+     */
+    public OptionalDouble getMin() {
+        return numberCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(min);
+    }
+
+    /**
+     * Returns the maximum of all numeric values in this column.
+     *
+     * @return the maximum, or an empty value if the column contains no numbers
+     */
+    public OptionalDouble getMax() {
+        return numberCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(max);
+    }
+
+    /**
+     * Returns the arithmetic mean of all numeric values in this column.
+     *
+     * @return the average, or an empty value if the column contains no numbers
+     */
+    public OptionalDouble getAverage() {
+        return numberCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / numberCount);
+    }
+
+    /**
+     * Returns the number of occurrences of each distinct value in this column. The facets are sorted by the number of
+     * occurrences (descending).
+     *
+     * @return the facets
+     */
+    public Map<String, Integer> getFacets() {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        facets.entrySet().stream()
+                .sorted(Entry.<String, Integer>comparingByValue().reversed().thenComparing(Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    void write(final ObjectNode node) {
+        for (Aggregation aggregation : aggregations) {
+            String name = aggregation.toString();
+            switch (aggregation) {
+                case COUNT:
+                    node.put(name, count);
+                    break;
+                case SUM:
+                    node.put(name, sum);
+                    break;
+                case MIN:
+                    putOptional(node, name, getMin());
+                    break;
+                case MAX:
+                    putOptional(node, name, getMax());
+                    break;
+                case AVERAGE:
+                    putOptional(node, name, getAverage());
+                    break;
+                case FACETS:
+                    ObjectNode facetsNode = node.putObject(name);
+                    getFacets().forEach(facetsNode::put);
+                    break;
+                default:
+                    // no other aggregations
+            }
+        }
+    }
+
+    private void putOptional(final ObjectNode node, final String name, final OptionalDouble value) {
+        if (value.isPresent()) {
+            node.put(name, value.getAsDouble());
+        }
+        else {
+            node.putNull(name);
+        }
+    }
+}
@@ -0,0 +1,650 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * A compact, column oriented storage for the rows of a table. Rather than keeping one Java object per row (with boxed
+ * fields and duplicated strings) the values of each column are stored in a single primitive array. Strings are
+ * dictionary coded, i.e. each distinct string of a column is stored only once. Missing values are stored in a bit set.
+ *
+ * <p>
+ * The rows of a store are written directly to the JSON representation required by DataTables, no intermediate row
+ * objects will be created. Use a {@link ColumnarTableModel} to back a table with such a store.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class ColumnarRowStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final String DISPLAY = "display";
+    private static final String SORT = "sort";
+
+    private final List<Column> columns;
+    private final int rowCount;
+
+    private ColumnarRowStore(final List<Column> columns, final int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    static ColumnarRowStore create(final List<Column> columns, final int rowCount) {
+        return new ColumnarRowStore(new ArrayList<>(columns), rowCount);
+    }
+
+    /**
+     * Returns the number of rows in this store.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the property keys of the columns of this store.
+     *
+     * @return the property keys
+     */
+    public List<String> getPropertyKeys() {
+        return columns.stream().map(Column::getKey).collect(Collectors.toList());
+    }
+
+    List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Returns a view of this store without the columns with the specified property keys. The values of the remaining
+     * columns are shared with this store.
+     *
+     * @param keys
+     *         the property keys of the columns to remove
+     *
+     * @return the store without the specified columns
+     */
+    ColumnarRowStore withoutColumns(final Set<String> keys) {
+        return create(columns.stream().filter(column -> !keys.contains(column.getKey())).collect(Collectors.toList()),
+                rowCount);
+    }
+
+    /**
+     * Writes all rows of this store as JSON array of row objects.
+     *
+     * @param generator
+     *         the generator to write the rows to
+     */
+    public void writeRows(final JsonGenerator generator) {
+        writeRows(generator, 0, rowCount);
+    }
+
+    /**
+     * Writes the specified range of rows of this store as JSON array of row objects.
+     *
+     * @param generator
+     *         the generator to write the rows to
+     * @param start
+     *         the index of the first row to write
+     * @param length
+     *         the number of rows to write
+     */
+    public void writeRows(final JsonGenerator generator, final int start, final int length) {
+        generator.writeStartArray();
+        int end = Math.min(rowCount, start + length);
+        for (int row = Math.max(0, start); row < end; row++) {
+            TableCancellation.checkCancelled();
+            writeRow(generator, row);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes the specified row of this store as JSON object.
+     *
+     * @param generator
+     *         the generator to write the row to
+     * @param row
+     *         the index of the row
+     */
+    public void writeRow(final JsonGenerator generator, final int row) {
+        generator.writeStartObject();
+        for (Column column : columns) {
+            generator.writeName(column.getKey());
+            column.write(generator, row);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Returns all rows of this store as JSON array.
+     *
+     * @return the rows as JSON array
+     */
+    public String toJson() {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            writeRows(generator);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Returns the specified row as JSON object. The object will be created on demand and is not cached.
+     *
+     * @param row
+     *         the index of the row
+     *
+     * @return the row
+     */
+    public ObjectNode getRow(final int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not in the range [0, " + rowCount + ")");
+        }
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (Column column : columns) {
+            node.set(column.getKey(), column.toNode(row));
+        }
+        return node;
+    }
+
+    /**
+     * Returns a read-only list view of the rows of this store. The elements of the list are {@link ObjectNode}
+     * instances that will be created on demand when accessed.
+     *
+     * @return the rows
+     */
+    public List<Object> asRows() {
+        return new AbstractList<>() {
+            @Override
+            public Object get(final int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * The type of the values stored in a column.
+     */
+    public enum ValueType {
+        /** Integral numbers, stored as {@code long} values. */
+        LONG,
+        /** Floating point numbers, stored as {@code double} values. */
+        DOUBLE,
+        /** Texts, stored in a dictionary. */
+        TEXT
+    }
+
+    /**
+     * Builder for {@link ColumnarRowStore} instances. First, the columns need to be defined. Then the rows can be
+     * added, the values of each row must be provided in the order of the column definitions.
+     */
+    public static class Builder {
+        private final List<Column> columns = new ArrayList<>();
+        private int rowCount;
+
+        /**
+         * Adds a column with integral numbers.
+         *
+         * @param propertyKey
+         *         the property key of the column
+         *
+         * @return this
+         */
+        public Builder withLongColumn(final String propertyKey) {
+            return withColumn(createColumn(propertyKey, ValueType.LONG));
+        }
+
+        /**
+         * Adds a column with floating point numbers.
+         *
+         * @param propertyKey
+         *         the property key of the column
+         *
+         * @return this
+         */
+        public Builder withDoubleColumn(final String propertyKey) {
+            return withColumn(createColumn(propertyKey, ValueType.DOUBLE));
+        }
+
+        /**
+         * Adds a column with texts. Equal texts will be stored only once.
+         *
+         * @param propertyKey
+         *         the property key of the column
+         *
+         * @return this
+         */
+        public Builder withTextColumn(final String propertyKey) {
+            return withColumn(createColumn(propertyKey, ValueType.TEXT));
+        }
+
+        /**
+         * Adds a column with {@link DetailedCell} values. The display values will be stored as texts, the sort values
+         * will be stored using the specified type.
+         *
+         * @param propertyKey
+         *         the property key of the column
+         * @param sortType
+         *         the type of the sort values
+         *
+         * @return this
+         */
+        public Builder withDetailedColumn(final String propertyKey, final ValueType sortType) {
+            return withColumn(new DetailedColumn(propertyKey, new TextColumn(DISPLAY), createColumn(SORT, sortType)));
+        }
+
+        /**
+         * Adds a column with arbitrary JSON values. The values must be provided as JSON texts, equal texts will be
+         * stored only once.
+         *
+         * @param propertyKey
+         *         the property key of the column
+         *
+         * @return this
+         */
+        Builder withJsonColumn(final String propertyKey) {
+            return withColumn(new JsonColumn(propertyKey));
+        }
+
+        private Builder withColumn(final Column column) {
+            if (rowCount > 0) {
+                throw new IllegalStateException("Columns must be defined before the first row is added");
+            }
+            if (columns.stream().anyMatch(c -> c.getKey().equals(column.getKey()))) {
+                throw new IllegalArgumentException("Duplicate column " + column.getKey());
+            }
+            columns.add(column);
+
+            return this;
+        }
+
+        /**
+         * Adds a new row. The values must be provided in the order of the column definitions. Values may be {@code
+         * null}, numbers must be instances of {@link Number}, values of detailed columns must be instances of {@link
+         * DetailedCell}.
+         *
+         * @param values
+         *         the values of the row
+         *
+         * @return this
+         */
+        public Builder addRow(final Object... values) {
+            if (values.length != columns.size()) {
+                throw new IllegalArgumentException(String.format("Row has %d values but store has %d columns",
+                        values.length, columns.size()));
+            }
+            for (int i = 0; i < values.length; i++) {
+                columns.get(i).add(rowCount, values[i]);
+            }
+            rowCount++;
+
+            return this;
+        }
+
+        /**
+         * Creates the store with all rows that have been added so far. The builder must not be used anymore.
+         *
+         * @return the created store
+         */
+        public ColumnarRowStore build() {
+            columns.forEach(column -> column.trim(rowCount));
+
+            return create(columns, rowCount);
+        }
+    }
+
+    static Column createColumn(final String key, final ValueType type) {
+        switch (type) {
+            case LONG:
+                return new LongColumn(key);
+            case DOUBLE:
+                return new DoubleColumn(key);
+            default:
+                return new TextColumn(key);
+        }
+    }
+
+    /**
+     * A single column of the store.
+     */
+    abstract static class Column {
+        private final String key;
+        private final BitSet nulls;
+
+        Column(final String key) {
+            this(key, new BitSet());
+        }
+
+        Column(final String key, final BitSet nulls) {
+            this.key = key;
+            this.nulls = nulls;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        BitSet getNulls() {
+            return nulls;
+        }
+
+        boolean isNull(final int row) {
+            return nulls.get(row);
+        }
+
+        void add(final int row, final Object value) {
+            if (value == null) {
+                nulls.set(row);
+                addValue(row, null);
+            }
+            else {
+                addValue(row, value);
+            }
+        }
+
+        void write(final JsonGenerator generator, final int row) {
+            if (isNull(row)) {
+                generator.writeNull();
+            }
+            else {
+                writeValue(generator, row);
+            }
+        }
+
+        JsonNode toNode(final int row) {
+            if (isNull(row)) {
+                return JsonNodeFactory.instance.nullNode();
+            }
+            return toValueNode(row);
+        }
+
+        abstract void addValue(int row, Object value);
+
+        abstract void writeValue(JsonGenerator generator, int row);
+
+        abstract JsonNode toValueNode(int row);
+
+        abstract void trim(int size);
+
+        static int grow(final int capacity) {
+            return Math.max(INITIAL_CAPACITY, capacity * 2);
+        }
+
+        static Number toNumber(final Object value) {
+            if (value instanceof Number) {
+                return (Number) value;
+            }
+            throw new IllegalArgumentException("Value " + value + " is not a number");
+        }
+    }
+
+    /**
+     * A column that stores integral numbers.
+     */
+    static class LongColumn extends Column {
+        private long[] values = new long[0];
+
+        LongColumn(final String key) {
+            super(key);
+        }
+
+        LongColumn(final String key, final BitSet nulls) {
+            super(key, nulls);
+        }
+
+        long get(final int row) {
+            return values[row];
+        }
+
+        long[] getValues() {
+            return values;
+        }
+
+        @Override
+        void addValue(final int row, final Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[row] = value == null ? 0 : toNumber(value).longValue();
+        }
+
+        @Override
+        void writeValue(final JsonGenerator generator, final int row) {
+            generator.writeNumber(get(row));
+        }
+
+        @Override
+        JsonNode toValueNode(final int row) {
+            return JsonNodeFactory.instance.numberNode(get(row));
+        }
+
+        @Override
+        void trim(final int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * A column that stores floating point numbers.
+     */
+    static class DoubleColumn extends Column {
+        private double[] values = new double[0];
+
+        DoubleColumn(final String key) {
+            super(key);
+        }
+
+        DoubleColumn(final String key, final BitSet nulls) {
+            super(key, nulls);
+        }
+
+        double get(final int row) {
+            return values[row];
+        }
+
+        double[] getValues() {
+            return values;
+        }
+
+        @Override
+        void addValue(final int row, final Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[row] = value == null ? 0 : toNumber(value).doubleValue();
+        }
+
+        @Override
+        void writeValue(final JsonGenerator generator, final int row) {
+            generator.writeNumber(get(row));
+        }
+
+        @Override
+        JsonNode toValueNode(final int row) {
+            return JsonNodeFactory.instance.numberNode(get(row));
+        }
+
+        @Override
+        void trim(final int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * A column that stores dictionary coded texts.
+     */
+    static class TextColumn extends Column {
+        private final List<String> dictionary = new ArrayList<>();
+        private Map<String, Integer> index = new HashMap<>();
+        private int[] codes = new int[0];
+
+        TextColumn(final String key) {
+            super(key);
+        }
+
+        TextColumn(final String key, final BitSet nulls) {
+            super(key, nulls);
+        }
+
+        String get(final int row) {
+            return getDictionary().get(getCode(row));
+        }
+
+        int getCode(final int row) {
+            return codes[row];
+        }
+
+        List<String> getDictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        int[] getCodes() {
+            return codes;
+        }
+
+        boolean isJson() {
+            return false;
+        }
+
+        @Override
+        void addValue(final int row, final Object value) {
+            if (row >= codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length));
+            }
+            if (value != null) {
+                codes[row] = index.computeIfAbsent(String.valueOf(value), text -> {
+                    dictionary.add(text);
+                    return dictionary.size() - 1;
+                });
+            }
+        }
+
+        @Override
+        void writeValue(final JsonGenerator generator, final int row) {
+            if (isJson()) {
+                generator.writeRawValue(get(row));
+            }
+            else {
+                generator.writeString(get(row));
+            }
+        }
+
+        @Override
+        JsonNode toValueNode(final int row) {
+            if (isJson()) {
+                return TableCells.getMapper().readTree(get(row));
+            }
+            return JsonNodeFactory.instance.stringNode(get(row));
+        }
+
+        @Override
+        void trim(final int size) {
+            codes = Arrays.copyOf(codes, size);
+            index = Collections.emptyMap(); // the index is required only while adding rows
+        }
+    }
+
+    /**
+     * A column that stores arbitrary JSON values as dictionary coded texts.
+     */
+    static class JsonColumn extends TextColumn {
+        JsonColumn(final String key) {
+            super(key);
+        }
+
+        JsonColumn(final String key, final BitSet nulls) {
+            super(key, nulls);
+        }
+
+        @Override
+        boolean isJson() {
+            return true;
+        }
+    }
+
+    /**
+     * A column that stores the display and sort values of {@link DetailedCell} instances.
+     */
+    static class DetailedColumn extends Column {
+        private final Column display;
+        private final Column sort;
+
+        DetailedColumn(final String key, final Column display, final Column sort) {
+            this(key, new BitSet(), display, sort);
+        }
+
+        DetailedColumn(final String key, final BitSet nulls, final Column display, final Column sort) {
+            super(key, nulls);
+
+            this.display = display;
+            this.sort = sort;
+        }
+
+        Column getDisplay() {
+            return display;
+        }
+
+        Column getSort() {
+            return sort;
+        }
+
+        @Override
+        void addValue(final int row, final Object value) {
+            if (value == null) {
+                display.add(row, null);
+                sort.add(row, null);
+            }
+            else if (value instanceof DetailedCell) {
+                DetailedCell<?> cell = (DetailedCell<?>) value;
+                display.add(row, cell.getDisplay());
+                sort.add(row, cell.getSort());
+            }
+            else {
+                throw new IllegalArgumentException("Value " + value + " is not a DetailedCell");
+            }
+        }
+
+        @Override
+        void writeValue(final JsonGenerator generator, final int row) {
+            generator.writeStartObject();
+            generator.writeName(DISPLAY);
+            display.write(generator, row);
+            generator.writeName(SORT);
+            sort.write(generator, row);
+            generator.writeEndObject();
+        }
+
+        @Override
+        JsonNode toValueNode(final int row) {
+            ObjectNode node = JsonNodeFactory.instance.objectNode();
+            node.set(DISPLAY, display.toNode(row));
+            node.set(SORT, sort.toNode(row));
+            return node;
+        }
+
+        @Override
+        void trim(final int size) {
+            display.trim(size);
+            sort.trim(size);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+
+import tools.jackson.core.JsonGenerator;
+
+/**
+ * A {@link TableModel} that is backed by a {@link ColumnarRowStore}. The rows of such a model will be written directly
+ * from the column arrays of the store to the JSON response, no row objects need to be kept in memory.
+ *
+ * @author Ullrich Hafner
+ */
+public abstract class ColumnarTableModel extends TableModel {
+    /**
+     * Returns the store that contains the rows of this table.
+     *
+     * @return the row store
+     */
+    public abstract ColumnarRowStore getRowStore();
+
+    /**
+     * Returns a read-only view of the rows of the store. Each row will be created on demand as JSON object, so this
+     * method should be used only if single rows need to be accessed.
+     *
+     * @return the rows
+     */
+    @Override
+    public List<Object> getRows() {
+        return getRowStore().asRows();
+    }
+
+    @Override
+    public int writeRows(final JsonGenerator generator) {
+        ColumnarRowStore store = getRowStore();
+        store.writeRows(generator);
+        return store.getRowCount();
+    }
+}
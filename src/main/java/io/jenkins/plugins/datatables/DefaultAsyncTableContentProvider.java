@@ -1,9 +1,43 @@
 package io.jenkins.plugins.datatables;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import tools.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.node.ObjectNode;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.model.Jenkins;
 
 /**
  * An {@link AsyncTableContentProvider} that provides a default implementation to extract the rows of a given date table
@@ -12,13 +46,1086 @@ import org.kohsuke.stapler.bind.JavaScriptMethod;
  * @author Ullrich Hafner
  */
 public abstract class DefaultAsyncTableContentProvider implements AsyncTableContentProvider {
+    private static final Logger LOGGER = Logger.getLogger(DefaultAsyncTableContentProvider.class.getName());
+    private static final int MAXIMUM_TIMINGS_LENGTH = 64 * 1024;
+    private static final int MAXIMUM_IDS_LENGTH = 4 * 1024;
+    private static final int MAXIMUM_SELECTION_LENGTH = 256 * 1024;
+
+    private transient Map<String, TableHistory> histories;
+    private transient Map<String, TableEventChannel> channels;
+    private transient Map<String, TableSelection> selections;
+    private transient Map<String, Boolean> serverSideTables;
+    private transient TableQueryCache queries;
+    private transient Set<Path> verifiedSnapshots;
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * If caching is enabled (see {@link #getTableCacheKey(String)}) then the rows will be served from the
+     * {@link TablePayloadCache} if possible. If snapshots are enabled (see {@link #getTableSnapshotDirectory()}) then
+     * the rows will be served from the snapshot of the table. If there is no such snapshot yet, then it will be
+     * created from the table model.
+     * </p>
+     *
+     * <p>
+     * The rows are created in the calling thread, so this method always returns the rows. The browser uses
+     * {@link #requestTableRows(String)} instead.
+     * </p>
+     */
     @Override
     @JavaScriptMethod
     public String getTableRows(final String id) {
-        return toJsonArray(getTableModel(id).getRows());
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id));
+        Optional<TablePayloadCache.CachedRows> cached = getTableCacheKey(id).flatMap(TablePayloadCache::getRows);
+        if (cached.isPresent()) {
+            return recordCacheHit(cached.get(), measurement);
+        }
+        return loadTableRows(id, measurement);
+    }
+
+    /**
+     * Returns the rows of the table with the specified ID, just like {@link #getTableRows(String)}. In contrast to
+     * that method, rows that are not cached will be created using the {@link TableRequestExecutor}: if the executor
+     * is busy, then the {@link TableRequestExecutor#getBusyResponse() busy response} will be returned instead of the
+     * rows, if the computation has reached the timeout, then the
+     * {@link TableRequestExecutor#getTimeoutResponse() timeout response}. This method will be invoked by
+     * {@code table.js} to load the rows of a table.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the rows of the table as JSON array, or the busy or timeout response as JSON object
+     */
+    @JavaScriptMethod
+    public String requestTableRows(final String id) {
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id));
+        Optional<TablePayloadCache.CachedRows> cached = getTableCacheKey(id).flatMap(TablePayloadCache::getRows);
+        if (cached.isPresent()) {
+            return recordCacheHit(cached.get(), measurement);
+        }
+        return respond(id, () -> loadTableRows(id, measurement));
+    }
+
+    private String recordCacheHit(final TablePayloadCache.CachedRows cached,
+            final TableRequestRecord.Builder measurement) {
+        String rows = cached.getPayload();
+        TableMetrics.getInstance().record(
+                measurement.withCacheHit().withRowCount(cached.getRowCount()).build(rows));
+        return rows;
+    }
+
+    /**
+     * Computes the JSON response for the table with the specified ID using the {@link TableRequestExecutor}. If the
+     * executor is busy, then the {@link TableRequestExecutor#getBusyResponse() busy response} will be returned. If the
+     * computation has reached the timeout, then the {@link TableRequestExecutor#getTimeoutResponse() timeout response}
+     * will be returned.
+     */
+    private String respond(final String id, final Supplier<String> computation) {
+        try {
+            return execute(id, computation).orElseGet(TableRequestExecutor::getBusyResponse);
+        }
+        catch (TableRequestTimeoutException exception) {
+            LOGGER.log(Level.WARNING, "Computation of table {0} has reached the timeout", id);
+
+            return TableRequestExecutor.getTimeoutResponse();
+        }
+    }
+
+    /**
+     * Computes the content of the table with the specified ID using the {@link TableRequestExecutor}. Computations that
+     * have been cancelled by the browser are recorded in the {@link TableMetrics} and treated like rejected requests.
+     * Computations that have reached the timeout are recorded as well, but the {@link TableRequestTimeoutException} is
+     * passed to the caller.
+     */
+    private <T> Optional<T> execute(final String id, final Supplier<T> computation) {
+        try {
+            return TableRequestExecutor.execute(this, id, computation);
+        }
+        catch (CancellationException exception) {
+            LOGGER.log(Level.FINE, "Computation of table {0} has been cancelled", id);
+            TableMetrics.getInstance().recordAbort(getTableMetricsName(id));
+
+            return Optional.empty();
+        }
+        catch (TableRequestTimeoutException exception) {
+            TableMetrics.getInstance().recordAbort(getTableMetricsName(id));
+
+            throw exception;
+        }
+    }
+
+    private String loadTableRows(final String id, final TableRequestRecord.Builder measurement) {
+        return loadTableRows(id, measurement, () -> createTableModel(id, measurement));
+    }
+
+    private String loadTableRows(final String id, final TableRequestRecord.Builder measurement,
+            final Supplier<TableModel> model) {
+        Optional<String> cacheKey = getTableCacheKey(id);
+        String rows = createTableRows(id, measurement, model);
+        cacheKey.ifPresent(key -> TablePayloadCache.put(key, rows, measurement.getRowCount()));
+        TableMetrics.getInstance().record(measurement.build(rows));
+        return rows;
+    }
+
+    private String createTableRows(final String id, final TableRequestRecord.Builder measurement,
+            final Supplier<TableModel> model) {
+        return toJsonArray(DeferredColumns.strip(getServerTableModel(id, measurement, model)), measurement);
+    }
+
+    private TableModel getServerTableModel(final String id) {
+        return getServerTableModel(id, new TableRequestRecord.Builder(getTableMetricsName(id)));
+    }
+
+    private TableModel getServerTableModel(final String id, final TableRequestRecord.Builder measurement) {
+        return getServerTableModel(id, measurement, () -> createTableModel(id, measurement));
     }
 
-    private String toJsonArray(final List<Object> rows) {
-        return new ObjectMapper().writeValueAsString(rows);
+    /**
+     * Returns the model of the table with the specified ID that should be used to answer the requests of the browser.
+     * If snapshots are enabled (see {@link #getTableSnapshotDirectory()}), then the model is read from the snapshot
+     * of the table, the snapshot will be created if required. Otherwise, the table model will be created.
+     *
+     * <p>
+     * When a snapshot is used for the first time by this provider, then the columns and the configuration of the
+     * snapshot are compared with the current table model (without evaluating its rows). If the definition of the table
+     * has been changed, e.g. by a newer version of a plugin, then the snapshot will be written again.
+     * </p>
+     */
+    private TableModel getServerTableModel(final String id, final TableRequestRecord.Builder measurement,
+            final Supplier<TableModel> model) {
+        Optional<Path> directory = getTableSnapshotDirectory();
+        if (directory.isPresent()) {
+            Path file = TableSnapshot.getFile(directory.get(), id);
+            try {
+                return readSnapshot(file, model, measurement);
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Can't use snapshot of table " + id + " in " + file, exception);
+            }
+        }
+        return model.get();
+    }
+
+    private ColumnarTableModel readSnapshot(final Path file, final Supplier<TableModel> model,
+            final TableRequestRecord.Builder measurement) throws IOException {
+        TableModel table = null;
+        if (Files.exists(file)) {
+            try {
+                ColumnarTableModel snapshot = TableSnapshot.readTable(file);
+                if (getVerifiedSnapshots().contains(file)) {
+                    return snapshot;
+                }
+                table = model.get();
+                if (TableSnapshot.isSnapshotOf(snapshot, table)) {
+                    getVerifiedSnapshots().add(file);
+
+                    return snapshot;
+                }
+                LOGGER.log(Level.FINE, "Replacing snapshot " + file + " of a table with a different definition");
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.FINE, "Replacing outdated or invalid snapshot " + file, exception);
+            }
+        }
+        if (table == null) {
+            table = model.get();
+        }
+
+        long start = System.nanoTime();
+        TableSnapshot.write(table, file);
+        measurement.addSerializationTime(System.nanoTime() - start);
+        getVerifiedSnapshots().add(file);
+        return TableSnapshot.readTable(file);
+    }
+
+    private Set<Path> getVerifiedSnapshots() {
+        synchronized (this) {
+            if (verifiedSnapshots == null) {
+                verifiedSnapshots = ConcurrentHashMap.newKeySet();
+            }
+            return verifiedSnapshots;
+        }
+    }
+
+    private TableModel createTableModel(final String id, final TableRequestRecord.Builder measurement) {
+        long start = System.nanoTime();
+        TableModel model = getTableModel(id);
+        measurement.addModelTime(System.nanoTime() - start);
+        return model;
+    }
+
+    /**
+     * Returns the rows of the table with the specified ID, or tells the browser to show the table in server-side
+     * processing mode if the table is too large to be shown in the browser at once (see {@link TablePaging}). The
+     * response is a JSON object with the property {@code rows} (the rows of the table as returned by
+     * {@link #getTableRows(String)}) or with the property {@code serverSide}. In server-side mode, the browser requests
+     * the visible page of rows using {@link #getTablePage(String, int, int, String, String)}.
+     *
+     * <p>
+     * If the rows are cached, then the mode will be chosen based on the actual size of the cached rows. Otherwise, the
+     * size of the table is estimated from the table model before the rows are serialized: the number of rows is taken
+     * from the model and the size of the payload is estimated from a sample of the rows (see {@link TablePaging}). So
+     * the rows of a large table will not be serialized just to decide that the table should be shown in server-side
+     * mode. The decision is remembered for each table of this provider until the table changes (see
+     * {@link #fireTableChanged(String)}).
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the rows of the table or the server-side response as JSON object
+     */
+    @JavaScriptMethod
+    public String getTableContent(final String id) {
+        Optional<Boolean> isServerSide = getServerSideDecision(id);
+        if (isServerSide.orElse(false)) {
+            return TablePaging.getServerSideResponse();
+        }
+
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id));
+        Optional<TablePayloadCache.CachedRows> cached = getTableCacheKey(id).flatMap(TablePayloadCache::getRows);
+        if (cached.isPresent()) {
+            return createTableContent(id, recordCacheHit(cached.get(), measurement), cached.get().getRowCount());
+        }
+        return respond(id, () -> loadTableContent(id, isServerSide.isEmpty(), measurement));
+    }
+
+    private String loadTableContent(final String id, final boolean isEstimationRequired,
+            final TableRequestRecord.Builder measurement) {
+        TableModel model = getServerTableModel(id, measurement);
+        if (isEstimationRequired && TablePaging.isServerSide(model)) {
+            setServerSideDecision(id, true);
+
+            return TablePaging.getServerSideResponse();
+        }
+        return createTableContent(id, loadTableRows(id, measurement, () -> model), measurement.getRowCount());
+    }
+
+    private String createTableContent(final String id, final String rows, final int rowCount) {
+        boolean isServerSide = TablePaging.isServerSide(rowCount, rows.length());
+        setServerSideDecision(id, isServerSide);
+        if (isServerSide) {
+            return TablePaging.getServerSideResponse();
+        }
+        return TablePaging.getClientSideResponse(rows);
+    }
+
+    private Optional<Boolean> getServerSideDecision(final String id) {
+        synchronized (this) {
+            return serverSideTables == null ? Optional.empty() : Optional.ofNullable(serverSideTables.get(id));
+        }
+    }
+
+    private void setServerSideDecision(final String id, final boolean isServerSide) {
+        synchronized (this) {
+            if (serverSideTables == null) {
+                serverSideTables = new HashMap<>();
+            }
+            serverSideTables.put(id, isServerSide);
+        }
+    }
+
+    /**
+     * Returns a page of the rows of the table with the specified ID. This method is used by tables that are shown in
+     * server-side processing mode (see {@link #getTableContent(String)}): only the rows that match the search value
+     * are returned, in the specified order. The page will be computed using the {@link TableRequestExecutor}: if the
+     * executor is busy, then the {@link TableRequestExecutor#getBusyResponse() busy response} will be returned instead
+     * of the page. The measurements of the page requests are recorded in the {@link TableMetrics} with the suffix
+     * {@code (pages)}. The table model and the indexes of the rows in the recently used orders and searches are cached
+     * for each user (see {@link TableQueryCache}), so subsequent requests for other pages, orders, or search values
+     * of the same table do not create the model again.
+     *
+     * @param id
+     *         ID of the table model
+     * @param start
+     *         the index of the first row of the page
+     * @param length
+     *         the number of rows of the page, -1 selects all rows
+     * @param search
+     *         the current search value of the table
+     * @param order
+     *         the current order of the table, a comma separated list of column indexes and directions, e.g.
+     *         {@code 1:asc,3:desc}
+     *
+     * @return the page as JSON object with the properties {@code recordsTotal}, {@code recordsFiltered}, and
+     *         {@code data}
+     */
+    @JavaScriptMethod
+    public String getTablePage(final String id, final int start, final int length, final String search,
+            final String order) {
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id) + " (pages)");
+        return respond(id, () -> loadTablePage(id, start, length, search, order, measurement));
+    }
+
+    private String loadTablePage(final String id, final int start, final int length, final String search,
+            final String order, final TableRequestRecord.Builder measurement) {
+        String page = getTableQueries().createPage(id, Jenkins.getAuthentication2().getName(),
+                () -> getServerTableModel(id, measurement), start, length, search, order, measurement);
+        TableMetrics.getInstance().record(measurement.build(page));
+        return page;
+    }
+
+    private TableQueryCache getTableQueries() {
+        synchronized (this) {
+            if (queries == null) {
+                queries = new TableQueryCache();
+            }
+            return queries;
+        }
+    }
+
+    /**
+     * Returns the values of the specified column for all rows of the table with the specified ID. This method is used
+     * by tables that {@link TableConfiguration#deferHiddenColumns() defer hidden columns}: the browser requests the
+     * values of a hidden column when the column becomes visible or when the rows are searched. The result is a JSON
+     * object with the properties {@code key} (the property key of the column) and {@code values} (the values of the
+     * column in the order of the rows). The values will be computed using the {@link TableRequestExecutor}: if the
+     * executor is busy, then the {@link TableRequestExecutor#getBusyResponse() busy response} will be returned. The
+     * measurements of these requests are recorded in the {@link TableMetrics} with the suffix {@code (columns)}.
+     *
+     * @param id
+     *         ID of the table model
+     * @param column
+     *         the index of the column
+     *
+     * @return the values of the column as JSON object
+     */
+    @JavaScriptMethod
+    public String getTableColumnValues(final String id, final int column) {
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id) + " (columns)");
+        return respond(id, () -> {
+            String values = DeferredColumns.getColumnValues(getServerTableModel(id, measurement), column, measurement);
+            TableMetrics.getInstance().record(measurement.build(values));
+            return values;
+        });
+    }
+
+    /**
+     * Sends the rows of a table in the binary CBOR format (see {@link CborRowEncoder}). The ID of the table is passed
+     * in the request parameter {@code id}. The rows are created using the {@link TableRequestExecutor}: if the
+     * executor is busy, then the request will be rejected with status 503. Note that the encoded rows are not cached.
+     *
+     * <p>
+     * This web method will be invoked by {@code table.js} for all tables that have the
+     * {@link TableConfiguration#binaryRows() binary encoding} enabled.
+     * </p>
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response could not be sent
+     */
+    public void doTableRowsBinary(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        String id = request.getParameter("id");
+        if (StringUtils.isBlank(id)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing table ID");
+            return;
+        }
+
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id));
+        Optional<CborRowEncoder> rows;
+        try {
+            rows = execute(id, () -> encodeTableRows(id, measurement));
+        }
+        catch (TableRequestTimeoutException exception) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exception.getMessage());
+            return;
+        }
+        if (rows.isEmpty()) {
+            sendBusyResponse(response);
+            return;
+        }
+
+        CborRowEncoder encoder = rows.get();
+        int size = encoder.getSize();
+        TableMetrics.getInstance().record(measurement.withRowCount(encoder.getRowCount()).build(size));
+        response.setContentType("application/cbor");
+        response.setContentLength(size);
+        encoder.writeTo(response.getOutputStream());
+    }
+
+    private CborRowEncoder encodeTableRows(final String id, final TableRequestRecord.Builder measurement) {
+        TableModel model = DeferredColumns.strip(getServerTableModel(id, measurement));
+
+        long start = System.nanoTime();
+        CborRowEncoder encoder = CborRowEncoder.encode(model.getRows());
+        measurement.addSerializationTime(System.nanoTime() - start);
+        return encoder;
+    }
+
+    /**
+     * Returns the rows of the table with the specified ID that have been added, changed, or removed since the
+     * specified cursor. The result is a JSON object with the following properties:
+     *
+     * <ul>
+     *     <li>{@code cursor}: the cursor of the returned version, to be used in the next request</li>
+     *     <li>{@code reset}: {@code true} if the client needs to replace all rows, {@code false} if the changes
+     *     should be applied to the existing rows</li>
+     *     <li>{@code rows}: all rows (reset) or the added and changed rows (delta)</li>
+     *     <li>{@code removed}: the IDs of the removed rows</li>
+     * </ul>
+     *
+     * <p>
+     * The rows are identified by the {@link TableConfiguration#rowId(String) row ID} of the table. If there is no row
+     * ID configured, if the cursor is empty, or if the cursor is too old, then all rows are returned. The versions of
+     * the rows are tracked for each user separately. Note that this method will be invoked periodically using an Ajax
+     * call for tables with a configured {@link TableConfiguration#refresh(int) refresh interval}.
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     * @param cursor
+     *         the cursor of the rows that are already shown in the browser, or an empty string for the first request
+     *
+     * @return the changes as JSON object
+     */
+    @JavaScriptMethod
+    public String getTableDelta(final String id, final String cursor) {
+        return respond(id, () -> createTableDelta(id, cursor));
+    }
+
+    private String createTableDelta(final String id, final String cursor) {
+        return createTableChanges(id, Collections.singleton(cursor)).get(cursor).toString();
+    }
+
+    private Map<String, ObjectNode> createTableChanges(final String id, final Collection<String> cursors) {
+        TableModel model = getTableModel(id);
+        List<ObjectNode> rows = model.getRows().stream()
+                .map(TableCells::toNode)
+                .collect(Collectors.toList());
+        String rowId = model.getTableConfiguration().getRowId();
+        if (StringUtils.isBlank(rowId)) {
+            ObjectNode reset = TableHistory.createReset(rows, StringUtils.EMPTY);
+            Map<String, ObjectNode> changes = new HashMap<>();
+            cursors.forEach(cursor -> changes.put(cursor, reset));
+            return changes;
+        }
+        return getTableHistory(id, rowId).update(rows, cursors);
+    }
+
+    /**
+     * Returns the history of the table with the specified ID for the current user. The histories are kept per user,
+     * since the rows of a table (and therefore the row IDs stored in the history) might depend on the permissions of
+     * the user.
+     */
+    private TableHistory getTableHistory(final String id, final String rowId) {
+        String key = Jenkins.getAuthentication2().getName() + "\n" + id + "\n" + rowId;
+        synchronized (this) {
+            if (histories == null) {
+                histories = TableHistory.createHistories();
+            }
+            return histories.computeIfAbsent(key, k -> new TableHistory(rowId));
+        }
+    }
+
+    /**
+     * Streams the changes of the rows of a table to the browser using server-sent events. The ID of the table is
+     * passed in the request parameter {@code id}, the cursor of the rows that are already shown in the browser in the
+     * request parameter {@code cursor} (or in the header {@code Last-Event-ID} if the browser reconnects). Whenever the
+     * rows of the table change (see {@link #fireTableChanged(String)}), a {@code delta} event with the changes since
+     * the cursor is sent: the data of the event has the same format as the result of
+     * {@link #getTableDelta(String, String)}. Requests for tables that do not have the live mode enabled are rejected
+     * with status 404. If the table has already too many subscribers or if the {@link TableRequestExecutor} is busy,
+     * then the request will be rejected with status 503 before the event stream is opened: the browser will fall back
+     * to polling in this case.
+     *
+     * <p>
+     * This web method will be invoked by {@code table.js} for all tables that have the
+     * {@link TableConfiguration#live() live mode} enabled.
+     * </p>
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response could not be sent
+     */
+    public void doTableEvents(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        String id = request.getParameter("id");
+        if (StringUtils.isBlank(id)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing table ID");
+            return;
+        }
+        Optional<Boolean> isLive;
+        try {
+            isLive = execute(id, () -> getTableModel(id).getTableConfiguration().isUseLive());
+        }
+        catch (TableRequestTimeoutException exception) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exception.getMessage());
+            return;
+        }
+        if (isLive.isEmpty()) {
+            sendBusyResponse(response);
+            return;
+        }
+        if (!isLive.get()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No live table with this ID");
+            return;
+        }
+
+        String cursor = StringUtils.defaultIfBlank(request.getHeader("Last-Event-ID"),
+                StringUtils.defaultString(request.getParameter("cursor")));
+        TableEventChannel channel = getTableEventChannel(id);
+        synchronized (channel) { // no other browser can take the last free slot before this one has been subscribed
+            if (!request.isAsyncSupported() || channel.isFull()) {
+                response.setHeader("Retry-After", "60");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many subscribers");
+                return;
+            }
+            subscribe(channel, cursor, request, response);
+        }
+    }
+
+    private static void subscribe(final TableEventChannel channel, final String cursor, final StaplerRequest2 request,
+            final StaplerResponse2 response) throws IOException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // disables buffering of reverse proxies
+        AsyncContext context = request.startAsync();
+        context.setTimeout(TableEventChannel.getTimeout());
+        PrintWriter writer = response.getWriter();
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(final AsyncEvent event) {
+                channel.unsubscribe(writer);
+            }
+
+            @Override
+            public void onTimeout(final AsyncEvent event) {
+                channel.unsubscribe(writer);
+            }
+
+            @Override
+            public void onError(final AsyncEvent event) {
+                channel.unsubscribe(writer);
+            }
+
+            @Override
+            public void onStartAsync(final AsyncEvent event) {
+                // nothing to do
+            }
+        });
+        if (!channel.subscribe(writer, cursor, Jenkins.getAuthentication2(), context::complete)) {
+            context.complete();
+        }
+    }
+
+    /**
+     * Exports the rows of a table to a file download. The ID of the table is passed in the request parameter
+     * {@code id}, the format ({@code csv} or {@code excel}) in the parameter {@code format}. The optional parameters
+     * {@code search} and {@code order} contain the current search value and order of the table in the browser (see
+     * {@link TableExport}). The rows are streamed directly to the response, so that even large tables can be exported
+     * with constant memory overhead.
+     *
+     * <p>
+     * The model of the table is obtained using the {@link TableRequestExecutor}, so it is subject to the same limits
+     * and metrics as the other requests for the rows (the measurements are recorded with the suffix
+     * {@code (export)}). If the executor is busy, then the response status will be 503 with a {@code Retry-After}
+     * header. The rows are streamed in the request thread, so the download is not limited by the timeout of the
+     * executor.
+     * </p>
+     *
+     * <p>
+     * This web method will be invoked by {@code table.js} for all tables that have the
+     * {@link TableConfiguration#serverExport() server side export} enabled.
+     * </p>
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response could not be sent
+     */
+    public void doExportTable(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        String id = request.getParameter("id");
+        Optional<TableExport.Format> format = TableExport.Format.fromName(request.getParameter("format"));
+        if (StringUtils.isBlank(id) || format.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing table ID or unsupported format");
+            return;
+        }
+
+        String search = request.getParameter("search");
+        String order = request.getParameter("order");
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id) + " (export)");
+        Optional<TableModel> model;
+        try {
+            model = execute(id, () -> getServerTableModel(id, measurement));
+        }
+        catch (TableRequestTimeoutException exception) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exception.getMessage());
+            return;
+        }
+        if (model.isEmpty()) {
+            sendBusyResponse(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        response.setContentType(format.get().getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\""
+                + id.replaceAll("[^\\w.-]", "_") + "." + format.get().getExtension() + "\"");
+        CountingWriter writer = new CountingWriter(response.getWriter());
+        int rows = new TableExport(model.get(), search, order).write(format.get(), writer);
+        measurement.withRowCount(rows).addSerializationTime(System.nanoTime() - start);
+        TableMetrics.getInstance().record(measurement.build(writer.getCount()));
+    }
+
+    private static void sendBusyResponse(final StaplerResponse2 response) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TableRequestExecutor.getRetryAfter() / 1000)));
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many table requests");
+    }
+
+    /**
+     * Reports a change of the rows of the table with the specified ID. If browsers are subscribed to the changes of
+     * the table (see {@link TableConfiguration#live()}), then the added, changed, and removed rows will be pushed to
+     * these browsers. Rapid changes will be coalesced, so providers can invoke this method for every single change,
+     * e.g. whenever a new test result or warning has been recorded. Additionally, the decision whether the table is
+     * shown in server-side mode (see {@link #getTableContent(String)}) will be evaluated again and the cached pages of
+     * the table will be discarded.
+     *
+     * @param id
+     *         ID of the table model
+     */
+    protected void fireTableChanged(final String id) {
+        TableEventChannel channel;
+        synchronized (this) {
+            channel = channels == null ? null : channels.get(id);
+            if (serverSideTables != null) {
+                serverSideTables.remove(id);
+            }
+            if (queries != null) {
+                queries.invalidate(id);
+            }
+        }
+        if (channel != null) {
+            channel.publish();
+        }
+    }
+
+    private TableEventChannel getTableEventChannel(final String id) {
+        synchronized (this) {
+            if (channels == null) {
+                channels = new HashMap<>();
+            }
+            return channels.computeIfAbsent(id,
+                    key -> new TableEventChannel(key, cursors -> createTableChanges(key, cursors)));
+        }
+    }
+
+    /**
+     * Materializes the rows of the table with the specified ID, so that subsequent requests can be served without
+     * creating the table model. If caching is enabled (see {@link #getTableCacheKey(String)}), then the serialized
+     * rows will be stored in the {@link TablePayloadCache}. Otherwise, if snapshots are enabled (see
+     * {@link #getTableSnapshotDirectory()}), then the snapshot of the table will be created. If neither is enabled,
+     * then this method does nothing.
+     *
+     * <p>
+     * The table model is created with the authentication of the calling thread: the {@link TablePrecomputation} uses
+     * {@link hudson.security.ACL#SYSTEM2 SYSTEM}. Since the materialized rows will be served to all users, only tables
+     * whose rows do not depend on the permissions of the current user should be materialized.
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @see TablePrecomputation
+     */
+    public void materializeTable(final String id) {
+        Optional<String> cacheKey = getTableCacheKey(id);
+        if (cacheKey.isPresent()) {
+            if (!TablePayloadCache.contains(cacheKey.get())) {
+                loadTableRows(id, new TableRequestRecord.Builder(getTableMetricsName(id)));
+            }
+            return;
+        }
+        Optional<Path> directory = getTableSnapshotDirectory();
+        if (directory.isPresent()) {
+            Path file = TableSnapshot.getFile(directory.get(), id);
+            try {
+                if (!Files.exists(file)) {
+                    TableRequestRecord.Builder measurement = new TableRequestRecord.Builder(getTableMetricsName(id));
+                    readSnapshot(file, () -> createTableModel(id, measurement), measurement);
+                }
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Can't create snapshot of table " + id + " in " + file, exception);
+            }
+        }
+    }
+
+    /**
+     * Records the timings that have been measured in the browser while loading tables of this provider. The timings
+     * are reported by {@code table.js} for all tables that have telemetry enabled.
+     *
+     * @param timings
+     *         the timings as JSON array
+     *
+     * @see TableConfiguration#telemetry()
+     * @see ClientTableTimings
+     */
+    @JavaScriptMethod
+    public void reportTableTimings(final String timings) {
+        if (timings.length() > MAXIMUM_TIMINGS_LENGTH) {
+            return;
+        }
+        try {
+            ClientTableTimings.getInstance().record(TableCells.getMapper().readTree(timings),
+                    this::getTableMetricsName);
+        }
+        catch (JacksonException exception) {
+            LOGGER.log(Level.FINE, "Ignoring invalid table timings", exception);
+        }
+    }
+
+    /**
+     * Cancels the running computations of the specified tables of this provider for the current requester, i.e. the
+     * current HTTP session (see {@link TableRequestExecutor#getRequester}). This method will be invoked by
+     * {@code table.js} when the user leaves the page before all tables have been loaded (see
+     * {@link #doCancelTableRequests(StaplerRequest2, StaplerResponse2)}). Computations of tables with
+     * the same IDs of other providers (e.g. other builds) or other sessions are not affected. Note that the
+     * computations are cancelled cooperatively (see {@link TableCancellation}), i.e. the computations stop at their
+     * next check.
+     *
+     * @param ids
+     *         the IDs of the tables as JSON array
+     */
+    @JavaScriptMethod
+    public void cancelTableRequests(final String ids) {
+        if (ids.length() > MAXIMUM_IDS_LENGTH) {
+            return;
+        }
+        try {
+            List<String> tables = new ArrayList<>();
+            TableCells.getMapper().readTree(ids).values().forEach(id -> tables.add(id.asString()));
+            int count = TableCancellation.cancel(
+                    TableRequestExecutor.getRequester(Jenkins.getAuthentication2()), this, tables);
+            LOGGER.log(Level.FINE, "Cancelled {0} computations of tables {1}", new Object[] {count, tables});
+        }
+        catch (JacksonException exception) {
+            LOGGER.log(Level.FINE, "Ignoring invalid table IDs", exception);
+        }
+    }
+
+    /**
+     * Cancels the running computations of the tables of this provider for the current requester, see
+     * {@link #cancelTableRequests(String)}. The IDs of the tables are passed as JSON array in the request parameter
+     * {@code ids}. This web method will be invoked by {@code table.js} using a beacon when the user leaves the page
+     * before all tables have been loaded: the requests of the Stapler proxy are dropped by the browsers when the page
+     * is unloaded, a beacon will be sent in the background.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response could not be sent
+     */
+    @RequirePOST
+    public void doCancelTableRequests(final StaplerRequest2 request, final StaplerResponse2 response)
+            throws IOException {
+        String ids = request.getParameter("ids");
+        if (StringUtils.isBlank(ids)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing table IDs");
+            return;
+        }
+        cancelTableRequests(ids);
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    /**
+     * Returns the rows of the table with the specified ID that have been selected by the current user. Providers can
+     * use this method to process the selected rows, e.g. in a web method that is invoked by a button of the toolbar.
+     *
+     * <p>
+     * The selections are stored in memory in this provider, so they are lost if Jenkins is restarted or if the provider
+     * is discarded. Only the selections of the most recently used tables and users are retained, the number of retained
+     * selections can be configured using the system property {@code io.jenkins.plugins.datatables.TableSelection.size}
+     * (default: 64).
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the selection of the current user
+     * @see TableConfiguration#serverSelection()
+     */
+    public TableSelection getTableSelection(final String id) {
+        String key = Jenkins.getAuthentication2().getName() + "\n" + id;
+        synchronized (this) {
+            if (selections == null) {
+                selections = TableSelection.createSelections();
+            }
+            return selections.computeIfAbsent(key, k -> new TableSelection());
+        }
+    }
+
+    /**
+     * Selects and deselects the specified rows of the table for the current user. This method will be invoked by
+     * {@code table.js} whenever the user selects or deselects rows of tables that store the selection on the server.
+     *
+     * @param id
+     *         ID of the table model
+     * @param selectedIds
+     *         the IDs of the selected rows as JSON array
+     * @param deselectedIds
+     *         the IDs of the deselected rows as JSON array
+     *
+     * @return the state of the selection as JSON object with the property {@code count}
+     * @see TableConfiguration#serverSelection()
+     */
+    @JavaScriptMethod
+    public String updateTableSelection(final String id, final String selectedIds, final String deselectedIds) {
+        TableSelection selection = getTableSelection(id);
+        selection.select(parseRowIds(selectedIds), true);
+        selection.select(parseRowIds(deselectedIds), false);
+        return selection.toJson();
+    }
+
+    /**
+     * Selects or deselects all rows of the table that match the specified search for the current user. The rows are
+     * selected on the server, so the browser does not need to load the rows. The model will be created using the
+     * {@link TableRequestExecutor}: if the executor is busy, then the
+     * {@link TableRequestExecutor#getBusyResponse() busy response} will be returned.
+     *
+     * @param id
+     *         ID of the table model
+     * @param search
+     *         the current search value of the table
+     * @param isSelected
+     *         determines whether the matching rows should be selected or deselected
+     *
+     * @return the state of the selection as JSON object with the property {@code count}
+     * @see TableConfiguration#serverSelection()
+     */
+    @JavaScriptMethod
+    public String selectMatchingRows(final String id, final String search, final boolean isSelected) {
+        TableSelection selection = getTableSelection(id);
+        return respond(id, () -> {
+            selection.selectMatching(getServerTableModel(id), search, isSelected);
+            return selection.toJson();
+        });
+    }
+
+    /**
+     * Deselects all rows of the table for the current user.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the state of the selection as JSON object with the property {@code count}
+     */
+    @JavaScriptMethod
+    public String clearTableSelection(final String id) {
+        TableSelection selection = getTableSelection(id);
+        selection.clear();
+        return selection.toJson();
+    }
+
+    /**
+     * Returns which of the specified rows of the table have been selected by the current user. This method will be
+     * invoked by {@code table.js} whenever a page of a table that stores the selection on the server is drawn. The
+     * result is a JSON object with the properties {@code count} (the number of all selected rows) and
+     * {@code selected} (the IDs of the selected rows of the specified rows).
+     *
+     * @param id
+     *         ID of the table model
+     * @param rowIds
+     *         the IDs of the rows to check as JSON array, e.g. the rows of the visible page
+     *
+     * @return the selected rows as JSON object
+     */
+    @JavaScriptMethod
+    public String getSelectedRows(final String id, final String rowIds) {
+        TableSelection selection = getTableSelection(id);
+        ObjectNode result = TableCells.getMapper().createObjectNode().put("count", selection.getCount());
+        selection.getSelectedRowIds(parseRowIds(rowIds)).forEach(result.putArray("selected")::add);
+        return result.toString();
+    }
+
+    private List<String> parseRowIds(final String rowIds) {
+        List<String> ids = new ArrayList<>();
+        if (StringUtils.isBlank(rowIds) || rowIds.length() > MAXIMUM_SELECTION_LENGTH) {
+            return ids;
+        }
+        try {
+            TableCells.getMapper().readTree(rowIds).values().forEach(rowId -> ids.add(rowId.asString()));
+        }
+        catch (JacksonException exception) {
+            LOGGER.log(Level.FINE, "Ignoring invalid row IDs", exception);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the version of the rows of the table with the specified ID. The result is a JSON object with the
+     * property {@code version}. Browsers that have cached the rows of the table (see
+     * {@link TableConfiguration#clientCache()}) use this method to revalidate the cached rows: if the version is
+     * unchanged, then the cached rows will be shown without requesting the rows again. An empty version indicates
+     * that the rows should not be cached.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the version of the rows as JSON object
+     * @see #getTableContentVersion(String)
+     */
+    @JavaScriptMethod
+    public String getTableVersion(final String id) {
+        return TableCells.getMapper().createObjectNode()
+                .put("version", getTableContentVersion(id).orElse(StringUtils.EMPTY))
+                .toString();
+    }
+
+    /**
+     * Returns the name of the table with the specified ID in the {@link TableMetrics}. The measurements of all
+     * requests for tables with the same name will be aggregated. By default, the ID of the table is used. Providers
+     * should override this method to add some context so that operators can identify the table, e.g. the name of the
+     * job. Note that the name should not contain the build number, otherwise the measurements of the table will be
+     * split into lots of small chunks.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the name of the table in the metrics
+     */
+    protected String getTableMetricsName(final String id) {
+        return id;
+    }
+
+    /**
+     * Returns the key of the table with the specified ID in the {@link TablePayloadCache}. If a key is returned, then
+     * the serialized rows of the table will be cached, so subsequent requests will be served from the cache. The key
+     * must be unique for all tables of all providers in Jenkins, e.g. the ID of the build, the URL of the provider, and
+     * the ID of the table. Since cached rows will never be updated, a key should be returned only if the content of
+     * the table will not change anymore. Since the cached rows will be served to all users, a key should be returned
+     * only if the rows of the table do not depend on the permissions of the current user.
+     *
+     * <p>
+     * By default, caching is disabled.
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the key of the table in the cache, or an empty optional if caching is disabled
+     */
+    protected Optional<String> getTableCacheKey(final String id) {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the version of the rows of the table with the specified ID. The version must change whenever the rows of
+     * the table change, and it should be cheap to compute, i.e. without creating the table model. Browsers cache the
+     * rows of tables with the {@link TableConfiguration#clientCache() client cache} enabled only if a version is
+     * returned.
+     *
+     * <p>
+     * By default, the {@link #getTableCacheKey(String) cache key} is used since the content of cached tables will not
+     * change anymore. Providers of tables that change should override this method, e.g. to return a timestamp of the
+     * last change.
+     * </p>
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the version of the rows, or an empty optional if the rows should not be cached in the browser
+     */
+    protected Optional<String> getTableContentVersion(final String id) {
+        return getTableCacheKey(id);
+    }
+
+    /**
+     * Returns the directory where the snapshots of the tables of this provider should be stored. If a directory is
+     * returned, then the schema and the rows of a table will be persisted in a compact binary file when they are
+     * requested for the first time. Subsequent requests for the rows, pages, column values, summaries, selections,
+     * and exports (even after a restart of Jenkins) will be served from that file without creating the table model
+     * again. Since the snapshot will never be updated, a directory should be returned only if the content of the
+     * tables will not change anymore, e.g. the root directory of a finished build. Live tables and tables that are
+     * refreshed periodically always use the table model. Since the snapshots will be served to all users, the rows of
+     * the tables must not depend on the permissions of the current user.
+     *
+     * <p>
+     * By default, snapshots are disabled.
+     * </p>
+     *
+     * @return the directory for the table snapshots, or an empty optional if snapshots are disabled
+     * @see TableSnapshot
+     */
+    protected Optional<Path> getTableSnapshotDirectory() {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the summary of the table model with the specified ID. The summary contains the aggregated values of all
+     * columns that have aggregations configured. Only rows that match the specified search value will be aggregated.
+     * Note that this method will be invoked asynchronously using an Ajax call after the rows have been loaded and
+     * whenever the search value of the table changes. The summary will be computed using the
+     * {@link TableRequestExecutor}: if the executor is busy, then the
+     * {@link TableRequestExecutor#getBusyResponse() busy response} will be returned instead of the summary.
+     *
+     * @param id
+     *         ID of the table model
+     * @param search
+     *         the current search value of the table
+     *
+     * @return the summary of the table as JSON object
+     */
+    @JavaScriptMethod
+    public String getTableSummary(final String id, final String search) {
+        return respond(id, () -> getServerTableModel(id).getSummary(search).toJson());
+    }
+
+    private String toJsonArray(final TableModel model, final TableRequestRecord.Builder measurement) {
+        long start = System.nanoTime();
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            measurement.withRowCount(model.writeRows(generator));
+        }
+        measurement.addSerializationTime(System.nanoTime() - start);
+        return json.toString();
+    }
+
+    /**
+     * A writer that counts the number of characters that have been written.
+     */
+    private static class CountingWriter extends FilterWriter {
+        private int count;
+
+        CountingWriter(final Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public void write(final int character) throws IOException {
+            super.write(character);
+            count++;
+        }
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) throws IOException {
+            super.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(final String text, final int offset, final int length) throws IOException {
+            super.write(text, offset, length);
+            count += length;
+        }
+
+        int getCount() {
+            return count;
+        }
     }
 }
@@ -0,0 +1,223 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+
+/**
+ * Removes the values of hidden columns from the rows of a table. Hidden columns (see {@link ColumnCss#HIDDEN}) are not
+ * shown in the browser, but they are serialized for each row. If a table is configured to
+ * {@link TableConfiguration#deferHiddenColumns() defer hidden columns}, then the values of these columns are removed
+ * from the rows: the browser requests the values of such a column using
+ * {@link DefaultAsyncTableContentProvider#getTableColumnValues(String, int)} when the column becomes visible or when
+ * the rows are searched.
+ *
+ * <p>
+ * Only columns that show a top-level property of the rows are deferred, the property of the {@link
+ * TableConfiguration#rowId(String) row ID} is never removed.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class DeferredColumns {
+    /**
+     * Returns the property keys of the columns of the specified table that should be removed from the rows.
+     *
+     * @param model
+     *         the table
+     *
+     * @return the property keys of the deferred columns, empty if the columns should not be deferred
+     */
+    static Set<String> getDeferredKeys(final TableModel model) {
+        TableConfiguration configuration = model.getTableConfiguration();
+        if (!configuration.isUseDeferredColumns()) {
+            return Set.of();
+        }
+        return model.getColumns().stream()
+                .filter(column -> ColumnCss.HIDDEN.toString().equals(column.getHeaderClass()))
+                .map(TableColumn::getDataPropertyKey)
+                .filter(key -> key.indexOf('.') < 0 && !key.equals(configuration.getRowId()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns a table model that provides the rows of the specified table without the deferred columns. The rows are
+     * created on demand when the rows of the returned model are accessed. The deferred columns of a
+     * {@link ColumnarTableModel} are removed from the row store, so the rows are still written directly from the
+     * columns of the store.
+     *
+     * @param model
+     *         the table
+     *
+     * @return the table without the deferred columns, or the specified table if no columns are deferred
+     */
+    static TableModel strip(final TableModel model) {
+        Set<String> keys = getDeferredKeys(model);
+        if (keys.isEmpty()) {
+            return model;
+        }
+        if (model instanceof ColumnarTableModel) {
+            return new StrippedColumnarTableModel(model,
+                    ((ColumnarTableModel) model).getRowStore().withoutColumns(keys));
+        }
+        return new StrippedTableModel(model, keys);
+    }
+
+    /**
+     * Returns the specified row without the properties of the deferred columns.
+     *
+     * @param row
+     *         the row
+     * @param keys
+     *         the property keys of the deferred columns
+     *
+     * @return a copy of the row without the deferred properties
+     */
+    static ObjectNode strip(final Object row, final Set<String> keys) {
+        ObjectNode node = TableCells.toNode(row);
+        ObjectNode stripped = TableCells.getMapper().createObjectNode();
+        for (Map.Entry<String, JsonNode> property : node.properties()) {
+            if (!keys.contains(property.getKey())) {
+                stripped.set(property.getKey(), property.getValue());
+            }
+        }
+        return stripped;
+    }
+
+    /**
+     * Returns the values of the specified column for all rows of the table, in the order of the rows. The result is a
+     * JSON object with the properties {@code key} (the property key of the column) and {@code values}. If there is
+     * no such column, then the key is empty and there are no values.
+     *
+     * @param model
+     *         the table
+     * @param column
+     *         the index of the column
+     * @param measurement
+     *         the measurement of the request
+     *
+     * @return the values of the column as JSON object
+     */
+    static String getColumnValues(final TableModel model, final int column,
+            final TableRequestRecord.Builder measurement) {
+        List<TableColumn> columns = model.getColumns();
+        boolean isValid = column >= 0 && column < columns.size();
+        List<Object> rows = isValid ? model.getRows() : List.of();
+        String key = isValid ? columns.get(column).getDataPropertyKey() : StringUtils.EMPTY;
+
+        long start = System.nanoTime();
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeStringProperty("key", key);
+            generator.writeName("values");
+            generator.writeStartArray();
+            for (Object row : rows) {
+                TableCancellation.checkCancelled();
+                JsonNode cell = TableCells.getCell(TableCells.toNode(row), key);
+                if (cell.isMissingNode()) {
+                    generator.writeNull();
+                }
+                else {
+                    generator.writeTree(cell);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        measurement.withRowCount(rows.size()).addSerializationTime(System.nanoTime() - start);
+        return json.toString();
+    }
+
+    private DeferredColumns() {
+        // prevents instantiation
+    }
+
+    /**
+     * A table model that removes the deferred columns from the rows of another model.
+     */
+    private static final class StrippedTableModel extends TableModel {
+        private final TableModel model;
+        private final Set<String> keys;
+
+        StrippedTableModel(final TableModel model, final Set<String> keys) {
+            this.model = model;
+            this.keys = keys;
+        }
+
+        @Override
+        public String getId() {
+            return model.getId();
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return model.getColumns();
+        }
+
+        @Override
+        public List<Object> getRows() {
+            List<Object> rows = model.getRows();
+            return new AbstractList<>() {
+                @Override
+                public Object get(final int index) {
+                    return strip(rows.get(index), keys);
+                }
+
+                @Override
+                public int size() {
+                    return rows.size();
+                }
+            };
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return model.getTableConfiguration();
+        }
+    }
+
+    /**
+     * A columnar table model that uses a row store without the deferred columns of another model.
+     */
+    private static final class StrippedColumnarTableModel extends ColumnarTableModel {
+        private final TableModel model;
+        private final ColumnarRowStore store;
+
+        StrippedColumnarTableModel(final TableModel model, final ColumnarRowStore store) {
+            this.model = model;
+            this.store = store;
+        }
+
+        @Override
+        public String getId() {
+            return model.getId();
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return model.getColumns();
+        }
+
+        @Override
+        public ColumnarRowStore getRowStore() {
+            return store;
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return model.getTableConfiguration();
+        }
+    }
+}
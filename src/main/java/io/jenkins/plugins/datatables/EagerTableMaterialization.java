@@ -0,0 +1,38 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Collection;
+
+import hudson.model.Action;
+
+/**
+ * An action of a build that registers tables for eager materialization. When the build has been finalized, the rows
+ * of the registered tables will be created in the background (see {@link TablePrecomputation}). Depending on the
+ * configuration of the provider, the rows will be persisted in a snapshot (see
+ * {@link DefaultAsyncTableContentProvider#getTableSnapshotDirectory()}) or stored in the {@link TablePayloadCache}
+ * (see {@link DefaultAsyncTableContentProvider#getTableCacheKey(String)}). So the first user who opens such a table
+ * does not need to wait until the rows have been created.
+ *
+ * <p>
+ * Since there is no user who requested the tables, they will be materialized as {@link hudson.security.ACL#SYSTEM2
+ * SYSTEM}, and the materialized rows will be served to all users who can see the tables. So only tables whose rows do
+ * not depend on the permissions of the current user must be registered.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public interface EagerTableMaterialization extends Action {
+    /**
+     * Returns the provider of the tables that should be materialized.
+     *
+     * @return the table content provider
+     */
+    DefaultAsyncTableContentProvider getTableContentProvider();
+
+    /**
+     * Returns the IDs of the tables that should be materialized. The rows of these tables must be the same for all
+     * users.
+     *
+     * @return the IDs of the tables
+     */
+    Collection<String> getEagerTableIds();
+}
@@ -0,0 +1,150 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.ref.SoftReference;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * A {@link DefaultAsyncTableContentProvider} that memoizes the created table models. A table is typically shown in two
+ * steps: the view renders the columns and the configuration of the model, then the browser requests the rows of the
+ * model using an Ajax call. Without memoization, the model will be created twice, which is expensive for models that
+ * parse reports. This provider reuses the model that has been created while rendering the view for the subsequent
+ * requests of the browser.
+ *
+ * <p>
+ * The models are cached per provider, user, and ID: a model that has been created for one user is never served to
+ * another user, since the content of the model might depend on the permissions of the user who created it. So the
+ * memoization only helps for subsequent requests of the same user, e.g. the Ajax calls of the browser after the view
+ * has been rendered. The models are referenced softly, so they will be removed if the memory of the controller is
+ * low. Additionally, the models expire after a while (default: 60 seconds) so that changes of the underlying data
+ * become visible. The expiration can be configured using the system property
+ * {@code io.jenkins.plugins.datatables.MemoizingAsyncTableContentProvider.expiration} (in seconds) or by overriding
+ * {@link #getTableModelExpiration()}. The models of all users will be removed from the cache as well if a change of
+ * the table is reported using {@link #fireTableChanged(String)}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public abstract class MemoizingAsyncTableContentProvider extends DefaultAsyncTableContentProvider {
+    private static final String PREFIX = MemoizingAsyncTableContentProvider.class.getName();
+    private static final Duration EXPIRATION = Duration.ofSeconds(
+            SystemProperties.getInteger(PREFIX + ".expiration", 60));
+
+    private transient Map<String, MemoizedModel> models;
+
+    /**
+     * Creates the table model with the specified ID. This method will be invoked only if there is no memoized model
+     * for the specified ID and the current user, or if the memoized model has expired.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the table model with the specified ID
+     */
+    protected abstract TableModel createTableModel(String id);
+
+    /**
+     * Returns the table model with the specified ID. If the model has been created recently for the current user, then
+     * the memoized model will be returned. Otherwise, a new model will be created using
+     * {@link #createTableModel(String)}.
+     *
+     * @param id
+     *         ID of the table model
+     *
+     * @return the table model with the specified ID
+     */
+    @Override
+    public final TableModel getTableModel(final String id) {
+        String key = Jenkins.getAuthentication2().getName() + "\n" + id;
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (models != null) {
+                MemoizedModel memoized = models.get(key);
+                if (memoized != null) {
+                    TableModel model = memoized.get(now);
+                    if (model != null) {
+                        return model;
+                    }
+                    models.remove(key);
+                }
+            }
+        }
+
+        TableModel model = createTableModel(id);
+        long expiration = getTableModelExpiration().toNanos();
+        if (expiration > 0) {
+            synchronized (this) {
+                if (models == null) {
+                    models = new HashMap<>();
+                }
+                models.values().removeIf(memoized -> memoized.get(now) == null);
+                models.put(key, new MemoizedModel(id, model, now + expiration));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Removes the memoized models of all users with the specified ID, so that the next request will create a new
+     * model.
+     *
+     * @param id
+     *         ID of the table model
+     */
+    protected void invalidateTableModel(final String id) {
+        synchronized (this) {
+            if (models != null) {
+                models.values().removeIf(memoized -> memoized.id.equals(id));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Additionally, the memoized model of the table will be removed.
+     * </p>
+     */
+    @Override
+    protected void fireTableChanged(final String id) {
+        invalidateTableModel(id);
+
+        super.fireTableChanged(id);
+    }
+
+    /**
+     * Returns the duration a created model will be reused. A duration of zero disables the memoization.
+     *
+     * @return the expiration of the memoized models
+     */
+    protected Duration getTableModelExpiration() {
+        return EXPIRATION;
+    }
+
+    /**
+     * A softly referenced model with an expiration time.
+     */
+    private static final class MemoizedModel {
+        private final String id;
+        private final SoftReference<TableModel> model;
+        private final long expiration;
+
+        MemoizedModel(final String id, final TableModel model, final long expiration) {
+            this.id = id;
+            this.model = new SoftReference<>(model);
+            this.expiration = expiration;
+        }
+
+        TableModel get(final long now) {
+            if (now - expiration >= 0) {
+                return null;
+            }
+            return model.get();
+        }
+    }
+}
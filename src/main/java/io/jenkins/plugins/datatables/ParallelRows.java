@@ -0,0 +1,199 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.Authentication;
+
+import tools.jackson.core.JsonGenerator;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Creates and serializes the rows of large tables in parallel. The rows are partitioned into contiguous chunks that are
+ * processed concurrently on a dedicated fork-join pool, the results of the chunks are then combined in the original
+ * order. Tables with fewer rows than a threshold are processed sequentially since the overhead of the parallel
+ * processing would outweigh its benefits.
+ *
+ * <p>
+ * Models can use {@link #map(List, Function)} in {@link TableModel#getRows()} to create the row objects from the
+ * source data in parallel. The default implementation of {@link TableModel#writeRows(JsonGenerator)} serializes large
+ * tables in parallel automatically. The pool size and threshold can be configured using the system properties
+ * {@code io.jenkins.plugins.datatables.ParallelRows.parallelism} (default: half of the available processors, at
+ * least 2; 1 disables the parallel processing) and {@code .threshold} (the minimum number of rows, default: 20000).
+ * The chunks are processed with the authentication and the {@link TableCancellation} of the calling thread.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class ParallelRows {
+    private static final String PREFIX = ParallelRows.class.getName();
+    private static final int PARALLELISM = SystemProperties.getInteger(PREFIX + ".parallelism",
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int THRESHOLD = SystemProperties.getInteger(PREFIX + ".threshold", 20_000);
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MINIMUM_CHUNK_SIZE = 1000;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(1, PARALLELISM), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("DataTables.rows-" + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
+    /**
+     * Returns whether a table with the specified number of rows will be processed in parallel.
+     *
+     * @param size
+     *         the number of rows
+     *
+     * @return {@code true} if the rows will be processed in parallel, {@code false} otherwise
+     */
+    public static boolean isParallel(final int size) {
+        return PARALLELISM > 1 && size >= THRESHOLD;
+    }
+
+    /**
+     * Maps the elements of the specified source data to row objects. If the source contains enough elements, then the
+     * elements will be mapped in parallel. The order of the rows is the same as the order of the source elements.
+     *
+     * @param source
+     *         the source data of the rows
+     * @param mapper
+     *         maps an element of the source to a row, must be thread-safe
+     * @param <S>
+     *         type of the source elements
+     *
+     * @return the rows
+     */
+    public static <S> List<Object> map(final List<S> source, final Function<? super S, ?> mapper) {
+        if (!isParallel(source.size())) {
+            return mapChunk(source, mapper);
+        }
+        List<Callable<List<Object>>> tasks = new ArrayList<>();
+        for (List<S> chunk : partition(source)) {
+            tasks.add(() -> mapChunk(chunk, mapper));
+        }
+        List<Object> rows = new ArrayList<>(source.size());
+        invokeAll(tasks).forEach(rows::addAll);
+        return rows;
+    }
+
+    private static <S> List<Object> mapChunk(final List<S> chunk, final Function<? super S, ?> mapper) {
+        List<Object> rows = new ArrayList<>(chunk.size());
+        for (S element : chunk) {
+            TableCancellation.checkCancelled();
+            rows.add(mapper.apply(element));
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the specified rows as JSON array to the generator. If there are enough rows, then contiguous chunks of
+     * the rows will be serialized concurrently into buffers that are concatenated in order afterward.
+     *
+     * @param rows
+     *         the rows to write
+     * @param generator
+     *         the generator to write the rows to
+     */
+    public static void writeRows(final List<?> rows, final JsonGenerator generator) {
+        generator.writeStartArray();
+        if (isParallel(rows.size())) {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (List<?> chunk : partition(rows)) {
+                tasks.add(() -> serialize(chunk));
+            }
+            for (String chunk : invokeAll(tasks)) {
+                generator.writeRawValue(chunk);
+            }
+        }
+        else {
+            for (Object row : rows) {
+                TableCancellation.checkCancelled();
+                generator.writePOJO(row);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Serializes the rows of a chunk as comma separated JSON values (i.e., a JSON array without brackets).
+     */
+    private static String serialize(final List<?> chunk) {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            generator.writeStartArray();
+            for (Object row : chunk) {
+                TableCancellation.checkCancelled();
+                generator.writePOJO(row);
+            }
+            generator.writeEndArray();
+        }
+        StringBuffer buffer = json.getBuffer();
+        return buffer.substring(1, buffer.length() - 1);
+    }
+
+    private static <T> List<List<T>> partition(final List<T> source) {
+        int chunkSize = Math.max(MINIMUM_CHUNK_SIZE,
+                (source.size() + PARALLELISM * CHUNKS_PER_THREAD - 1) / (PARALLELISM * CHUNKS_PER_THREAD));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < source.size(); start += chunkSize) {
+            chunks.add(source.subList(start, Math.min(source.size(), start + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private static <T> List<T> invokeAll(final List<Callable<T>> tasks) {
+        Authentication authentication = Jenkins.getAuthentication2();
+        TableCancellation cancellation = TableCancellation.current();
+        List<Callable<T>> authenticated = tasks.stream()
+                .map(task -> (Callable<T>) () -> call(authentication, cancellation, task))
+                .collect(Collectors.toList());
+
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : POOL.invokeAll(authenticated)) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new CancellationException("Processing of table rows has been interrupted");
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Processing of table rows failed", cause);
+        }
+    }
+
+    private static <T> T call(final Authentication authentication, final TableCancellation cancellation,
+            final Callable<T> task) throws Exception {
+        try (ACLContext ignored = ACL.as2(authentication)) {
+            return cancellation.call(task);
+        }
+    }
+
+    private ParallelRows() {
+        // prevents instantiation
+    }
+}
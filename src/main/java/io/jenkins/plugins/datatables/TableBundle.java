@@ -0,0 +1,222 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.UnprotectedRootAction;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.util.SystemProperties;
+
+/**
+ * Serves the script and style sheet bundles of the table tag. The bundles are created during the build by
+ * {@code src/build/js/table-bundle.js}: the core bundle contains DataTables, mark.js, luxon, and {@code table.js}, each
+ * optional extension (responsive, buttons, colreorder, select) has a bundle of its own that is loaded by
+ * {@code table.js} only if a table on the page requires the extension. Since the file names of the bundles contain a
+ * hash of their content, the bundles are served with headers that allow the browsers to cache them forever.
+ *
+ * <p>
+ * The bundles are disabled by default: views that use the individual adjuncts of the scripts (e.g. the adjunct
+ * {@code io.jenkins.plugins.data-tables} of a plugin) would load DataTables and {@code table.js} a second time. The
+ * bundles can be enabled using the system property {@code io.jenkins.plugins.datatables.TableBundle.enabled}. If the
+ * bundles are disabled or not available, then the table tag uses the individual adjuncts of the scripts and style
+ * sheets.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@Extension
+public class TableBundle implements UnprotectedRootAction {
+    static final String URL = "data-tables-bundle";
+    static final String CORE = "core";
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String PREFIX = TableBundle.class.getName();
+    private static final boolean ENABLED = SystemProperties.getBoolean(PREFIX + ".enabled", false);
+    private static final String LOCATION = "bundle/";
+    private static final String MANIFEST = LOCATION + "bundles.json";
+    private static final Pattern FILE_NAME = Pattern.compile("[a-z0-9-]+-[0-9a-f]{16}\\.(js|css)");
+    private static final Logger LOGGER = Logger.getLogger(TableBundle.class.getName());
+
+    private final Map<String, Map<String, String>> bundles;
+
+    /**
+     * Creates a new instance of {@link TableBundle} that serves the bundles of the class path.
+     */
+    public TableBundle() {
+        this(ENABLED ? readManifest() : StringUtils.EMPTY);
+    }
+
+    /**
+     * Creates a new instance of {@link TableBundle} that serves the bundles of the specified manifest.
+     *
+     * @param manifest
+     *         the manifest as JSON object that maps the names of the bundles to the file names of the script and the
+     *         style sheet of the bundle, an empty manifest disables the bundles
+     */
+    TableBundle(final String manifest) {
+        bundles = parseManifest(manifest);
+    }
+
+    /**
+     * Returns the singleton instance of this action.
+     *
+     * @return the bundles of the table tag
+     */
+    public static TableBundle getInstance() {
+        return ExtensionList.lookupSingleton(TableBundle.class);
+    }
+
+    private static String readManifest() {
+        try (InputStream stream = TableBundle.class.getResourceAsStream(MANIFEST)) {
+            if (stream != null) {
+                return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            LOGGER.log(Level.FINE, "No table bundles found, using the individual scripts and style sheets");
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't read the manifest of the table bundles", exception);
+        }
+        return StringUtils.EMPTY;
+    }
+
+    private static Map<String, Map<String, String>> parseManifest(final String manifest) {
+        if (StringUtils.isBlank(manifest)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Map<String, String>> files = new HashMap<>();
+            for (Map.Entry<String, JsonNode> bundle : TableCells.getMapper().readTree(manifest).properties()) {
+                Map<String, String> types = new HashMap<>();
+                for (Map.Entry<String, JsonNode> file : bundle.getValue().properties()) {
+                    String fileName = file.getValue().asString();
+                    if (FILE_NAME.matcher(fileName).matches() && fileName.endsWith("." + file.getKey())) {
+                        types.put(file.getKey(), fileName);
+                    }
+                }
+                files.put(bundle.getKey(), types);
+            }
+            return files;
+        }
+        catch (JacksonException exception) {
+            LOGGER.log(Level.WARNING, "Can't parse the manifest of the table bundles", exception);
+            return Collections.emptyMap();
+        }
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL;
+    }
+
+    /**
+     * Returns whether the core bundle is available. Otherwise, the individual scripts and style sheets need to be
+     * used.
+     *
+     * @return {@code true} if the bundles can be used, {@code false} otherwise
+     */
+    public boolean isAvailable() {
+        return !getFile(CORE, "js").isEmpty() && !getFile(CORE, "css").isEmpty();
+    }
+
+    /**
+     * Returns the file name of the script or style sheet of the specified bundle.
+     *
+     * @param bundle
+     *         the name of the bundle, e.g. {@code core} or {@code buttons}
+     * @param type
+     *         the type of the file, either {@code js} or {@code css}
+     *
+     * @return the file name (relative to the URL of this action), or an empty string if there is no such bundle
+     */
+    public String getFile(final String bundle, final String type) {
+        return bundles.getOrDefault(bundle, Collections.emptyMap()).getOrDefault(type, StringUtils.EMPTY);
+    }
+
+    /**
+     * Returns the file names of the optional extensions as JSON object. The object maps the names of the extensions
+     * to objects with the properties {@code js} and {@code css}. This definition is used by {@code table.js} to load
+     * the extensions on demand.
+     *
+     * @return the extensions as JSON object
+     */
+    public String getExtensionsDefinition() {
+        ObjectNode extensions = TableCells.getMapper().createObjectNode();
+        for (Map.Entry<String, Map<String, String>> bundle : bundles.entrySet()) {
+            if (!CORE.equals(bundle.getKey())) {
+                ObjectNode files = extensions.putObject(bundle.getKey());
+                bundle.getValue().forEach(files::put);
+            }
+        }
+        return extensions.toString();
+    }
+
+    /**
+     * Returns whether the specified file name references a file of the bundles.
+     *
+     * @param fileName
+     *         the file name to check
+     *
+     * @return {@code true} if the file is part of a bundle, {@code false} otherwise
+     */
+    boolean isBundleFile(final String fileName) {
+        return FILE_NAME.matcher(fileName).matches()
+                && bundles.values().stream().anyMatch(files -> files.containsValue(fileName));
+    }
+
+    /**
+     * Serves a file of the bundles. Since the file names contain a hash of the content, the files are cached by the
+     * browsers forever.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the file could not be written
+     * @throws ServletException
+     *         if the file could not be served
+     */
+    public void doDynamic(final StaplerRequest2 request, final StaplerResponse2 response)
+            throws IOException, ServletException {
+        String fileName = StringUtils.removeStart(request.getRestOfPath(), "/");
+        URL file = isBundleFile(fileName) ? TableBundle.class.getResource(LOCATION + fileName) : null;
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such bundle: " + fileName);
+            return;
+        }
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.serveFile(request, file, TimeUnit.DAYS.toMillis(365));
+    }
+}
@@ -0,0 +1,213 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cooperative cancellation of the computation of a table. The {@link TableRequestExecutor} creates a cancellation for
+ * each computation of the content of a table. The computation is cancelled if the browser that requested the content
+ * reports that it is no longer interested in the result (e.g., because the user left the page), or if the timeout of
+ * the executor has been reached. The computation is not interrupted: it rather needs to check regularly whether it has
+ * been cancelled using {@link #checkCancelled()}. All loops over the rows of a table in this plugin perform this check,
+ * models that create their rows lazily from a large data source should do the same.
+ *
+ * <p>
+ * A cancellation is identified by the requester (see {@link TableRequestExecutor#getRequester}), the scope of the
+ * table (i.e., the object that provides the table, compared by identity), and the ID of the table. So a browser can
+ * only cancel the computations of its own session and only those of the tables of the page it leaves: tables with the
+ * same ID of other builds or other providers are not affected.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableCancellation {
+    private static final TableCancellation NONE = new TableCancellation("", new Object(), "");
+    private static final ThreadLocal<TableCancellation> CURRENT = new ThreadLocal<>();
+    private static final Set<TableCancellation> ACTIVE = ConcurrentHashMap.newKeySet();
+
+    private final String requester;
+    private final Object scope;
+    private final String id;
+    private volatile boolean isCancelled;
+
+    private TableCancellation(final String requester, final Object scope, final String id) {
+        this.requester = requester;
+        this.scope = scope;
+        this.id = id;
+    }
+
+    /**
+     * Returns the cancellation of the computation that runs in the current thread.
+     *
+     * @return the cancellation of the current computation, a cancellation that is never cancelled if the current
+     *         thread does not compute the content of a table
+     */
+    public static TableCancellation current() {
+        TableCancellation cancellation = CURRENT.get();
+        return cancellation == null ? NONE : cancellation;
+    }
+
+    /**
+     * Checks whether the computation that runs in the current thread has been cancelled.
+     *
+     * @throws CancellationException
+     *         if the computation has been cancelled
+     */
+    public static void checkCancelled() {
+        current().throwIfCancelled();
+    }
+
+    /**
+     * Creates and registers a cancellation for the computation of the specified table.
+     *
+     * @param requester
+     *         the requester of the table
+     * @param scope
+     *         the scope of the table, e.g. the provider of the table
+     * @param id
+     *         the ID of the table
+     *
+     * @return the new cancellation
+     */
+    static TableCancellation register(final String requester, final Object scope, final String id) {
+        TableCancellation cancellation = new TableCancellation(requester, scope, id);
+        ACTIVE.add(cancellation);
+        return cancellation;
+    }
+
+    /**
+     * Cancels all registered computations of the specified tables of the given scope that have been requested by the
+     * specified requester.
+     *
+     * @param requester
+     *         the requester of the tables
+     * @param scope
+     *         the scope of the tables, e.g. the provider of the tables
+     * @param ids
+     *         the IDs of the tables
+     *
+     * @return the number of cancelled computations
+     */
+    static int cancel(final String requester, final Object scope, final Collection<String> ids) {
+        int count = 0;
+        for (TableCancellation cancellation : ACTIVE) {
+            if (cancellation.requester.equals(requester) && cancellation.scope == scope
+                    && ids.contains(cancellation.id)) {
+                cancellation.cancel();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of registered computations.
+     *
+     * @return the number of computations that can be cancelled
+     */
+    static int getActiveCount() {
+        return ACTIVE.size();
+    }
+
+    /**
+     * Returns whether this computation has been cancelled.
+     *
+     * @return {@code true} if the computation has been cancelled, {@code false} otherwise
+     */
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if this computation has been cancelled.
+     *
+     * @throws CancellationException
+     *         if the computation has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled) {
+            throw new CancellationException("Computation of table " + id + " has been cancelled");
+        }
+    }
+
+    /**
+     * Cancels this computation.
+     */
+    void cancel() {
+        if (this != NONE) {
+            isCancelled = true;
+        }
+    }
+
+    /**
+     * Removes this cancellation from the registered cancellations, i.e. the computation has been finished.
+     */
+    void unregister() {
+        ACTIVE.remove(this);
+    }
+
+    /**
+     * Computes the specified result in the current thread using this cancellation as the cancellation of the current
+     * computation.
+     *
+     * @param computation
+     *         the computation to run
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the computation
+     */
+    <T> T get(final Supplier<T> computation) {
+        TableCancellation previous = activate();
+        try {
+            return computation.get();
+        }
+        finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs the specified task in the current thread using this cancellation as the cancellation of the current
+     * computation. This is required if a computation is split into tasks that run on other threads.
+     *
+     * @param task
+     *         the task to run
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the task
+     * @throws Exception
+     *         if the task fails
+     */
+    <T> T call(final Callable<T> task) throws Exception {
+        TableCancellation previous = activate();
+        try {
+            return task.call();
+        }
+        finally {
+            restore(previous);
+        }
+    }
+
+    private TableCancellation activate() {
+        throwIfCancelled();
+
+        TableCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    private static void restore(final TableCancellation previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(previous);
+        }
+    }
+}
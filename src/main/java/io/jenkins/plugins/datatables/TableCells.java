@@ -0,0 +1,170 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Provides access to the cell values of table rows. The rows of a {@link TableModel} are arbitrary Java beans that
+ * will be converted to JSON objects. This class converts such a row into the same JSON representation that is used by
+ * DataTables and extracts the values of the individual columns using the property key of a {@link TableColumn}.
+ *
+ * @author Ullrich Hafner
+ */
+final class TableCells {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+    private static final String DISPLAY = "display";
+    private static final String SORT = "sort";
+
+    /**
+     * Returns the shared object mapper that should be used to convert rows to JSON.
+     *
+     * @return the object mapper
+     */
+    static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Converts the specified row into a JSON object.
+     *
+     * @param row
+     *         the row to convert
+     *
+     * @return the row as JSON object
+     */
+    static ObjectNode toNode(final Object row) {
+        if (row instanceof ObjectNode) {
+            return (ObjectNode) row;
+        }
+        return MAPPER.valueToTree(row);
+    }
+
+    /**
+     * Returns the value of the cell for the specified property key. Property keys may use the dotted notation of
+     * DataTables to access nested properties.
+     *
+     * @param row
+     *         the row as JSON object
+     * @param propertyKey
+     *         the property key of the column
+     *
+     * @return the cell value, or a missing node if the row has no such property
+     */
+    static JsonNode getCell(final JsonNode row, final String propertyKey) {
+        JsonNode cell = row.path(propertyKey);
+        if (cell.isMissingNode() && propertyKey.indexOf('.') > 0) {
+            cell = row;
+            for (String key : propertyKey.split("\\.")) {
+                cell = cell.path(key);
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Returns whether the specified cell has been created from a {@link DetailedCell}.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return {@code true} if the cell provides a display and sort property, {@code false} otherwise
+     */
+    static boolean isDetailed(final JsonNode cell) {
+        return cell.isObject() && cell.has(DISPLAY) && cell.has(SORT);
+    }
+
+    /**
+     * Returns the value that will be used by DataTables to sort the specified cell.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return the sort value
+     */
+    static JsonNode getSortValue(final JsonNode cell) {
+        if (isDetailed(cell)) {
+            return cell.get(SORT);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the text that will be shown by DataTables for the specified cell. HTML tags will be removed from the
+     * text.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return the display text
+     */
+    static String getDisplayText(final JsonNode cell) {
+        JsonNode display = isDetailed(cell) ? cell.get(DISPLAY) : cell;
+        if (display.isNull() || display.isMissingNode()) {
+            return StringUtils.EMPTY;
+        }
+        if (display.isObject() || display.isArray()) {
+            return display.toString();
+        }
+        return StringUtils.strip(HTML_TAG.matcher(display.asString()).replaceAll(StringUtils.EMPTY));
+    }
+
+    /**
+     * Returns the text of the specified cell that will be used by searching. The text is converted to lower case.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return the search text
+     */
+    static String getSearchText(final JsonNode cell) {
+        return getDisplayText(cell).toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Returns the numeric value of the specified cell. For detailed cells the sort value will be used.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return the numeric value, or an empty optional if the cell does not contain a number
+     */
+    static Optional<Double> getNumber(final JsonNode cell) {
+        JsonNode value = getSortValue(cell);
+        if (value.isNumber()) {
+            return Optional.of(value.doubleValue());
+        }
+        if (value.isString()) {
+            try {
+                return Optional.of(Double.valueOf(value.stringValue()));
+            }
+            catch (NumberFormatException exception) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns whether the specified cell is empty, i.e. the row does not contain a value for the column.
+     *
+     * @param cell
+     *         the cell value
+     *
+     * @return {@code true} if the cell is empty, {@code false} otherwise
+     */
+    static boolean isEmpty(final JsonNode cell) {
+        return cell.isMissingNode() || cell.isNull();
+    }
+
+    private TableCells() {
+        // prevents instantiation
+    }
+}
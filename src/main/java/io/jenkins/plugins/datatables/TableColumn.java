@@ -1,5 +1,9 @@
 package io.jenkins.plugins.datatables;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.apache.commons.lang3.StringUtils;
 import org.jenkins.ui.symbol.SymbolRequest.Builder;
 
@@ -22,6 +26,7 @@ import static j2html.TagCreator.*;
  *   <li>column definition</li>
  *   <li>responsive priority</li>
  *   <li>tooltip</li>
+ *   <li>aggregations for the table summary</li>
  * </ul>
  *
  * @author Ullrich Hafner
@@ -67,14 +72,19 @@ public class TableColumn {
 
     private final String headerLabel;
     private final String definition;
+    private final String dataPropertyKey;
+    private final Set<Aggregation> aggregations;
 
     private ColumnCss headerClass = ColumnCss.NONE;
     private int width = 1;
 
-    private TableColumn(final String definition, final String headerLabel, final ColumnCss headerClass) {
+    TableColumn(final String definition, final String headerLabel, final ColumnCss headerClass,
+            final String dataPropertyKey, final Set<Aggregation> aggregations) {
         this.headerLabel = headerLabel;
         this.definition = definition;
         this.headerClass = headerClass;
+        this.dataPropertyKey = dataPropertyKey;
+        this.aggregations = aggregations;
     }
 
     /**
@@ -90,6 +100,8 @@ public class TableColumn {
     @Deprecated
     public TableColumn(final String headerLabel, final String dataPropertyName) {
         this.headerLabel = headerLabel;
+        dataPropertyKey = dataPropertyName;
+        aggregations = Collections.emptySet();
         definition = String.format("{"
                 + "  \"data\": \"%s\","
                 + "  \"defaultContent\": \"\""
@@ -112,6 +124,8 @@ public class TableColumn {
     @Deprecated
     public TableColumn(final String headerLabel, final String dataPropertyName, final String columnDataType) {
         this.headerLabel = headerLabel;
+        dataPropertyKey = dataPropertyName;
+        aggregations = Collections.emptySet();
         definition = String.format("{"
                 + "  \"type\": \"%s\","
                 + "  \"data\": \"%s\","
@@ -179,6 +193,34 @@ public class TableColumn {
         return definition;
     }
 
+    /**
+     * Returns the key of the JSON property in the row entities that is shown in this column.
+     *
+     * @return the data property key
+     */
+    public String getDataPropertyKey() {
+        return dataPropertyKey;
+    }
+
+    /**
+     * Returns the aggregations that should be computed for this column in the summary of the table.
+     *
+     * @return the aggregations of this column, might be empty
+     * @see TableModel#getSummary()
+     */
+    public Set<Aggregation> getAggregations() {
+        return Collections.unmodifiableSet(aggregations);
+    }
+
+    /**
+     * Returns whether this column has aggregations that should be shown in the summary of the table.
+     *
+     * @return {@code true} if this column has aggregations, {@code false} otherwise
+     */
+    public boolean hasAggregations() {
+        return !aggregations.isEmpty();
+    }
+
     /**
      * Builder for {@link TableColumn} instances.
      */
@@ -192,6 +234,9 @@ public class TableColumn {
         private int responsivePriority = DEFAULT_PRIORITY; // default priority of datatables
         private ColumnCss headerCssClass = ColumnCss.NONE; // No specific class
         private boolean isDetailedCellEnabled = false; // disabled by default
+        @CheckForNull
+        private String renderTemplate;
+        private final Set<Aggregation> aggregations = EnumSet.noneOf(Aggregation.class);
 
         /**
          * Sets the data type of the column.
@@ -307,6 +352,50 @@ public class TableColumn {
             return this;
         }
 
+        /**
+         * Sets a template that will be used to render the cells of this column in the browser. Rather than sending the
+         * same HTML markup for each row, the rows contain only the raw values and the markup is created in the browser
+         * when a cell is displayed. Sorting and searching still use the raw values.
+         *
+         * <p>
+         * The template contains placeholders in the form {@code {{property}}} that will be replaced with the values of
+         * the corresponding properties of the row (dotted notation is supported for nested properties). The
+         * placeholder {@code {{this}}} will be replaced with the value of the cell (the display value of
+         * {@link DetailedCell} instances). All values are HTML escaped, values in URLs should use the filter
+         * {@code url} to encode the value as URI component, e.g.
+         * {@code <a href="../{{id|url}}">{{this}}</a>}.
+         * </p>
+         *
+         * @param template
+         *         the HTML template of the cells
+         *
+         * @return this column
+         */
+        public ColumnBuilder withRenderTemplate(final String template) {
+            if (StringUtils.isBlank(template)) {
+                throw new IllegalArgumentException("Empty render template");
+            }
+            this.renderTemplate = template;
+
+            return this;
+        }
+
+        /**
+         * Adds the specified aggregations to the column. These aggregations will be computed for all rows of the
+         * table (or for all rows that match the current filter) and will be shown in the footer of the table.
+         *
+         * @param columnAggregations
+         *         the aggregations to compute for this column
+         *
+         * @return this column
+         * @see TableModel#getSummary()
+         */
+        public ColumnBuilder withAggregation(final Aggregation... columnAggregations) {
+            Collections.addAll(aggregations, columnAggregations);
+
+            return this;
+        }
+
         /**
          * Creates a new {@link TableColumn} based on the specified builder configuration.
          *
@@ -318,7 +407,8 @@ public class TableColumn {
             if (StringUtils.isBlank(header)) {
                 throw new IllegalArgumentException("Empty header label, see #withHeaderLabel");
             }
-            return new TableColumn(createDefinition(), header, headerCssClass);
+            return new TableColumn(createDefinition(), header, headerCssClass, propertyKey,
+                    EnumSet.copyOf(aggregations));
         }
 
         private String createDefinition() {
@@ -338,6 +428,9 @@ public class TableColumn {
                 detailedRenderer.put("sort", "sort");
                 columnDefinition.set("render", detailedRenderer);
             }
+            if (renderTemplate != null) {
+                columnDefinition.put("template", renderTemplate);
+            }
             return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(columnDefinition);
         }
     }
@@ -425,4 +518,35 @@ public class TableColumn {
             return cssClass;
         }
     }
+
+    /**
+     * Aggregations that can be computed for the values of a column. The results will be shown in the footer of the
+     * table. Numeric aggregations use the sort value of {@link DetailedCell} instances, facets use the display value
+     * (without HTML tags).
+     */
+    public enum Aggregation {
+        /** Number of rows that have a value in this column. */
+        COUNT("count"),
+        /** Sum of all numeric values. */
+        SUM("sum"),
+        /** Minimum of all numeric values. */
+        MIN("min"),
+        /** Maximum of all numeric values. */
+        MAX("max"),
+        /** Arithmetic mean of all numeric values. */
+        AVERAGE("average"),
+        /** Number of occurrences of each distinct value. */
+        FACETS("facets");
+
+        private final String property;
+
+        Aggregation(final String property) {
+            this.property = property;
+        }
+
+        @Override
+        public String toString() {
+            return property;
+        }
+    }
 }
@@ -0,0 +1,283 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * Compares the rows of a table of the current build with the rows of the same table of a reference build. The rows are
+ * matched by the value of a row key property (e.g., the fingerprint of a warning or the name of a test): the rows of
+ * the reference build are indexed by their key, then each row of the current build is looked up in this index. So the
+ * comparison requires linear time rather than comparing each pair of rows. If several rows share the same key, then
+ * these rows are matched pairwise. Rows without a key cannot be matched.
+ *
+ * <p>
+ * The result consists of three partitions: the {@link Partition#NEW new} rows (rows of the current build without a
+ * matching row in the reference build), the {@link Partition#FIXED fixed} rows (rows of the reference build without a
+ * matching row in the current build), and the {@link Partition#OUTSTANDING outstanding} rows (rows of the current build
+ * with a matching row in the reference build). Each partition is available as a {@link TableModel} that can be served
+ * by a {@link AsyncTableContentProvider} directly.
+ * </p>
+ *
+ * <p>
+ * Since the contents of finished builds do not change anymore, comparisons can be cached using
+ * {@link #get(String, Supplier, Supplier, String)}: the models of both builds will be created only if the comparison is
+ * not cached yet. The cache is bounded and references the comparisons softly. The size of the cache can be configured
+ * using the system property {@code io.jenkins.plugins.datatables.TableComparison.size} (default: 32).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableComparison {
+    private static final int SIZE = SystemProperties.getInteger(TableComparison.class.getName() + ".size", 32);
+
+    private static final Map<String, SoftReference<TableComparison>> COMPARISONS = new LinkedHashMap<>(16, 0.75f,
+            true) {
+        private static final long serialVersionUID = 6326153489342018416L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, SoftReference<TableComparison>> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    /**
+     * The partitions of the compared rows.
+     */
+    public enum Partition {
+        /**
+         * Rows of the current build without a matching row in the reference build.
+         */
+        NEW,
+
+        /**
+         * Rows of the reference build without a matching row in the current build.
+         */
+        FIXED,
+
+        /**
+         * Rows of the current build with a matching row in the reference build.
+         */
+        OUTSTANDING
+    }
+
+    private final TableModel current;
+    private final TableModel reference;
+    private final Map<Partition, List<Object>> partitions = new HashMap<>();
+
+    /**
+     * Compares the rows of the specified tables.
+     *
+     * @param current
+     *         the table of the current build
+     * @param reference
+     *         the table of the reference build
+     * @param rowKey
+     *         the property of the rows that identifies matching rows
+     *
+     * @return the result of the comparison
+     */
+    public static TableComparison compare(final TableModel current, final TableModel reference, final String rowKey) {
+        return new TableComparison(current, reference, rowKey);
+    }
+
+    /**
+     * Compares the rows of the tables of the current build and the reference build using the row ID of the current
+     * table (see {@link TableConfiguration#rowId(String)}) as row key.
+     *
+     * @param current
+     *         the table of the current build
+     * @param reference
+     *         the table of the reference build
+     *
+     * @return the result of the comparison
+     */
+    public static TableComparison compare(final TableModel current, final TableModel reference) {
+        return compare(current, reference, current.getTableConfiguration().getRowId());
+    }
+
+    /**
+     * Returns the cached comparison for the specified key. If the comparison is not cached yet, then the models will be
+     * created and compared, and the result will be cached. The key must be unique for all compared tables in Jenkins,
+     * e.g. the IDs of both builds and the ID of the table. Since cached comparisons will never be updated, only tables
+     * of finished builds should be cached.
+     *
+     * @param key
+     *         the key of the comparison in the cache
+     * @param current
+     *         creates the table of the current build
+     * @param reference
+     *         creates the table of the reference build
+     * @param rowKey
+     *         the property of the rows that identifies matching rows
+     *
+     * @return the result of the comparison
+     */
+    public static TableComparison get(final String key, final Supplier<TableModel> current,
+            final Supplier<TableModel> reference, final String rowKey) {
+        synchronized (COMPARISONS) {
+            SoftReference<TableComparison> cached = COMPARISONS.get(key);
+            if (cached != null) {
+                TableComparison comparison = cached.get();
+                if (comparison != null) {
+                    return comparison;
+                }
+                COMPARISONS.remove(key);
+            }
+        }
+        TableComparison comparison = compare(current.get(), reference.get(), rowKey);
+        synchronized (COMPARISONS) {
+            COMPARISONS.put(key, new SoftReference<>(comparison));
+        }
+        return comparison;
+    }
+
+    /**
+     * Removes all cached comparisons.
+     */
+    static void clearCache() {
+        synchronized (COMPARISONS) {
+            COMPARISONS.clear();
+        }
+    }
+
+    private TableComparison(final TableModel current, final TableModel reference, final String rowKey) {
+        this.current = current;
+        this.reference = reference;
+
+        List<Object> referenceRows = reference.getRows();
+        Map<String, Deque<Integer>> index = new HashMap<>();
+        for (int i = 0; i < referenceRows.size(); i++) {
+            TableCancellation.checkCancelled();
+            String key = getKey(referenceRows.get(i), rowKey);
+            if (!key.isEmpty()) {
+                index.computeIfAbsent(key, k -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        BitSet matched = new BitSet(referenceRows.size());
+        List<Object> added = new ArrayList<>();
+        List<Object> outstanding = new ArrayList<>();
+        for (Object row : current.getRows()) {
+            TableCancellation.checkCancelled();
+            Deque<Integer> matches = index.get(getKey(row, rowKey));
+            if (matches == null || matches.isEmpty()) {
+                added.add(row);
+            }
+            else {
+                matched.set(matches.removeFirst());
+                outstanding.add(row);
+            }
+        }
+
+        List<Object> fixed = new ArrayList<>();
+        for (int i = matched.nextClearBit(0); i < referenceRows.size(); i = matched.nextClearBit(i + 1)) {
+            fixed.add(referenceRows.get(i));
+        }
+
+        partitions.put(Partition.NEW, Collections.unmodifiableList(added));
+        partitions.put(Partition.FIXED, Collections.unmodifiableList(fixed));
+        partitions.put(Partition.OUTSTANDING, Collections.unmodifiableList(outstanding));
+    }
+
+    private static String getKey(final Object row, final String rowKey) {
+        if (StringUtils.isBlank(rowKey)) {
+            return StringUtils.EMPTY;
+        }
+        JsonNode key = TableCells.getCell(TableCells.toNode(row), rowKey);
+        if (!key.isValueNode() || key.isNull()) {
+            return StringUtils.EMPTY;
+        }
+        return key.asString();
+    }
+
+    /**
+     * Returns the rows of the specified partition.
+     *
+     * @param partition
+     *         the partition
+     *
+     * @return the rows of the partition
+     */
+    public List<Object> getRows(final Partition partition) {
+        return partitions.get(partition);
+    }
+
+    /**
+     * Returns the number of rows of the specified partition.
+     *
+     * @param partition
+     *         the partition
+     *
+     * @return the number of rows
+     */
+    public int getRowCount(final Partition partition) {
+        return getRows(partition).size();
+    }
+
+    /**
+     * Returns a table model that contains the rows of the specified partition. The columns and the configuration of
+     * the model are the same as the columns and the configuration of the compared table that contains the rows, i.e.
+     * the table of the reference build for the {@link Partition#FIXED fixed} rows, and the table of the current build
+     * otherwise.
+     *
+     * @param partition
+     *         the partition
+     * @param id
+     *         the ID of the created table model
+     *
+     * @return the table model
+     */
+    public TableModel getTableModel(final Partition partition, final String id) {
+        return new PartitionTableModel(id, partition == Partition.FIXED ? reference : current, getRows(partition));
+    }
+
+    /**
+     * A table model with the rows of a partition.
+     */
+    private static final class PartitionTableModel extends TableModel {
+        private final String id;
+        private final TableModel source;
+        private final List<Object> rows;
+
+        PartitionTableModel(final String id, final TableModel source, final List<Object> rows) {
+            this.id = id;
+            this.source = source;
+            this.rows = rows;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return source.getColumns();
+        }
+
+        @Override
+        public List<Object> getRows() {
+            return rows;
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return source.getTableConfiguration();
+        }
+    }
+}
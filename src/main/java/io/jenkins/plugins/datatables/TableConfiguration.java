@@ -19,6 +19,15 @@ public class TableConfiguration {
     private boolean useSelect = false;
     private boolean useStateSave = false;
     private boolean usePaging = true;
+    private boolean useTelemetry = false;
+    private String rowId = "";
+    private int refreshInterval = 0;
+    private boolean useLive = false;
+    private boolean useClientCache = false;
+    private boolean useServerExport = false;
+    private boolean useBinaryRows = false;
+    private boolean useServerSelection = false;
+    private boolean useDeferredColumns = false;
 
     /**
      * Make the table responsive, i.e. the columns wrap over to a child column.
@@ -170,6 +179,236 @@ public class TableConfiguration {
         return usePaging;
     }
 
+    /**
+     * Enable client side telemetry. The browser will measure the time to request, parse, add, and draw the rows of
+     * the table and will report these timings to the {@link DefaultAsyncTableContentProvider} of the table.
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     * @see ClientTableTimings
+     */
+    public TableConfiguration telemetry() {
+        configuration.put("telemetry", true);
+        useTelemetry = true;
+        return this;
+    }
+
+    /**
+     * Returns whether client side telemetry is configured to be used.
+     *
+     * @return true, if telemetry should be used, false otherwise
+     */
+    public boolean isUseTelemetry() {
+        return useTelemetry;
+    }
+
+    /**
+     * Sets the property of the rows that contains a unique and stable ID for each row. DataTables uses this ID as the
+     * ID of the row element. Additionally, a stable row ID is required to update the rows of a table incrementally
+     * (see {@link #refresh(int)}).
+     *
+     * @param propertyKey
+     *         the property key of the row ID
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     * @see <a href="https://datatables.net/reference/option/rowId">https://datatables.net/reference/option/rowId</a>
+     */
+    public TableConfiguration rowId(final String propertyKey) {
+        configuration.put("rowId", propertyKey);
+        rowId = propertyKey;
+        return this;
+    }
+
+    /**
+     * Returns the property of the rows that contains a unique and stable ID for each row.
+     *
+     * @return the property key of the row ID, or an empty string if no row ID has been configured
+     */
+    public String getRowId() {
+        return rowId;
+    }
+
+    /**
+     * Refreshes the rows of the table periodically. The browser will request only the rows that have been added,
+     * changed, or removed since the last refresh and will apply these changes in place. This requires a stable row
+     * ID (see {@link #rowId(String)}), otherwise all rows will be reloaded on each refresh. This option is useful for
+     * tables of running builds whose content grows over time.
+     *
+     * @param intervalInSeconds
+     *         the interval between two refreshes in seconds
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     * @see DefaultAsyncTableContentProvider#getTableDelta(String, String)
+     */
+    public TableConfiguration refresh(final int intervalInSeconds) {
+        if (intervalInSeconds <= 0) {
+            throw new IllegalArgumentException("Refresh interval must be positive: " + intervalInSeconds);
+        }
+        configuration.put("refreshInterval", intervalInSeconds);
+        refreshInterval = intervalInSeconds;
+        return this;
+    }
+
+    /**
+     * Returns the interval between two refreshes of the rows.
+     *
+     * @return the interval in seconds, or 0 if the rows will not be refreshed
+     */
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Enables the live mode of the table. The browser subscribes to the changes of the rows using server-sent events
+     * and Jenkins pushes the rows that have been added, changed, or removed as soon as the provider reports a change
+     * (see {@link DefaultAsyncTableContentProvider#fireTableChanged(String)}). This requires a stable row ID (see
+     * {@link #rowId(String)}). If the browser cannot subscribe to the changes, then the rows will be refreshed
+     * periodically using the configured {@link #refresh(int) refresh interval} (or every 30 seconds if no interval has
+     * been configured).
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     */
+    public TableConfiguration live() {
+        configuration.put("live", true);
+        useLive = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the live mode is configured to be used.
+     *
+     * @return true, if the changes of the rows should be pushed to the browser, false otherwise
+     */
+    public boolean isUseLive() {
+        return useLive;
+    }
+
+    /**
+     * Enables the persistent cache of the rows in the browser. The browser stores the rows of the table in its
+     * IndexedDB and shows the cached rows immediately when the page is visited again. Afterward, the cached rows are
+     * revalidated using the version of the rows (see
+     * {@link DefaultAsyncTableContentProvider#getTableVersion(String)}): only if the version has changed, the rows
+     * will be loaded again. The size of the cache is limited, the least recently used tables will be evicted first.
+     * This option has no effect for tables that are refreshed periodically or live.
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     */
+    public TableConfiguration clientCache() {
+        configuration.put("clientCache", true);
+        useClientCache = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the persistent cache of the rows in the browser is configured to be used.
+     *
+     * @return true, if the rows should be cached in the browser, false otherwise
+     */
+    public boolean isUseClientCache() {
+        return useClientCache;
+    }
+
+    /**
+     * Enables the export of the rows on the server. The toolbar of the table will show buttons to download the rows as
+     * CSV or Excel file. In contrast to the export of the {@link #buttons(String...) buttons} extension, the file will
+     * be created on the server (see {@link DefaultAsyncTableContentProvider#doExportTable}), so it will contain all
+     * rows that match the current search of the table, in the current order of the table.
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     */
+    public TableConfiguration serverExport() {
+        configuration.put("serverExport", true);
+        useServerExport = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the export of the rows on the server is configured to be used.
+     *
+     * @return true, if the rows should be exported on the server, false otherwise
+     */
+    public boolean isUseServerExport() {
+        return useServerExport;
+    }
+
+    /**
+     * Enables the binary encoding of the rows. The browser requests the rows in the compact binary CBOR format (see
+     * {@link DefaultAsyncTableContentProvider#doTableRowsBinary}) rather than as JSON. This reduces the size of the
+     * response and the time to parse the rows, especially for tables with many numeric values. If the binary rows
+     * cannot be loaded, then the browser falls back to JSON. This option has no effect for tables that use the client
+     * cache, that are refreshed periodically, or that are live.
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     */
+    public TableConfiguration binaryRows() {
+        configuration.put("binaryRows", true);
+        useBinaryRows = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the binary encoding of the rows is configured to be used.
+     *
+     * @return true, if the rows should be loaded in the binary format, false otherwise
+     */
+    public boolean isUseBinaryRows() {
+        return useBinaryRows;
+    }
+
+    /**
+     * Stores the selection of the rows on the server (see {@link TableSelection}). The selected rows are identified by
+     * their {@link #rowId(String) row ID}, so a row ID is required. The selection is stored as long as the provider of
+     * the table exists, so it will be retained if the table is shown in server-side processing mode or if the page is
+     * reloaded. Additionally, the toolbar of the table will
+     * show buttons to select all rows that match the current search on the server and to clear the selection. If no
+     * {@link #select(SelectStyle) selection style} has been configured yet, then {@link SelectStyle#MULTI} will be
+     * used.
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     * @see DefaultAsyncTableContentProvider#getTableSelection(String)
+     */
+    public TableConfiguration serverSelection() {
+        if (!useSelect) {
+            select(SelectStyle.MULTI);
+        }
+        configuration.put("serverSelection", true);
+        useServerSelection = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the selection of the rows is configured to be stored on the server.
+     *
+     * @return true, if the selection should be stored on the server, false otherwise
+     */
+    public boolean isUseServerSelection() {
+        return useServerSelection;
+    }
+
+    /**
+     * Defers the transfer of the values of hidden columns (see {@link TableColumn.ColumnCss#HIDDEN}). The values of
+     * these columns are left out of the rows that are initially sent to the browser. The browser requests the values
+     * of such a column (see {@link DefaultAsyncTableContentProvider#getTableColumnValues(String, int)}) when the column
+     * becomes visible or when the rows are searched. This option reduces the size of the rows of wide tables with
+     * several hidden columns. It has no effect for tables that are refreshed periodically, that are live, or that are
+     * shown in server-side processing mode (these tables search the rows on the server).
+     *
+     * @return this {@link TableConfiguration} for chaining methods
+     */
+    public TableConfiguration deferHiddenColumns() {
+        configuration.put("deferHiddenColumns", true);
+        useDeferredColumns = true;
+        return this;
+    }
+
+    /**
+     * Returns whether the transfer of the values of hidden columns is configured to be deferred.
+     *
+     * @return true, if the values of hidden columns should be loaded on demand, false otherwise
+     */
+    public boolean isUseDeferredColumns() {
+        return useDeferredColumns;
+    }
+
     /**
      * Get the configuration as JSON.
      *
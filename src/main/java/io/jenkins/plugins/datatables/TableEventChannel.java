@@ -0,0 +1,277 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.Authentication;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+
+/**
+ * Pushes the changes of the rows of a table to all subscribed browsers using server-sent events. Whenever the provider
+ * reports a change of the table, the channel waits for a short delay so that rapid updates are coalesced into a single
+ * event. Then the changes since the cursor of each subscriber are computed (see {@link TableHistory}) and sent as
+ * {@code delta} event. The changes are computed on the {@link TableRequestExecutor} with the authentication of the
+ * subscribers, subscribers of the same user share the computed table model. The single scheduler thread of all
+ * channels only triggers these computations and sends the heartbeats.
+ *
+ * <p>
+ * The number of subscribers of a table is limited: additional browsers should fall back to polling. The limits can be
+ * configured using the system properties {@code io.jenkins.plugins.datatables.TableEventChannel.subscribers} (default:
+ * 20), {@code .delay} (the coalescing delay in milliseconds, default: 1000), {@code .heartbeat} (the interval of the
+ * heartbeat comments in seconds, default: 30), and {@code .timeout} (the maximum duration of a connection in seconds,
+ * default: 600; browsers reconnect automatically).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class TableEventChannel {
+    private static final Logger LOGGER = Logger.getLogger(TableEventChannel.class.getName());
+
+    private static final String PREFIX = TableEventChannel.class.getName();
+    private static final int SUBSCRIBERS = SystemProperties.getInteger(PREFIX + ".subscribers", 20);
+    private static final int DELAY = SystemProperties.getInteger(PREFIX + ".delay", 1000);
+    private static final int HEARTBEAT = SystemProperties.getInteger(PREFIX + ".heartbeat", 30);
+    private static final int TIMEOUT = SystemProperties.getInteger(PREFIX + ".timeout", 600);
+    private static final int RECONNECT_DELAY = 5000;
+
+    private static final Set<TableEventChannel> ACTIVE_CHANNELS = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                new NamingThreadFactory(new DaemonThreadFactory(), "DataTables.events"));
+        scheduler.scheduleWithFixedDelay(TableEventChannel::sendHeartbeats, HEARTBEAT, HEARTBEAT, TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    private static void sendHeartbeats() {
+        ACTIVE_CHANNELS.forEach(channel -> channel.send(": heartbeat\n\n"));
+    }
+
+    private final String id;
+    private final Function<Collection<String>, Map<String, ObjectNode>> changes;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+
+    /**
+     * Creates a new channel for a table.
+     *
+     * @param id
+     *         the ID of the table
+     * @param changes
+     *         computes the changes of the rows since each of the specified cursors, see
+     *         {@link TableHistory#update(List, Collection)}
+     */
+    TableEventChannel(final String id, final Function<Collection<String>, Map<String, ObjectNode>> changes) {
+        this.id = id;
+        this.changes = changes;
+    }
+
+    /**
+     * Returns the maximum duration of a connection.
+     *
+     * @return the timeout in milliseconds
+     */
+    static long getTimeout() {
+        return TimeUnit.SECONDS.toMillis(TIMEOUT);
+    }
+
+    /**
+     * Subscribes a browser to the changes of the table. If there are already too many subscribers, then the browser
+     * will not be subscribed.
+     *
+     * @param writer
+     *         the writer of the event stream
+     * @param cursor
+     *         the cursor of the rows that are already shown in the browser
+     * @param authentication
+     *         the authentication of the user
+     * @param onClose
+     *         invoked when the subscription has been removed from the channel, should complete the response
+     *
+     * @return {@code true} if the browser has been subscribed, {@code false} if there are too many subscribers
+     */
+    synchronized boolean subscribe(final PrintWriter writer, final String cursor,
+            final Authentication authentication, final Runnable onClose) {
+        if (isFull()) {
+            LOGGER.log(Level.FINE, "Rejecting subscriber of table {0}: too many subscribers", id);
+
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(writer, cursor, authentication, onClose);
+        subscribers.add(subscriber);
+        ACTIVE_CHANNELS.add(this);
+        if (subscriber.send("retry: " + RECONNECT_DELAY + "\n\n")) {
+            publish(); // the rows might have changed since the browser has loaded them
+        }
+        else {
+            unsubscribe(subscriber);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the subscriber that uses the specified writer, e.g. if the connection has been closed by the browser.
+     *
+     * @param writer
+     *         the writer of the event stream
+     */
+    void unsubscribe(final PrintWriter writer) {
+        subscribers.stream().filter(subscriber -> subscriber.writer == writer).forEach(this::unsubscribe);
+    }
+
+    private synchronized void unsubscribe(final Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            if (subscribers.isEmpty()) {
+                ACTIVE_CHANNELS.remove(this);
+            }
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Returns whether the maximum number of subscribers has been reached.
+     *
+     * @return {@code true} if no more browsers can subscribe, {@code false} otherwise
+     */
+    boolean isFull() {
+        return subscribers.size() >= SUBSCRIBERS;
+    }
+
+    /**
+     * Returns the number of subscribed browsers.
+     *
+     * @return the number of subscribers
+     */
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Reports a change of the rows of the table. The changes will be sent to the subscribers after a short delay, so
+     * that several rapid changes result in a single event.
+     */
+    void publish() {
+        if (!subscribers.isEmpty() && isScheduled.compareAndSet(false, true)) {
+            SCHEDULER.schedule(this::dispatch, DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Hands the computation of the changes over to the {@link TableRequestExecutor}, so that the scheduler thread is
+     * never blocked by a slow table. If the executor is busy, then the changes will be sent after another delay.
+     */
+    private void dispatch() {
+        if (!TableRequestExecutor.executeInBackground(this::flush)) {
+            LOGGER.log(Level.FINE, "Postponing changes of table {0}: the executor is busy", id);
+
+            SCHEDULER.schedule(this::dispatch, DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the changes since the cursor of each subscriber to the subscribers.
+     */
+    void flush() {
+        isScheduled.set(false);
+
+        Map<String, List<Subscriber>> subscribersByUser = subscribers.stream()
+                .collect(Collectors.groupingBy(subscriber -> subscriber.authentication.getName(),
+                        LinkedHashMap::new, Collectors.toList()));
+        for (List<Subscriber> group : subscribersByUser.values()) {
+            try {
+                sendChanges(group);
+            }
+            catch (RuntimeException exception) {
+                LOGGER.log(Level.WARNING, "Can't compute the changes of table " + id, exception);
+            }
+        }
+    }
+
+    private void sendChanges(final List<Subscriber> group) {
+        Map<String, ObjectNode> changesByCursor;
+        try (ACLContext ignored = ACL.as2(group.get(0).authentication)) {
+            changesByCursor = changes.apply(group.stream().map(Subscriber::getCursor).collect(Collectors.toSet()));
+        }
+        for (Subscriber subscriber : new ArrayList<>(group)) {
+            ObjectNode change = changesByCursor.get(subscriber.getCursor());
+            if (change != null && !TableHistory.isEmpty(change)) {
+                String cursor = change.path(TableHistory.CURSOR).asString();
+                if (subscriber.send("event: delta\nid: " + cursor + "\ndata: " + change + "\n\n")) {
+                    subscriber.cursor = cursor;
+                }
+                else {
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    private void send(final String event) {
+        subscribers.stream().filter(subscriber -> !subscriber.send(event)).forEach(this::unsubscribe);
+    }
+
+    /**
+     * A browser that is subscribed to the changes of the table.
+     */
+    private static final class Subscriber {
+        private final PrintWriter writer;
+        private final Authentication authentication;
+        private final Runnable onClose;
+        private volatile String cursor;
+
+        Subscriber(final PrintWriter writer, final String cursor, final Authentication authentication,
+                final Runnable onClose) {
+            this.writer = writer;
+            this.cursor = cursor;
+            this.authentication = authentication;
+            this.onClose = onClose;
+        }
+
+        String getCursor() {
+            return cursor;
+        }
+
+        /**
+         * Sends the specified event to the browser.
+         *
+         * @return {@code true} if the event has been sent, {@code false} if the connection has been closed
+         */
+        synchronized boolean send(final String event) {
+            writer.write(event);
+            writer.flush();
+            return !writer.checkError();
+        }
+
+        void close() {
+            try {
+                onClose.run();
+            }
+            catch (RuntimeException exception) {
+                LOGGER.log(Level.FINE, "Can't close event stream", exception);
+            }
+        }
+    }
+}
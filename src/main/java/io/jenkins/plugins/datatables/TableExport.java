@@ -0,0 +1,308 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+
+/**
+ * Exports the rows of a {@link TableModel} to a file that can be opened in a spreadsheet application. Only rows that
+ * match the search are exported, in the order that is currently used in the browser. The rows are written one by one
+ * to the output: only the row indexes and the sort values of the ordered columns are kept in memory.
+ *
+ * <p>
+ * The exported cells contain the display text of the cells (without HTML tags), the sort values of {@link DetailedCell}
+ * instances are used to order the rows. Hidden columns and columns without a header label (e.g., details columns) are
+ * not exported.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public class TableExport {
+    private static final int MAXIMUM_SHEET_NAME_LENGTH = 31;
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+
+    private final TableModel model;
+    private final List<TableColumn> columns;
+    private final TableQuery query;
+
+    /**
+     * Creates a new export for the specified table.
+     *
+     * @param model
+     *         the table to export
+     * @param searchValue
+     *         the search value to filter the rows, an empty value exports all rows
+     * @param orderDefinition
+     *         the order of the rows, a comma separated list of column indexes and directions, e.g.
+     *         {@code 1:asc,3:desc}; an empty value exports the rows in the order of the model
+     */
+    public TableExport(final TableModel model, final String searchValue, final String orderDefinition) {
+        this.model = model;
+
+        List<TableColumn> allColumns = model.getColumns();
+        columns = allColumns.stream()
+                .filter(column -> StringUtils.isNotBlank(column.getHeaderLabel()))
+                .filter(column -> !ColumnCss.HIDDEN.toString().equals(column.getHeaderClass()))
+                .collect(Collectors.toList());
+        query = new TableQuery(allColumns, searchValue, orderDefinition);
+    }
+
+    /**
+     * Writes the matching rows in the specified format.
+     *
+     * @param format
+     *         the format of the export
+     * @param writer
+     *         the writer to write the exported rows to
+     *
+     * @return the number of exported rows
+     * @throws IOException
+     *         if the rows could not be written
+     */
+    public int write(final Format format, final Writer writer) throws IOException {
+        RowWriter rows = format == Format.EXCEL ? new ExcelWriter(writer, model.getId()) : new CsvWriter(writer);
+        rows.writeHeader(columns.stream().map(TableColumn::getHeaderLabel).collect(Collectors.toList()));
+
+        int count = 0;
+        List<?> all = model.getRows();
+        if (!query.isOrdered()) {
+            for (Object row : all) {
+                TableCancellation.checkCancelled();
+                JsonNode node = TableCells.toNode(row);
+                if (query.matches(node)) {
+                    writeRow(rows, node);
+                    count++;
+                }
+            }
+        }
+        else {
+            for (int index : query.select(all)) {
+                TableCancellation.checkCancelled();
+                writeRow(rows, TableCells.toNode(all.get(index)));
+                count++;
+            }
+        }
+        rows.writeFooter();
+        writer.flush();
+        return count;
+    }
+
+    private void writeRow(final RowWriter rows, final JsonNode row) throws IOException {
+        List<String> values = new ArrayList<>(columns.size());
+        for (TableColumn column : columns) {
+            values.add(getText(column, TableCells.getCell(row, column.getDataPropertyKey())));
+        }
+        rows.writeRow(values);
+    }
+
+    private String getText(final TableColumn column, final JsonNode cell) {
+        if (ColumnCss.DATE.toString().equals(column.getHeaderClass())) {
+            Optional<Double> seconds = TableCells.getNumber(cell);
+            if (seconds.isPresent()) {
+                return seconds.get() > 0 ? Instant.ofEpochSecond(seconds.get().longValue()).toString() : "-";
+            }
+        }
+        return TableCells.getDisplayText(cell);
+    }
+
+    /**
+     * The supported export formats.
+     */
+    public enum Format {
+        /** Comma separated values (RFC 4180). */
+        CSV("text/csv", "csv"),
+        /** Excel workbook in the XML Spreadsheet 2003 format. */
+        EXCEL("application/vnd.ms-excel", "xls");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(final String contentType, final String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the content type of the exported file.
+         *
+         * @return the content type
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Returns the extension of the exported file.
+         *
+         * @return the file extension
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Returns the format with the specified name.
+         *
+         * @param name
+         *         the name of the format (case-insensitive)
+         *
+         * @return the format, or an empty optional if there is no such format
+         */
+        public static Optional<Format> fromName(final String name) {
+            return Arrays.stream(values())
+                    .filter(format -> format.name().equalsIgnoreCase(StringUtils.defaultString(name)))
+                    .findFirst();
+        }
+    }
+
+    /**
+     * Writes the rows in a specific format.
+     */
+    private interface RowWriter {
+        void writeHeader(List<String> labels) throws IOException;
+
+        void writeRow(List<String> values) throws IOException;
+
+        void writeFooter() throws IOException;
+    }
+
+    /**
+     * Writes the rows as comma separated values. Texts that would be interpreted as formulas by spreadsheet
+     * applications are prefixed with an apostrophe.
+     */
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(final Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader(final List<String> labels) throws IOException {
+            writer.write('\uFEFF'); // byte order mark, otherwise Excel does not detect UTF-8
+            writeRow(labels);
+        }
+
+        @Override
+        public void writeRow(final List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(quote(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        private String quote(final String value) {
+            String text = value;
+            if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !isNumber(text)) {
+                text = "'" + text;
+            }
+            if (StringUtils.containsAny(text, ',', '"', '\r', '\n')) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+
+        @Override
+        public void writeFooter() {
+            // no footer
+        }
+    }
+
+    /**
+     * Writes the rows as Excel workbook in the XML Spreadsheet 2003 format. This format can be streamed, and it is
+     * supported by all versions of Excel and LibreOffice.
+     */
+    private static final class ExcelWriter implements RowWriter {
+        private final Writer writer;
+        private final String sheetName;
+
+        ExcelWriter(final Writer writer, final String sheetName) {
+            this.writer = writer;
+            this.sheetName = StringUtils.abbreviate(sheetName.replaceAll("[\\[\\]:*?/\\\\]", "_"),
+                    MAXIMUM_SHEET_NAME_LENGTH);
+        }
+
+        @Override
+        public void writeHeader(final List<String> labels) throws IOException {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<?mso-application progid=\"Excel.Sheet\"?>\n"
+                    + "<Workbook xmlns=\"urn:schemas-microsoft-com:office:spreadsheet\""
+                    + " xmlns:ss=\"urn:schemas-microsoft-com:office:spreadsheet\">\n"
+                    + "<Styles><Style ss:ID=\"header\"><Font ss:Bold=\"1\"/></Style></Styles>\n"
+                    + "<Worksheet ss:Name=\"" + escape(StringUtils.defaultIfBlank(sheetName, "Table")) + "\">\n"
+                    + "<Table>\n");
+            writer.write("<Row ss:StyleID=\"header\">");
+            for (String label : labels) {
+                writeCell("String", label);
+            }
+            writer.write("</Row>\n");
+        }
+
+        @Override
+        public void writeRow(final List<String> values) throws IOException {
+            writer.write("<Row>");
+            for (String value : values) {
+                writeCell(isNumber(value) ? "Number" : "String", value);
+            }
+            writer.write("</Row>\n");
+        }
+
+        private void writeCell(final String type, final String value) throws IOException {
+            writer.write("<Cell><Data ss:Type=\"");
+            writer.write(type);
+            writer.write("\">");
+            writer.write(escape(value));
+            writer.write("</Data></Cell>");
+        }
+
+        @Override
+        public void writeFooter() throws IOException {
+            writer.write("</Table>\n</Worksheet>\n</Workbook>\n");
+        }
+
+        private static String escape(final String value) {
+            StringBuilder escaped = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        escaped.append("&amp;");
+                        break;
+                    case '<':
+                        escaped.append("&lt;");
+                        break;
+                    case '>':
+                        escaped.append("&gt;");
+                        break;
+                    case '"':
+                        escaped.append("&quot;");
+                        break;
+                    default:
+                        if (c >= ' ' || c == '\t' || c == '\n' || c == '\r') {
+                            escaped.append(c); // other control characters are not allowed in XML
+                        }
+                }
+            }
+            return escaped.toString();
+        }
+    }
+
+    private static boolean isNumber(final String text) {
+        return NUMBER.matcher(text).matches();
+    }
+}
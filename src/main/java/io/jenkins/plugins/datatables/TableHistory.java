@@ -0,0 +1,258 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * Tracks the versions of the rows of a table, so that clients can request only the rows that have been added, changed,
+ * or removed since the version they already have. The history stores the hash of each row of the latest version and,
+ * for a bounded number of recent versions, the IDs of the rows that have been touched by the version. The rows are
+ * identified by the value of the {@link TableConfiguration#rowId(String) row ID} property.
+ *
+ * <p>
+ * The position of a client in the history is described by a cursor. A cursor contains a random epoch of the history,
+ * so cursors of a previous history (e.g., before a restart of Jenkins) are detected and result in a complete reload.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class TableHistory {
+    static final String CURSOR = "cursor";
+    static final String RESET = "reset";
+    static final String ROWS = "rows";
+    static final String REMOVED = "removed";
+
+    private static final int MAXIMUM_VERSIONS = 32;
+    private static final int SIZE = SystemProperties.getInteger(TableHistory.class.getName() + ".size", 64);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+    private final String rowIdKey;
+    private final Deque<Version> versions = new ArrayDeque<>();
+    private Map<String, Long> hashes = new HashMap<>();
+    private long version;
+
+    TableHistory(final String rowIdKey) {
+        this.rowIdKey = rowIdKey;
+    }
+
+    /**
+     * Creates a map that stores the histories of the tables of a provider. The map retains the most recently used
+     * histories only, its size can be configured using the system property
+     * {@code io.jenkins.plugins.datatables.TableHistory.size} (default: 64). The map is not thread-safe.
+     *
+     * @return the map for the histories
+     */
+    static Map<String, TableHistory> createHistories() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2779160354315532498L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, TableHistory> eldest) {
+                return size() > SIZE;
+            }
+        };
+    }
+
+    /**
+     * Updates the history with the current rows of the table and computes the changes since the specified cursor.
+     *
+     * @param rows
+     *         the current rows of the table
+     * @param cursor
+     *         the cursor of the client, might be empty if the client has no rows yet
+     *
+     * @return the changes as JSON object with the properties {@code cursor}, {@code reset}, {@code rows}, and {@code
+     *         removed}
+     */
+    synchronized ObjectNode update(final List<ObjectNode> rows, final String cursor) {
+        return update(rows, Collections.singleton(cursor)).get(cursor);
+    }
+
+    /**
+     * Updates the history with the current rows of the table and computes the changes since each of the specified
+     * cursors. This method is used to compute the changes for several clients at once.
+     *
+     * @param rows
+     *         the current rows of the table
+     * @param cursors
+     *         the cursors of the clients
+     *
+     * @return the changes for each cursor as JSON objects with the properties {@code cursor}, {@code reset}, {@code
+     *         rows}, and {@code removed}
+     */
+    synchronized Map<String, ObjectNode> update(final List<ObjectNode> rows, final Collection<String> cursors) {
+        Map<String, ObjectNode> changes = new HashMap<>();
+        Map<String, ObjectNode> current = new LinkedHashMap<>();
+        for (ObjectNode row : rows) {
+            JsonNode id = TableCells.getCell(row, rowIdKey);
+            if (!id.isValueNode() || id.isNull() || current.put(id.asString(), row) != null) {
+                ObjectNode reset = createReset(rows, getCursor()); // missing or duplicate IDs: deltas are not possible
+                cursors.forEach(cursor -> changes.put(cursor, reset));
+                return changes;
+            }
+        }
+        record(current);
+
+        for (String cursor : cursors) {
+            changes.put(cursor, createDelta(rows, current, cursor));
+        }
+        return changes;
+    }
+
+    private ObjectNode createDelta(final List<ObjectNode> rows, final Map<String, ObjectNode> current,
+            final String cursor) {
+        long clientVersion = parseVersion(cursor);
+        if (clientVersion < 0) {
+            return createReset(rows, getCursor());
+        }
+
+        Set<String> touched = new HashSet<>();
+        for (Version recent : versions) {
+            if (recent.number > clientVersion) {
+                touched.addAll(recent.ids);
+            }
+        }
+        ObjectNode delta = createResponse(getCursor(), false);
+        ArrayNode changed = delta.putArray(ROWS);
+        ArrayNode removed = delta.putArray(REMOVED);
+        for (String id : touched) {
+            ObjectNode row = current.get(id);
+            if (row == null) {
+                removed.add(id);
+            }
+            else {
+                changed.add(row);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Returns whether the specified change contains no modifications of the rows.
+     *
+     * @param change
+     *         the change to check
+     *
+     * @return {@code true} if the client does not need to be updated, {@code false} otherwise
+     */
+    static boolean isEmpty(final JsonNode change) {
+        return !change.path(RESET).booleanValue()
+                && change.path(ROWS).size() == 0 && change.path(REMOVED).size() == 0;
+    }
+
+    private void record(final Map<String, ObjectNode> current) {
+        Map<String, Long> updated = new HashMap<>(current.size() * 4 / 3 + 1);
+        Set<String> touched = new HashSet<>();
+        current.forEach((id, row) -> {
+            long hash = hash(row.toString());
+            updated.put(id, hash);
+            Long previous = hashes.get(id);
+            if (previous == null || previous != hash) {
+                touched.add(id);
+            }
+        });
+        for (String id : hashes.keySet()) {
+            if (!updated.containsKey(id)) {
+                touched.add(id);
+            }
+        }
+        hashes = updated;
+        if (version == 0) {
+            touched.clear(); // clients without a cursor always get all rows
+        }
+        if (!touched.isEmpty() || version == 0) {
+            version++;
+            versions.addLast(new Version(version, touched));
+            if (versions.size() > MAXIMUM_VERSIONS) {
+                versions.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Returns the version of the specified cursor. If the cursor is not valid for this history or if it is too old,
+     * then -1 is returned.
+     */
+    private long parseVersion(final String cursor) {
+        String prefix = epoch + ":";
+        if (cursor == null || !cursor.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            long clientVersion = Long.parseLong(cursor.substring(prefix.length()));
+            if (clientVersion > version || versions.isEmpty() || clientVersion < versions.getFirst().number - 1) {
+                return -1;
+            }
+            return clientVersion;
+        }
+        catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    private String getCursor() {
+        return epoch + ":" + version;
+    }
+
+    /**
+     * Creates a response that replaces all rows of the client.
+     *
+     * @param rows
+     *         the rows of the table
+     * @param cursor
+     *         the cursor of the rows
+     *
+     * @return the response as JSON object
+     */
+    static ObjectNode createReset(final List<ObjectNode> rows, final String cursor) {
+        ObjectNode reset = createResponse(cursor, true);
+        reset.putArray(ROWS).addAll(rows);
+        reset.putArray(REMOVED);
+        return reset;
+    }
+
+    private static ObjectNode createResponse(final String cursor, final boolean isReset) {
+        return TableCells.getMapper().createObjectNode()
+                .put(CURSOR, cursor)
+                .put(RESET, isReset);
+    }
+
+    private static long hash(final String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The IDs of the rows that have been added, changed, or removed by a version.
+     */
+    private static final class Version {
+        private final long number;
+        private final Set<String> ids;
+
+        Version(final long number, final Set<String> ids) {
+            this.number = number;
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.util.JenkinsFacade;
+
+/**
+ * Collects the measurements of all requests for the rows of tables that are served by a
+ * {@link DefaultAsyncTableContentProvider}. For each table the number of requests, the number of cache hits, the
+ * number of rows, the size of the payload, and the time spent to create the model and to serialize the rows are
+ * aggregated, so that operators can find the expensive tables of a controller.
+ *
+ * <p>
+ * The metrics are available using JMX (see {@link TableMetricsMXBean}) and are forwarded to all registered
+ * {@link TableMetricsListener} extensions. The number of tables that are tracked is bounded: if the maximum has been
+ * reached, then the statistics of the least recently requested table will be removed. The maximum can be configured
+ * using the system property {@code io.jenkins.plugins.datatables.TableMetrics.size} (default: 256).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableMetrics implements TableMetricsMXBean {
+    /** The name of the metrics in the platform MBean server. */
+    public static final String OBJECT_NAME = "io.jenkins.plugins.datatables:type=TableMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(TableMetrics.class.getName());
+    private static final int SIZE = SystemProperties.getInteger(TableMetrics.class.getName() + ".size", 256);
+    private static final TableMetrics INSTANCE = new TableMetrics();
+
+    /**
+     * Returns the metrics of this controller.
+     *
+     * @return the metrics
+     */
+    public static TableMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server and attaches all {@link TableMetricsListener} extensions.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void register() {
+        INSTANCE.setListeners(new JenkinsFacade().getExtensionsFor(TableMetricsListener.class));
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        }
+        catch (JMException exception) {
+            LOGGER.log(Level.WARNING, "Can't register table metrics in JMX", exception);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server.
+     */
+    @Terminator
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException exception) {
+            LOGGER.log(Level.FINE, "Can't unregister table metrics from JMX", exception);
+        }
+    }
+
+    private final Map<String, TableStatistics> statistics = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 5047632390367834316L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, TableStatistics> eldest) {
+            return size() > SIZE;
+        }
+    };
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private List<TableMetricsListener> listeners = Collections.emptyList();
+
+    TableMetrics() {
+        // only the singleton and tests create instances
+    }
+
+    void setListeners(final List<TableMetricsListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Records the measurements of a request.
+     *
+     * @param request
+     *         the measurements of the request
+     */
+    void record(final TableRequestRecord request) {
+        requests.increment();
+        if (request.isCacheHit()) {
+            cacheHits.increment();
+        }
+        TableStatistics table;
+        synchronized (statistics) {
+            table = statistics.computeIfAbsent(request.getName(), TableStatistics::new);
+        }
+        table.add(request);
+
+        for (TableMetricsListener listener : listeners) {
+            try {
+                listener.onTableRequest(request);
+            }
+            catch (RuntimeException exception) {
+                LOGGER.log(Level.WARNING, "Table metrics listener " + listener + " failed", exception);
+            }
+        }
+    }
+
+    /**
+     * Records a request that has been aborted before the rows have been computed completely.
+     *
+     * @param name
+     *         the name of the table
+     */
+    void recordAbort(final String name) {
+        aborts.increment();
+        TableStatistics table;
+        synchronized (statistics) {
+            table = statistics.computeIfAbsent(name, TableStatistics::new);
+        }
+        table.addAbort();
+    }
+
+    /**
+     * Returns the statistics of the table with the specified name.
+     *
+     * @param name
+     *         the name of the table
+     *
+     * @return the statistics, or an empty optional if there are no statistics for the table yet
+     */
+    public Optional<TableStatistics> getTable(final String name) {
+        synchronized (statistics) {
+            return Optional.ofNullable(statistics.get(name));
+        }
+    }
+
+    @Override
+    public TableStatistics[] getTables() {
+        synchronized (statistics) {
+            return statistics.values().stream()
+                    .sorted(Comparator.comparingDouble(TableStatistics::getTotalTime).reversed())
+                    .toArray(TableStatistics[]::new);
+        }
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getAbortedCount() {
+        return aborts.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long count = getRequestCount();
+        return count == 0 ? 0 : (double) cacheHits.sum() / count;
+    }
+
+    @Override
+    public void reset() {
+        synchronized (statistics) {
+            statistics.clear();
+        }
+        requests.reset();
+        cacheHits.reset();
+        aborts.reset();
+    }
+}
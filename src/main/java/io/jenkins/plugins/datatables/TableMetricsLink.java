@@ -0,0 +1,70 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+
+/**
+ * Shows the metrics of all tables on a page of the "Manage Jenkins" section. The page contains the measurements of the
+ * controller (see {@link TableMetrics}) and the timings that have been reported by the browsers of the users (see
+ * {@link ClientTableTimings}).
+ *
+ * @author Ullrich Hafner
+ */
+@Extension
+public class TableMetricsLink extends ManagementLink {
+    static final String URL = "data-tables-metrics";
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-speedometer-outline plugin-ionicons-api";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Table Metrics";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Shows which tables are expensive to create on the controller and slow to load in the browser.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL;
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    /**
+     * Returns the measurements of all tables on the controller.
+     *
+     * @return the server side statistics
+     */
+    public TableStatistics[] getServerStatistics() {
+        return TableMetrics.getInstance().getTables();
+    }
+
+    /**
+     * Returns the timings of all tables that have been reported by the browsers.
+     *
+     * @return the client side timings
+     */
+    public List<ClientTableTimings.TableTiming> getClientTimings() {
+        return ClientTableTimings.getInstance().getTables();
+    }
+
+    /**
+     * Returns the phases that are measured in the browser.
+     *
+     * @return the phases
+     */
+    public List<String> getPhases() {
+        return ClientTableTimings.PHASES;
+    }
+}
@@ -0,0 +1,22 @@
+package io.jenkins.plugins.datatables;
+
+import hudson.ExtensionPoint;
+
+/**
+ * Receives the measurements of each request for the rows of a table. Implementations can be used to forward the
+ * measurements to a monitoring system, e.g. the Metrics plugin. Listeners are registered using the {@code @Extension}
+ * annotation, and they are invoked synchronously in the thread that computed the rows, so implementations must return
+ * quickly.
+ *
+ * @author Ullrich Hafner
+ * @see TableMetrics
+ */
+public interface TableMetricsListener extends ExtensionPoint {
+    /**
+     * Called after the rows of a table have been served.
+     *
+     * @param request
+     *         the measurements of the request
+     */
+    void onTableRequest(TableRequestRecord request);
+}
@@ -0,0 +1,43 @@
+package io.jenkins.plugins.datatables;
+
+/**
+ * JMX interface of the {@link TableMetrics}. The metrics are registered with the object name
+ * {@value TableMetrics#OBJECT_NAME}.
+ *
+ * @author Ullrich Hafner
+ */
+public interface TableMetricsMXBean {
+    /**
+     * Returns the statistics of all tables, ordered by the total time that has been spent to serve the requests.
+     *
+     * @return the statistics of all tables
+     */
+    TableStatistics[] getTables();
+
+    /**
+     * Returns the number of requests for the rows of all tables.
+     *
+     * @return the number of requests
+     */
+    long getRequestCount();
+
+    /**
+     * Returns the number of requests for all tables that have been aborted because the browser was no longer
+     * interested in the rows.
+     *
+     * @return the number of aborted requests
+     */
+    long getAbortedCount();
+
+    /**
+     * Returns the ratio of requests for all tables that have been served from the {@link TablePayloadCache}.
+     *
+     * @return the cache hit rate in the interval [0, 1]
+     */
+    double getCacheHitRate();
+
+    /**
+     * Removes all statistics.
+     */
+    void reset();
+}
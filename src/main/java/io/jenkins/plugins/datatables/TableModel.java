@@ -3,6 +3,10 @@ package io.jenkins.plugins.datatables;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.core.JsonGenerator;
+
 /**
  * Provides a model for tables that are rendered with JQuery DataTables. The model consists of the following parts:
  *
@@ -48,6 +52,56 @@ public abstract class TableModel {
      */
     public abstract List<Object> getRows();
 
+    /**
+     * Writes the rows of the table as JSON array to the specified generator. This default implementation serializes
+     * the objects returned by {@link #getRows()}. Models that use a more compact representation of the rows (see
+     * {@link ColumnarTableModel}) may override this method to write the rows without creating row objects. Large
+     * tables will be serialized in parallel (see {@link ParallelRows}).
+     *
+     * @param generator
+     *         the generator to write the rows to
+     *
+     * @return the number of written rows
+     */
+    public int writeRows(final JsonGenerator generator) {
+        List<Object> rows = getRows();
+        ParallelRows.writeRows(rows, generator);
+        return rows.size();
+    }
+
+    /**
+     * Returns whether at least one column of this table has aggregations configured. In this case a summary of the
+     * table will be shown in the footer of the table.
+     *
+     * @return {@code true} if the table has a summary, {@code false} otherwise
+     * @see TableColumn.ColumnBuilder#withAggregation(TableColumn.Aggregation...)
+     */
+    public boolean hasSummary() {
+        return getColumns().stream().anyMatch(TableColumn::hasAggregations);
+    }
+
+    /**
+     * Returns the summary of all rows of this table.
+     *
+     * @return the summary
+     */
+    public TableSummary getSummary() {
+        return getSummary(StringUtils.EMPTY);
+    }
+
+    /**
+     * Returns the summary of all rows of this table that match the specified search value.
+     *
+     * @param searchValue
+     *         the search value to filter the rows
+     *
+     * @return the summary
+     * @see TableSearch
+     */
+    public TableSummary getSummary(final String searchValue) {
+        return TableSummary.of(getColumns(), getRows(), searchValue);
+    }
+
     /**
      * Returns the configuration of a table. This may be overridden to change the configuration of a table.
      *
@@ -0,0 +1,195 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import tools.jackson.core.JsonGenerator;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * Decides whether a table is shown in server-side processing mode and creates the pages of such tables. By default,
+ * the browser loads all rows of a table at once and searches, orders, and pages the rows on its own. This does not
+ * scale for tables with hundreds of thousands of rows. Such tables are shown in server-side processing mode
+ * automatically: the browser requests only the rows of the visible page, the search and order of the rows are
+ * evaluated on the server (see {@link TableQuery}).
+ *
+ * <p>
+ * A table is shown in server-side mode if the number of rows or the size of the payload exceeds a threshold. Before
+ * the rows are serialized, the size of the payload is estimated from a sample of the rows of the model, so a large
+ * table does not need to be serialized just to find out that it is too large. The thresholds can be configured using
+ * the system properties {@code io.jenkins.plugins.datatables.TablePaging.rows} (default: 50000) and {@code .payload}
+ * (number of characters, default: 10000000). A threshold of 0 disables the corresponding check.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ * @see <a href="https://datatables.net/manual/server-side">DataTables server-side processing</a>
+ */
+final class TablePaging {
+    private static final String PREFIX = TablePaging.class.getName();
+    private static final int ROWS = SystemProperties.getInteger(PREFIX + ".rows", 50_000);
+    private static final int PAYLOAD = SystemProperties.getInteger(PREFIX + ".payload", 10_000_000);
+    private static final int SAMPLES = 100;
+
+    /**
+     * Returns whether a table with the specified size should be shown in server-side mode.
+     *
+     * @param rowCount
+     *         the number of rows
+     * @param payloadSize
+     *         the size of the rows as JSON (number of characters)
+     *
+     * @return {@code true} if the table should be shown in server-side mode, {@code false} otherwise
+     */
+    static boolean isServerSide(final long rowCount, final long payloadSize) {
+        return (ROWS > 0 && rowCount > ROWS) || (PAYLOAD > 0 && payloadSize > PAYLOAD);
+    }
+
+    /**
+     * Estimates whether the specified table should be shown in server-side mode. The number of rows is taken from the
+     * model, the size of the payload is estimated from a sample of the rows (see
+     * {@link #estimatePayloadSize(List)}). The rows are not serialized completely.
+     *
+     * @param model
+     *         the table
+     *
+     * @return {@code true} if the table should be shown in server-side mode, {@code false} otherwise
+     */
+    static boolean isServerSide(final TableModel model) {
+        List<Object> rows = model.getRows();
+        if (ROWS > 0 && rows.size() > ROWS) {
+            return true;
+        }
+        return PAYLOAD > 0 && estimatePayloadSize(rows) > PAYLOAD;
+    }
+
+    /**
+     * Estimates the size of the specified rows as JSON array. The estimation serializes at most 100 rows that are
+     * evenly distributed over the rows and extrapolates the size of these rows to all rows.
+     *
+     * @param rows
+     *         the rows
+     *
+     * @return the estimated size of the rows as JSON array (number of characters)
+     */
+    static long estimatePayloadSize(final List<Object> rows) {
+        if (rows.isEmpty()) {
+            return 2;
+        }
+        int step = Math.max(1, rows.size() / SAMPLES);
+        long size = 0;
+        int samples = 0;
+        for (int i = 0; i < rows.size(); i += step) {
+            TableCancellation.checkCancelled();
+            size += TableCells.getMapper().writeValueAsString(rows.get(i)).length() + 1;
+            samples++;
+        }
+        return size * rows.size() / samples + 1;
+    }
+
+    /**
+     * Returns the response that tells the browser to show the table in server-side mode.
+     *
+     * @return the server-side response
+     */
+    static String getServerSideResponse() {
+        return TableCells.getMapper().createObjectNode().put("serverSide", true).toString();
+    }
+
+    /**
+     * Returns the response that tells the browser to show the specified rows in client-side mode.
+     *
+     * @param rows
+     *         the rows of the table as JSON array
+     *
+     * @return the client-side response
+     */
+    static String getClientSideResponse(final String rows) {
+        return "{\"rows\":" + rows + "}";
+    }
+
+    /**
+     * Creates a page of the rows that match the search, in the specified order. The page is a JSON object with the
+     * properties {@code recordsTotal}, {@code recordsFiltered}, and {@code data} (the rows of the page) as expected by
+     * DataTables in server-side mode.
+     *
+     * @param model
+     *         the table
+     * @param start
+     *         the index of the first row of the page (in the ordered and filtered rows)
+     * @param length
+     *         the number of rows of the page, a negative value selects all remaining rows
+     * @param searchValue
+     *         the search value to filter the rows
+     * @param orderDefinition
+     *         the order of the rows, see {@link TableQuery}
+     * @param measurement
+     *         the measurement of the request
+     *
+     * @return the page as JSON object
+     */
+    static String createPage(final TableModel model, final int start, final int length, final String searchValue,
+            final String orderDefinition, final TableRequestRecord.Builder measurement) {
+        long begin = System.nanoTime();
+        List<Object> rows = model.getRows();
+        int[] matches = new TableQuery(model.getColumns(), searchValue, orderDefinition).select(rows).stream()
+                .mapToInt(Integer::intValue).toArray();
+        measurement.addSerializationTime(System.nanoTime() - begin);
+        return createPage(model, rows, matches, start, length, measurement);
+    }
+
+    /**
+     * Creates a page of the specified matching rows. The page is a JSON object with the properties
+     * {@code recordsTotal}, {@code recordsFiltered}, and {@code data} (the rows of the page) as expected by
+     * DataTables in server-side mode.
+     *
+     * @param model
+     *         the table
+     * @param rows
+     *         the rows of the table
+     * @param matches
+     *         the indexes of the rows that match the search, in the order of the table
+     * @param start
+     *         the index of the first row of the page (in the ordered and filtered rows)
+     * @param length
+     *         the number of rows of the page, a negative value selects all remaining rows
+     * @param measurement
+     *         the measurement of the request
+     *
+     * @return the page as JSON object
+     */
+    static String createPage(final TableModel model, final List<Object> rows, final int[] matches, final int start,
+            final int length, final TableRequestRecord.Builder measurement) {
+        long begin = System.nanoTime();
+        int from = Math.min(Math.max(0, start), matches.length);
+        int to = length < 0 ? matches.length : Math.min(matches.length, from + length);
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeNumberProperty("recordsTotal", rows.size());
+            generator.writeNumberProperty("recordsFiltered", matches.length);
+            generator.writeName("data");
+            generator.writeStartArray();
+            ColumnarRowStore store = model instanceof ColumnarTableModel
+                    ? ((ColumnarTableModel) model).getRowStore() : null;
+            for (int i = from; i < to; i++) {
+                TableCancellation.checkCancelled();
+                if (store == null) {
+                    generator.writePOJO(rows.get(matches[i]));
+                }
+                else {
+                    store.writeRow(generator, matches[i]); // no intermediate row object
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        measurement.withRowCount(to - from).addSerializationTime(System.nanoTime() - begin);
+        return json.toString();
+    }
+
+    private TablePaging() {
+        // prevents instantiation
+    }
+}
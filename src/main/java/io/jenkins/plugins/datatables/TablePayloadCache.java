@@ -0,0 +1,156 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * A cache for the serialized rows of tables. The cache is bounded: if the maximum number of entries has been reached,
+ * the least recently used entry will be removed. Additionally, the payloads are referenced softly so that they will be
+ * removed if the memory of the controller is low. Together with the payload, the number of rows of the payload is
+ * stored, so that requests that are served from the cache can be measured and paged without parsing the payload.
+ *
+ * <p>
+ * The size of the cache can be configured using the system property {@code
+ * io.jenkins.plugins.datatables.TablePayloadCache.size}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ * @see DefaultAsyncTableContentProvider#getTableCacheKey(String)
+ */
+public final class TablePayloadCache {
+    private static final int SIZE = SystemProperties.getInteger(TablePayloadCache.class.getName() + ".size", 64);
+
+    private static final Map<String, SoftReference<CachedRows>> PAYLOADS = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = -3183429683475064580L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, SoftReference<CachedRows>> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    /**
+     * Returns the cached payload for the specified key.
+     *
+     * @param key
+     *         the key of the table
+     *
+     * @return the cached payload, or an empty optional if the payload is not cached
+     */
+    public static Optional<String> get(final String key) {
+        return getRows(key).map(CachedRows::getPayload);
+    }
+
+    /**
+     * Returns the cached payload and the number of rows for the specified key.
+     *
+     * @param key
+     *         the key of the table
+     *
+     * @return the cached rows, or an empty optional if the payload is not cached
+     */
+    static Optional<CachedRows> getRows(final String key) {
+        synchronized (PAYLOADS) {
+            SoftReference<CachedRows> reference = PAYLOADS.get(key);
+            if (reference == null) {
+                return Optional.empty();
+            }
+            CachedRows rows = reference.get();
+            if (rows == null) {
+                PAYLOADS.remove(key);
+            }
+            return Optional.ofNullable(rows);
+        }
+    }
+
+    /**
+     * Returns whether a payload for the specified key is cached.
+     *
+     * @param key
+     *         the key of the table
+     *
+     * @return {@code true} if the payload is cached, {@code false} otherwise
+     */
+    public static boolean contains(final String key) {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Stores the payload for the specified key. The number of rows of the payload is unknown, so requests that are
+     * served from the cache will report 0 rows. Use {@link #put(String, String, int)} if the number of rows is known.
+     *
+     * @param key
+     *         the key of the table
+     * @param payload
+     *         the payload to cache
+     */
+    public static void put(final String key, final String payload) {
+        put(key, payload, 0);
+    }
+
+    /**
+     * Stores the payload with the specified number of rows for the specified key.
+     *
+     * @param key
+     *         the key of the table
+     * @param payload
+     *         the payload to cache
+     * @param rowCount
+     *         the number of rows of the payload
+     */
+    public static void put(final String key, final String payload, final int rowCount) {
+        synchronized (PAYLOADS) {
+            PAYLOADS.put(key, new SoftReference<>(new CachedRows(payload, rowCount)));
+        }
+    }
+
+    /**
+     * Removes the payload for the specified key.
+     *
+     * @param key
+     *         the key of the table
+     */
+    public static void invalidate(final String key) {
+        synchronized (PAYLOADS) {
+            PAYLOADS.remove(key);
+        }
+    }
+
+    /**
+     * Removes all payloads from the cache.
+     */
+    public static void clear() {
+        synchronized (PAYLOADS) {
+            PAYLOADS.clear();
+        }
+    }
+
+    private TablePayloadCache() {
+        // prevents instantiation
+    }
+
+    /**
+     * The cached payload of a table together with the number of rows of the payload.
+     */
+    static final class CachedRows {
+        private final String payload;
+        private final int rowCount;
+
+        CachedRows(final String payload, final int rowCount) {
+            this.payload = payload;
+            this.rowCount = rowCount;
+        }
+
+        String getPayload() {
+            return payload;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+    }
+}
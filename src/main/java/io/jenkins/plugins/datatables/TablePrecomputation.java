@@ -0,0 +1,126 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+
+/**
+ * Materializes the rows of tables in the background so that the first user who opens a table does not need to wait
+ * until the rows have been created and serialized. The tables are processed by a small pool of low priority threads.
+ * The number of pending tables is bounded: if the queue is full (e.g. if lots of builds finish at the same time), then
+ * additional tables will be skipped and created on demand when requested.
+ *
+ * <p>
+ * The tables are materialized as {@link ACL#SYSTEM2 SYSTEM}, since there is no user who requested them. The cached or
+ * persisted rows will then be served to every user who can see the table. So only tables whose rows do not depend on
+ * the permissions of the current user must be materialized.
+ * </p>
+ *
+ * <p>
+ * The pool can be configured using the system properties {@code
+ * io.jenkins.plugins.datatables.TablePrecomputation.threads} (default: 1) and {@code
+ * io.jenkins.plugins.datatables.TablePrecomputation.queueSize} (default: 32).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ * @see EagerTableMaterialization
+ */
+public final class TablePrecomputation {
+    private static final Logger LOGGER = Logger.getLogger(TablePrecomputation.class.getName());
+
+    private static final int THREADS = SystemProperties.getInteger(
+            TablePrecomputation.class.getName() + ".threads", 1);
+    private static final int QUEUE_SIZE = SystemProperties.getInteger(
+            TablePrecomputation.class.getName() + ".queueSize", 32);
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadFactory factory = new NamingThreadFactory(new DaemonThreadFactory(), "DataTables.precomputation");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                    Thread thread = factory.newThread(runnable);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Schedules the materialization of the specified tables of the given provider. The tables will be materialized
+     * as {@link ACL#SYSTEM2 SYSTEM}, so their rows must not depend on the permissions of the current user.
+     *
+     * @param provider
+     *         the provider of the tables
+     * @param ids
+     *         the IDs of the tables to materialize
+     *
+     * @return {@code true} if all tables have been scheduled, {@code false} if some tables have been skipped since
+     *         the queue is full
+     * @see DefaultAsyncTableContentProvider#materializeTable(String)
+     */
+    public static boolean schedule(final DefaultAsyncTableContentProvider provider, final Collection<String> ids) {
+        boolean isScheduled = true;
+        for (String id : ids) {
+            try {
+                EXECUTOR.execute(() -> materialize(provider, id));
+            }
+            catch (RejectedExecutionException exception) {
+                LOGGER.log(Level.FINE, "Skipping precomputation of table {0} since the queue is full", id);
+                isScheduled = false;
+            }
+        }
+        return isScheduled;
+    }
+
+    private static void materialize(final DefaultAsyncTableContentProvider provider, final String id) {
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            provider.materializeTable(id);
+        }
+        catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Precomputation of table " + id + " failed", exception);
+        }
+    }
+
+    /**
+     * Returns the number of tables that are waiting to be materialized.
+     *
+     * @return the number of pending tables
+     */
+    public static int getPendingCount() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    private TablePrecomputation() {
+        // prevents instantiation
+    }
+
+    /**
+     * Schedules the materialization of all tables that are registered by the actions of a build, as soon as the build
+     * has been finalized.
+     */
+    @Extension
+    public static class BuildListener extends RunListener<Run<?, ?>> {
+        @Override
+        public void onFinalized(final Run<?, ?> run) {
+            for (EagerTableMaterialization registration : run.getActions(EagerTableMaterialization.class)) {
+                schedule(registration.getTableContentProvider(), registration.getEagerTableIds());
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+
+/**
+ * Selects the rows of a table that match a search, in the order of the table in the browser. The order is defined by a
+ * comma separated list of column indexes and directions, e.g. {@code 1:asc,3:desc}. Rows are compared by the sort
+ * values of their cells (see {@link DetailedCell}) in the same way as DataTables does: empty values first, then
+ * numbers, then texts. Rows with equal sort values retain the order of the model.
+ *
+ * @author Ullrich Hafner
+ */
+final class TableQuery {
+    private final TableSearch search;
+    private final List<ColumnOrder> order;
+
+    /**
+     * Creates a new query for the specified columns.
+     *
+     * @param columns
+     *         the columns of the table
+     * @param searchValue
+     *         the search value to filter the rows, an empty value matches all rows
+     * @param orderDefinition
+     *         the order of the rows, a comma separated list of column indexes and directions, e.g.
+     *         {@code 1:asc,3:desc}; an empty value retains the order of the model
+     */
+    TableQuery(final List<TableColumn> columns, final String searchValue, final String orderDefinition) {
+        search = new TableSearch(columns, searchValue);
+        order = parseOrder(columns, StringUtils.defaultString(orderDefinition));
+    }
+
+    private static List<ColumnOrder> parseOrder(final List<TableColumn> columns, final String orderDefinition) {
+        List<ColumnOrder> orders = new ArrayList<>();
+        for (String part : StringUtils.split(orderDefinition, ",")) {
+            String index = StringUtils.substringBefore(part, ":").trim();
+            try {
+                int column = Integer.parseInt(index);
+                if (column >= 0 && column < columns.size()) {
+                    orders.add(new ColumnOrder(columns.get(column).getDataPropertyKey(),
+                            "desc".equalsIgnoreCase(StringUtils.substringAfter(part, ":").trim())));
+                }
+            }
+            catch (NumberFormatException exception) {
+                // ignore invalid order definitions
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Returns whether this query changes the order of the rows.
+     *
+     * @return {@code true} if the rows are ordered by at least one column, {@code false} otherwise
+     */
+    boolean isOrdered() {
+        return !order.isEmpty();
+    }
+
+    /**
+     * Returns whether the specified row matches the search of this query.
+     *
+     * @param row
+     *         the row to check
+     *
+     * @return {@code true} if the row matches, {@code false} otherwise
+     */
+    boolean matches(final JsonNode row) {
+        return search.matches(row);
+    }
+
+    /**
+     * Returns the indexes of the rows that match the search, in the order of this query.
+     *
+     * @param rows
+     *         the rows of the table
+     *
+     * @return the indexes of the matching rows
+     */
+    List<Integer> select(final List<?> rows) {
+        List<Integer> indexes = new ArrayList<>();
+        if (order.isEmpty()) {
+            for (int i = 0; i < rows.size(); i++) {
+                TableCancellation.checkCancelled();
+                if (search.matches(rows.get(i))) {
+                    indexes.add(i);
+                }
+            }
+            return indexes;
+        }
+
+        List<SortKey> keys = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            TableCancellation.checkCancelled();
+            JsonNode node = TableCells.toNode(rows.get(i));
+            if (search.matches(node)) {
+                JsonNode[] values = new JsonNode[order.size()];
+                for (int column = 0; column < values.length; column++) {
+                    values[column] = TableCells.getSortValue(TableCells.getCell(node, order.get(column).propertyKey));
+                }
+                keys.add(new SortKey(i, values));
+            }
+        }
+        keys.sort(createComparator());
+        keys.forEach(key -> indexes.add(key.index));
+        return indexes;
+    }
+
+    private Comparator<SortKey> createComparator() {
+        Comparator<SortKey> comparator = (left, right) -> 0;
+        for (int i = 0; i < order.size(); i++) {
+            int column = i;
+            Comparator<SortKey> byColumn = (left, right)
+                    -> compare(left.values[column], right.values[column]);
+            comparator = comparator.thenComparing(order.get(column).isDescending ? byColumn.reversed() : byColumn);
+        }
+        return comparator.thenComparingInt(key -> key.index);
+    }
+
+    /**
+     * Compares two sort values in the same way as DataTables: empty values first, then numbers, then texts.
+     */
+    private static int compare(final JsonNode left, final JsonNode right) {
+        boolean isLeftEmpty = TableCells.isEmpty(left);
+        boolean isRightEmpty = TableCells.isEmpty(right);
+        if (isLeftEmpty || isRightEmpty) {
+            return Boolean.compare(!isLeftEmpty, !isRightEmpty);
+        }
+        Optional<Double> leftNumber = TableCells.getNumber(left);
+        Optional<Double> rightNumber = TableCells.getNumber(right);
+        if (leftNumber.isPresent() && rightNumber.isPresent()) {
+            return Double.compare(leftNumber.get(), rightNumber.get());
+        }
+        if (leftNumber.isPresent() != rightNumber.isPresent()) {
+            return leftNumber.isPresent() ? -1 : 1;
+        }
+        return TableCells.getSearchText(left).compareTo(TableCells.getSearchText(right));
+    }
+
+    /**
+     * The order of a column.
+     */
+    private static final class ColumnOrder {
+        private final String propertyKey;
+        private final boolean isDescending;
+
+        ColumnOrder(final String propertyKey, final boolean isDescending) {
+            this.propertyKey = propertyKey;
+            this.isDescending = isDescending;
+        }
+    }
+
+    /**
+     * The index of a matching row and the sort values of the ordered columns.
+     */
+    private static final class SortKey {
+        private final int index;
+        private final JsonNode[] values;
+
+        SortKey(final int index, final JsonNode[] values) {
+            this.index = index;
+            this.values = values;
+        }
+    }
+}
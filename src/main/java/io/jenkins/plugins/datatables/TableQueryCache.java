@@ -0,0 +1,197 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.ref.SoftReference;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * Caches the tables that are shown in server-side processing mode (see {@link TablePaging}), so that the browser can
+ * page, order, and search such a table without creating the table model for each request. For each table, the model
+ * and its rows are cached together with the indexes of the rows in the most recently used orders and the indexes of
+ * the matching rows of the most recently used searches. So paging a table requires no query at all, and searching
+ * a table in an order that has been used before requires no sorting.
+ *
+ * <p>
+ * The tables are cached per user (the rows might depend on the permissions of the user), they are referenced softly
+ * and expire after a while so that changes of the underlying data become visible. A table will be removed from the
+ * cache as well if a change of the table is reported (see {@link DefaultAsyncTableContentProvider#fireTableChanged}).
+ * The number of cached tables and the expiration can be configured using the system properties
+ * {@code io.jenkins.plugins.datatables.TableQueryCache.size} (default: 8) and {@code .expiration} (in seconds,
+ * default: 60).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class TableQueryCache {
+    private static final String PREFIX = TableQueryCache.class.getName();
+    private static final int SIZE = SystemProperties.getInteger(PREFIX + ".size", 8);
+    private static final Duration EXPIRATION = Duration.ofSeconds(
+            SystemProperties.getInteger(PREFIX + ".expiration", 60));
+    private static final int ORDERS = 2;
+    private static final int SEARCHES = 4;
+
+    private final Map<String, SoftReference<CachedTable>> tables = createCache(SIZE);
+
+    private static <T> Map<String, T> createCache(final int maximumSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = -6091740213877326516L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, T> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a page of the rows of the specified table that match the search, in the specified order. The table
+     * model will be created only if the table is not cached yet.
+     *
+     * @param id
+     *         the ID of the table
+     * @param user
+     *         the name of the user who requests the page
+     * @param model
+     *         creates the model of the table
+     * @param start
+     *         the index of the first row of the page (in the ordered and filtered rows)
+     * @param length
+     *         the number of rows of the page, a negative value selects all remaining rows
+     * @param searchValue
+     *         the search value to filter the rows
+     * @param orderDefinition
+     *         the order of the rows, see {@link TableQuery}
+     * @param measurement
+     *         the measurement of the request
+     *
+     * @return the page as JSON object, see {@link TablePaging#createPage}
+     */
+    String createPage(final String id, final String user, final Supplier<TableModel> model, final int start,
+            final int length, final String searchValue, final String orderDefinition,
+            final TableRequestRecord.Builder measurement) {
+        CachedTable table = getTable(id, user, model, measurement);
+
+        long begin = System.nanoTime();
+        int[] matches = table.select(StringUtils.defaultString(searchValue),
+                StringUtils.defaultString(orderDefinition));
+        measurement.addSerializationTime(System.nanoTime() - begin);
+
+        return TablePaging.createPage(table.model, table.rows, matches, start, length, measurement);
+    }
+
+    private CachedTable getTable(final String id, final String user, final Supplier<TableModel> model,
+            final TableRequestRecord.Builder measurement) {
+        String key = user + "\n" + id;
+        long now = System.nanoTime();
+        synchronized (tables) {
+            SoftReference<CachedTable> reference = tables.get(key);
+            CachedTable cached = reference == null ? null : reference.get();
+            if (cached != null && now - cached.expiration < 0) {
+                measurement.withCacheHit();
+
+                return cached;
+            }
+            tables.remove(key);
+        }
+
+        CachedTable created = new CachedTable(id, model.get(), now + EXPIRATION.toNanos());
+        if (EXPIRATION.toNanos() > 0) {
+            synchronized (tables) {
+                tables.put(key, new SoftReference<>(created));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Removes the specified table of all users from the cache.
+     *
+     * @param id
+     *         the ID of the table
+     */
+    void invalidate(final String id) {
+        synchronized (tables) {
+            tables.values().removeIf(reference -> {
+                CachedTable table = reference.get();
+                return table == null || table.id.equals(id);
+            });
+        }
+    }
+
+    /**
+     * Returns the number of cached tables.
+     *
+     * @return the number of cached tables
+     */
+    int size() {
+        synchronized (tables) {
+            return tables.size();
+        }
+    }
+
+    /**
+     * A cached table with the indexes of its rows in the recently used orders and searches.
+     */
+    private static final class CachedTable {
+        private final String id;
+        private final TableModel model;
+        private final List<Object> rows;
+        private final long expiration;
+        private final Map<String, int[]> orders = createCache(ORDERS);
+        private final Map<String, int[]> searches = createCache(SEARCHES);
+
+        CachedTable(final String id, final TableModel model, final long expiration) {
+            this.id = id;
+            this.model = model;
+            this.rows = model.getRows();
+            this.expiration = expiration;
+        }
+
+        synchronized int[] select(final String searchValue, final String orderDefinition) {
+            String key = orderDefinition + "\n" + searchValue;
+            int[] matches = searches.get(key);
+            if (matches == null) {
+                matches = filter(getOrder(orderDefinition), new TableSearch(model.getColumns(), searchValue));
+                searches.put(key, matches);
+            }
+            return matches;
+        }
+
+        private int[] getOrder(final String orderDefinition) {
+            int[] order = orders.get(orderDefinition);
+            if (order == null) {
+                order = toArray(new TableQuery(model.getColumns(), StringUtils.EMPTY, orderDefinition).select(rows));
+                orders.put(orderDefinition, order);
+            }
+            return order;
+        }
+
+        private int[] filter(final int[] order, final TableSearch search) {
+            if (search.isEmpty()) {
+                return order;
+            }
+            int[] matches = new int[order.length];
+            int count = 0;
+            for (int index : order) {
+                TableCancellation.checkCancelled();
+                if (search.matches(rows.get(index))) {
+                    matches[count++] = index;
+                }
+            }
+            int[] result = new int[count];
+            System.arraycopy(matches, 0, result, 0, count);
+            return result;
+        }
+
+        private static int[] toArray(final List<Integer> indexes) {
+            return indexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package io.jenkins.plugins.datatables;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.core.Authentication;
+
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jakarta.servlet.http.HttpSession;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Computes the content of tables on a dedicated executor, so that a few concurrent requests for large tables cannot
+ * exhaust the request threads of Jenkins. The executor is disabled by default: then the content is computed in the
+ * calling thread and the limits below do not apply. It can be enabled by setting the number of worker threads using the
+ * system property {@code io.jenkins.plugins.datatables.TableRequestExecutor.threads}. The executor is bounded in
+ * several ways:
+ *
+ * <ul>
+ *     <li>the number of worker threads (virtual threads are used if the JVM supports them),</li>
+ *     <li>the number of requests that wait for a free worker thread,</li>
+ *     <li>the number of concurrent requests of the same requester (see {@link #getRequester(Authentication)}), and</li>
+ *     <li>the time a request waits for the computed result.</li>
+ * </ul>
+ *
+ * <p>
+ * If one of the first three limits is exceeded, then no result is computed: the caller should respond with the
+ * {@link #getBusyResponse() busy response} so that the browser retries the request later. If the timeout is reached,
+ * then the computation is cancelled and a {@link TableRequestTimeoutException} is thrown: the caller should respond
+ * with the {@link #getTimeoutResponse() timeout response} so that the browser does not retry the request. The limits
+ * can be configured using the system properties {@code io.jenkins.plugins.datatables.TableRequestExecutor.threads}
+ * (default: 0, i.e. the executor is disabled), {@code .queueSize} (default: 16), {@code .requestsPerUser} (default: 6,
+ * the number of concurrent connections of a browser), {@code .timeout} (in seconds, default: 60), and
+ * {@code .retryAfter} (in milliseconds, default: 1000).
+ * </p>
+ *
+ * <p>
+ * The computation runs with the authentication of the requesting user. Note that the current Stapler request (and
+ * everything that depends on it, e.g. the locale of the request or URLs that are relative to the request) is not
+ * available in the worker threads. So the executor should be enabled only if the table models of all installed
+ * plugins do not depend on the current request.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableRequestExecutor {
+    private static final Logger LOGGER = Logger.getLogger(TableRequestExecutor.class.getName());
+
+    private static final String PREFIX = TableRequestExecutor.class.getName();
+    private static final int THREADS = SystemProperties.getInteger(PREFIX + ".threads", 0);
+    private static final int QUEUE_SIZE = SystemProperties.getInteger(PREFIX + ".queueSize", 16);
+    private static final int REQUESTS_PER_USER = SystemProperties.getInteger(PREFIX + ".requestsPerUser", 6);
+    private static final int TIMEOUT = SystemProperties.getInteger(PREFIX + ".timeout", 60);
+    private static final int RETRY_AFTER = SystemProperties.getInteger(PREFIX + ".retryAfter", 1000);
+
+    private static final Object GLOBAL_SCOPE = new Object();
+    private static final ThreadLocal<Boolean> IS_WORKER = new ThreadLocal<>();
+    private static final Map<String, Integer> ACTIVE_REQUESTS = new ConcurrentHashMap<>();
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, THREADS);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, QUEUE_SIZE)), createThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a factory for virtual threads if the JVM supports them (Java 21 and newer). Otherwise, a factory for
+     * platform daemon threads is returned.
+     *
+     * @return the thread factory for the worker threads
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object namedBuilder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, "DataTables.request-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(namedBuilder);
+        }
+        catch (ReflectiveOperationException | LinkageError exception) {
+            LOGGER.log(Level.FINE, "Virtual threads are not available, using platform threads", exception);
+
+            return new NamingThreadFactory(new DaemonThreadFactory(), "DataTables.request");
+        }
+    }
+
+    /**
+     * Computes the content of a table using the dedicated executor. The calling thread waits until the content has been
+     * computed or the timeout has been reached. The computation cannot be cancelled by the browser.
+     *
+     * @param computation
+     *         the computation of the table content
+     * @param <T>
+     *         the type of the content
+     *
+     * @return the computed content, or an empty optional if the executor is busy
+     * @throws TableRequestTimeoutException
+     *         if the timeout has been reached
+     */
+    public static <T> Optional<T> execute(final Supplier<T> computation) {
+        return execute(StringUtils.EMPTY, computation);
+    }
+
+    /**
+     * Computes the content of the specified table using the dedicated executor. The calling thread waits until the
+     * content has been computed or the timeout has been reached. The computation is registered in a global scope, so
+     * it can be cancelled only by the timeout or by the computation itself (see {@link TableCancellation}).
+     *
+     * @param id
+     *         the ID of the table
+     * @param computation
+     *         the computation of the table content
+     * @param <T>
+     *         the type of the content
+     *
+     * @return the computed content, or an empty optional if the executor is busy
+     * @throws CancellationException
+     *         if the computation has been cancelled by the browser
+     * @throws TableRequestTimeoutException
+     *         if the timeout has been reached
+     */
+    public static <T> Optional<T> execute(final String id, final Supplier<T> computation) {
+        return execute(GLOBAL_SCOPE, id, computation);
+    }
+
+    /**
+     * Computes the content of the specified table of the given scope using the dedicated executor. The browser can
+     * cancel the computation using the same scope (see {@link TableCancellation#cancel(String, Object, Collection)}).
+     *
+     * @param scope
+     *         the scope of the table, e.g. the provider of the table
+     * @param id
+     *         the ID of the table
+     * @param computation
+     *         the computation of the table content
+     * @param <T>
+     *         the type of the content
+     *
+     * @return the computed content, or an empty optional if the executor is busy
+     */
+    static <T> Optional<T> execute(final Object scope, final String id, final Supplier<T> computation) {
+        return execute(scope, id, computation, Duration.ofSeconds(TIMEOUT));
+    }
+
+    static <T> Optional<T> execute(final Object scope, final String id, final Supplier<T> computation,
+            final Duration timeout) {
+        if (Boolean.TRUE.equals(IS_WORKER.get())) {
+            return Optional.of(computation.get());
+        }
+        Authentication authentication = Jenkins.getAuthentication2();
+        String requester = getRequester(authentication);
+        TableCancellation cancellation = TableCancellation.register(requester, scope, id);
+        try {
+            if (THREADS <= 0) {
+                return Optional.of(compute(authentication, cancellation, computation));
+            }
+            return submit(authentication, requester, cancellation, computation, timeout);
+        }
+        finally {
+            cancellation.unregister();
+        }
+    }
+
+    private static <T> Optional<T> submit(final Authentication authentication, final String requester,
+            final TableCancellation cancellation, final Supplier<T> computation, final Duration timeout) {
+        if (!acquire(requester)) {
+            LOGGER.log(Level.FINE, "Rejecting table request of {0}: too many concurrent requests",
+                    authentication.getName());
+            return Optional.empty();
+        }
+        try {
+            Future<T> result = EXECUTOR.submit(() -> compute(authentication, cancellation, computation));
+            return waitFor(result, cancellation, timeout);
+        }
+        catch (RejectedExecutionException exception) {
+            LOGGER.log(Level.FINE, "Rejecting table request of {0}: the queue is full", authentication.getName());
+            return Optional.empty();
+        }
+        finally {
+            release(requester);
+        }
+    }
+
+    private static <T> Optional<T> waitFor(final Future<T> result, final TableCancellation cancellation,
+            final Duration timeout) {
+        try {
+            return Optional.of(result.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        }
+        catch (TimeoutException exception) {
+            LOGGER.log(Level.FINE, "Cancelling table request after {0}", timeout);
+            cancellation.cancel();
+            result.cancel(true);
+            throw new TableRequestTimeoutException(timeout.toSeconds());
+        }
+        catch (InterruptedException exception) {
+            cancellation.cancel();
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Computation of table content failed", cause);
+        }
+    }
+
+    /**
+     * Runs the specified task in the background using the dedicated executor, without waiting for its completion. The
+     * task is subject to the same limits of worker threads and queued requests as the computations of the browser
+     * requests, but not to the limit per requester or the timeout. Computations of table content that are invoked by
+     * the task run in the same worker thread. The task needs to set the authentication of the users it computes the
+     * content for: it runs as {@link ACL#SYSTEM2 SYSTEM} otherwise. If the executor is disabled, then the task runs in
+     * the calling thread.
+     *
+     * @param task
+     *         the task to run
+     *
+     * @return {@code true} if the task has been started or queued, {@code false} if the executor is busy
+     */
+    static boolean executeInBackground(final Runnable task) {
+        Runnable worker = () -> {
+            TableCancellation cancellation = TableCancellation.register(StringUtils.EMPTY, GLOBAL_SCOPE,
+                    StringUtils.EMPTY);
+            try {
+                compute(ACL.SYSTEM2, cancellation, () -> {
+                    task.run();
+                    return null;
+                });
+            }
+            finally {
+                cancellation.unregister();
+            }
+        };
+        if (THREADS <= 0) {
+            worker.run();
+
+            return true;
+        }
+        try {
+            EXECUTOR.execute(worker);
+
+            return true;
+        }
+        catch (RejectedExecutionException exception) {
+            return false;
+        }
+    }
+
+    private static <T> T compute(final Authentication authentication, final TableCancellation cancellation,
+            final Supplier<T> computation) {
+        IS_WORKER.set(Boolean.TRUE);
+        try (ACLContext ignored = ACL.as2(authentication)) {
+            return cancellation.get(computation);
+        }
+        finally {
+            IS_WORKER.remove();
+        }
+    }
+
+    /**
+     * Returns the key of the requester of the current request. The limit of concurrent requests is applied per
+     * requester. Requests with an HTTP session are distinguished by the session, so that anonymous users do not share
+     * a single limit. Anonymous requests without a session are distinguished by their remote address, all other
+     * requests (e.g. outside of a request thread) by the name of the user.
+     *
+     * @param authentication
+     *         the authentication of the current request
+     *
+     * @return the key of the requester
+     */
+    static String getRequester(final Authentication authentication) {
+        StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request != null) {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                return "session:" + session.getId();
+            }
+            if (ACL.isAnonymous2(authentication)) {
+                return "address:" + request.getRemoteAddr();
+            }
+        }
+        return "user:" + authentication.getName();
+    }
+
+    private static boolean acquire(final String requester) {
+        if (ACTIVE_REQUESTS.merge(requester, 1, Integer::sum) > REQUESTS_PER_USER) {
+            release(requester);
+
+            return false;
+        }
+        return true;
+    }
+
+    private static void release(final String requester) {
+        ACTIVE_REQUESTS.computeIfPresent(requester, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Returns the number of milliseconds a client should wait before retrying a request that has been rejected.
+     *
+     * @return the retry delay in milliseconds
+     */
+    public static int getRetryAfter() {
+        return RETRY_AFTER;
+    }
+
+    /**
+     * Returns the response that indicates that the executor is busy. The response is a JSON object with the properties
+     * {@code busy} and {@code retryAfter} (the number of milliseconds the client should wait before retrying).
+     *
+     * @return the busy response as JSON object
+     */
+    public static String getBusyResponse() {
+        return TableCells.getMapper().createObjectNode()
+                .put("busy", true)
+                .put("retryAfter", RETRY_AFTER)
+                .toString();
+    }
+
+    /**
+     * Returns the response that indicates that the computation has been cancelled since the timeout has been reached.
+     * The response is a JSON object with the properties {@code error} and {@code message}. In contrast to the
+     * {@link #getBusyResponse() busy response}, the client should not retry the request.
+     *
+     * @return the timeout response as JSON object
+     */
+    public static String getTimeoutResponse() {
+        return TableCells.getMapper().createObjectNode()
+                .put("error", "timeout")
+                .put("message", "The table could not be computed within " + TIMEOUT + " seconds")
+                .toString();
+    }
+
+    /**
+     * Returns the number of requests that are waiting for a free worker thread.
+     *
+     * @return the number of queued requests
+     */
+    public static int getQueuedCount() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    private TableRequestExecutor() {
+        // prevents instantiation
+    }
+}
@@ -0,0 +1,155 @@
+package io.jenkins.plugins.datatables;
+
+/**
+ * The measurements of a single request for the rows of a table.
+ *
+ * @author Ullrich Hafner
+ * @see TableMetrics
+ */
+public final class TableRequestRecord {
+    private final String name;
+    private final boolean cacheHit;
+    private final int rowCount;
+    private final long payloadSize;
+    private final long modelTime;
+    private final long serializationTime;
+    private final long totalTime;
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private TableRequestRecord(final String name, final boolean cacheHit, final int rowCount, final long payloadSize,
+            final long modelTime, final long serializationTime, final long totalTime) {
+        this.name = name;
+        this.cacheHit = cacheHit;
+        this.rowCount = rowCount;
+        this.payloadSize = payloadSize;
+        this.modelTime = modelTime;
+        this.serializationTime = serializationTime;
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Returns the name of the table in the metrics.
+     *
+     * @return the name of the table
+     * @see DefaultAsyncTableContentProvider#getTableMetricsName(String)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether the rows have been served from the {@link TablePayloadCache}.
+     *
+     * @return {@code true} if the rows have been served from the cache, {@code false} otherwise
+     */
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    /**
+     * Returns the number of rows that have been serialized. If the rows have been served from the cache, then the
+     * number of rows that has been stored with the cached payload is returned (0 if unknown).
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the size of the payload, i.e. the number of characters of the serialized rows.
+     *
+     * @return the size of the payload
+     */
+    public long getPayloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Returns the time in nanoseconds that has been spent to create the table model.
+     *
+     * @return the time to create the model
+     */
+    public long getModelTime() {
+        return modelTime;
+    }
+
+    /**
+     * Returns the time in nanoseconds that has been spent to create and serialize the rows (or to read the rows from
+     * a snapshot).
+     *
+     * @return the time to serialize the rows
+     */
+    public long getSerializationTime() {
+        return serializationTime;
+    }
+
+    /**
+     * Returns the total time in nanoseconds that has been spent to serve the request.
+     *
+     * @return the total time
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows, %d characters, %d ns%s", name, rowCount, payloadSize, totalTime,
+                cacheHit ? " (cached)" : "");
+    }
+
+    /**
+     * Builder for {@link TableRequestRecord} instances. The builder starts the time measurement when it is created.
+     */
+    static class Builder {
+        private final long start = System.nanoTime();
+
+        private final String name;
+        private boolean cacheHit;
+        private int rowCount;
+        private long modelTime;
+        private long serializationTime;
+
+        Builder(final String name) {
+            this.name = name;
+        }
+
+        Builder withCacheHit() {
+            cacheHit = true;
+
+            return this;
+        }
+
+        Builder withRowCount(final int rows) {
+            rowCount = rows;
+
+            return this;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        Builder addModelTime(final long nanos) {
+            modelTime += nanos;
+
+            return this;
+        }
+
+        Builder addSerializationTime(final long nanos) {
+            serializationTime += nanos;
+
+            return this;
+        }
+
+        TableRequestRecord build(final String payload) {
+            return build(payload.length());
+        }
+
+        TableRequestRecord build(final int payloadSize) {
+            return new TableRequestRecord(name, cacheHit, rowCount, payloadSize,
+                    modelTime, serializationTime, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.jenkins.plugins.datatables;
+
+/**
+ * Thrown if the computation of the content of a table has not been finished within the timeout of the
+ * {@link TableRequestExecutor}. The computation has been cancelled in this case. In contrast to a busy executor, this
+ * is not a temporary condition: retrying the request would most likely run into the same timeout again.
+ *
+ * @author agent
+ */
+public class TableRequestTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = -2754146354962393187L;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param timeout
+     *         the timeout in seconds
+     */
+    public TableRequestTimeoutException(final long timeout) {
+        super("Computation of table content has been cancelled after " + timeout + " seconds");
+    }
+}
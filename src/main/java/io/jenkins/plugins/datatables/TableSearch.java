@@ -0,0 +1,97 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+
+/**
+ * A global search in the rows of a table. The search uses the same semantics as the smart search of DataTables in
+ * client-side mode: the search value is split into words (words in quotes are treated as a single phrase) and a row
+ * matches if every word is part of the display text of at least one column. The search is case-insensitive and ignores
+ * HTML tags.
+ *
+ * @author Ullrich Hafner
+ * @see <a href="https://datatables.net/reference/option/search.smart">DataTables smart search</a>
+ */
+public class TableSearch {
+    private static final Pattern WORDS = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+
+    private final List<String> propertyKeys;
+    private final List<String> words;
+
+    /**
+     * Creates a new search for the specified columns.
+     *
+     * @param columns
+     *         the columns that should be searched
+     * @param searchValue
+     *         the value to search for, an empty value matches all rows
+     */
+    public TableSearch(final List<TableColumn> columns, final String searchValue) {
+        propertyKeys = columns.stream().map(TableColumn::getDataPropertyKey).collect(Collectors.toList());
+        words = split(StringUtils.defaultString(searchValue));
+    }
+
+    private static List<String> split(final String searchValue) {
+        List<String> parts = new ArrayList<>();
+        Matcher matcher = WORDS.matcher(searchValue.toLowerCase(Locale.ENGLISH));
+        while (matcher.find()) {
+            String word = matcher.group(1) == null ? matcher.group(2) : matcher.group(1);
+            if (StringUtils.isNotBlank(word)) {
+                parts.add(word);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Returns whether this search has no search words, i.e. all rows match.
+     *
+     * @return {@code true} if this search matches all rows, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return words.isEmpty();
+    }
+
+    /**
+     * Returns the words of this search.
+     *
+     * @return the words to search for
+     */
+    public List<String> getWords() {
+        return Collections.unmodifiableList(words);
+    }
+
+    /**
+     * Returns whether the specified row matches this search.
+     *
+     * @param row
+     *         the row to check
+     *
+     * @return {@code true} if the row matches, {@code false} otherwise
+     */
+    public boolean matches(final Object row) {
+        if (isEmpty()) {
+            return true;
+        }
+        return matches(TableCells.toNode(row));
+    }
+
+    boolean matches(final JsonNode row) {
+        if (isEmpty()) {
+            return true;
+        }
+        String text = propertyKeys.stream()
+                .map(key -> TableCells.getSearchText(TableCells.getCell(row, key)))
+                .collect(Collectors.joining("\n"));
+        return words.stream().allMatch(text::contains);
+    }
+}
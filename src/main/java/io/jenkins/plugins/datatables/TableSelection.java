@@ -0,0 +1,255 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+
+import tools.jackson.databind.JsonNode;
+
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.datatables.ColumnarRowStore.Column;
+
+/**
+ * The rows of a table that have been selected by a user. In contrast to the selection of the DataTables select
+ * extension, this selection is stored on the server: it is not limited to the rows that have been loaded by the
+ * browser, so it works for tables in server-side processing mode as well, and all rows that match a search can be
+ * selected without loading these rows in the browser (see {@link #selectMatching(TableModel, String, boolean)}).
+ *
+ * <p>
+ * Rows are identified by the value of the {@link TableConfiguration#rowId(String) row ID} property. Each row ID is
+ * mapped to an ordinal number once, the selected rows are stored as a bitmap of these ordinals. Since the ordinals
+ * are assigned in the order of the rows of the model, large selections (e.g., all rows that match a search) require
+ * a single bit per row. The ordinals of rows that are no longer selected are released as soon as the selection is
+ * empty or most of the mapped rows are no longer selected, so the memory of a selection is proportional to the number
+ * of selected rows.
+ * </p>
+ *
+ * <p>
+ * Selections are kept in memory only: they are lost when Jenkins is restarted. The provider of a table keeps the
+ * selections of the most recently used tables and users only, the least recently used selections are discarded. The
+ * number of retained selections can be configured using the system property
+ * {@code io.jenkins.plugins.datatables.TableSelection.size} (default: 64).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ * @see TableConfiguration#serverSelection()
+ * @see DefaultAsyncTableContentProvider#getTableSelection(String)
+ */
+public final class TableSelection {
+    private static final int SIZE = SystemProperties.getInteger(TableSelection.class.getName() + ".size", 64);
+    private static final int MINIMUM_ORDINALS = 1024;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> rowIds = new ArrayList<>();
+    private final BitSet selected = new BitSet();
+
+    /**
+     * Creates a map that stores the selections of a provider. The map retains the most recently used selections only,
+     * its size can be configured using the system property {@code io.jenkins.plugins.datatables.TableSelection.size}
+     * (default: 64). The map is not thread-safe.
+     *
+     * @return the map for the selections
+     */
+    static Map<String, TableSelection> createSelections() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 3486021843579121046L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, TableSelection> eldest) {
+                return size() > SIZE;
+            }
+        };
+    }
+
+    private int getOrdinal(final String rowId) {
+        return ordinals.computeIfAbsent(rowId, this::addRowId);
+    }
+
+    private int addRowId(final String rowId) {
+        rowIds.add(rowId);
+        return rowIds.size() - 1;
+    }
+
+    /**
+     * Returns whether the row with the specified ID is selected.
+     *
+     * @param rowId
+     *         the ID of the row
+     *
+     * @return {@code true} if the row is selected, {@code false} otherwise
+     */
+    public synchronized boolean isSelected(final String rowId) {
+        Integer ordinal = ordinals.get(rowId);
+        return ordinal != null && selected.get(ordinal);
+    }
+
+    /**
+     * Returns the number of selected rows.
+     *
+     * @return the number of selected rows
+     */
+    public synchronized int getCount() {
+        return selected.cardinality();
+    }
+
+    /**
+     * Returns whether no row is selected.
+     *
+     * @return {@code true} if no row is selected, {@code false} otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    /**
+     * Returns the IDs of all selected rows.
+     *
+     * @return the IDs of the selected rows
+     */
+    public synchronized List<String> getSelectedRowIds() {
+        List<String> ids = new ArrayList<>(selected.cardinality());
+        selected.stream().forEach(ordinal -> ids.add(rowIds.get(ordinal)));
+        return ids;
+    }
+
+    /**
+     * Returns the IDs of the selected rows of the specified rows.
+     *
+     * @param ids
+     *         the IDs of the rows to check, e.g. the rows of the visible page
+     *
+     * @return the IDs of the selected rows, in the order of the specified rows
+     */
+    synchronized List<String> getSelectedRowIds(final Collection<String> ids) {
+        List<String> selectedIds = new ArrayList<>();
+        for (String id : ids) {
+            if (isSelected(id)) {
+                selectedIds.add(id);
+            }
+        }
+        return selectedIds;
+    }
+
+    /**
+     * Selects or deselects the rows with the specified IDs.
+     *
+     * @param ids
+     *         the IDs of the rows
+     * @param isSelected
+     *         determines whether the rows should be selected or deselected
+     */
+    synchronized void select(final Collection<String> ids, final boolean isSelected) {
+        for (String id : ids) {
+            if (StringUtils.isNotEmpty(id)) {
+                selected.set(getOrdinal(id), isSelected);
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Selects or deselects all rows of the specified table that match the search. Rows without a row ID are ignored.
+     *
+     * @param model
+     *         the table
+     * @param searchValue
+     *         the search value to filter the rows, an empty value matches all rows
+     * @param isSelected
+     *         determines whether the rows should be selected or deselected
+     *
+     * @return the number of matching rows
+     */
+    synchronized int selectMatching(final TableModel model, final String searchValue, final boolean isSelected) {
+        String rowIdKey = model.getTableConfiguration().getRowId();
+        if (StringUtils.isBlank(rowIdKey)) {
+            return 0;
+        }
+        TableSearch search = new TableSearch(model.getColumns(), searchValue);
+        Optional<Column> rowIdColumn = getRowIdColumn(model, rowIdKey);
+        List<Object> rows = model.getRows();
+        int count = 0;
+        for (int index = 0; index < rows.size(); index++) {
+            TableCancellation.checkCancelled();
+            JsonNode id;
+            if (rowIdColumn.isPresent() && search.isEmpty()) {
+                id = rowIdColumn.get().toNode(index); // no need to create the row
+            }
+            else {
+                JsonNode row = TableCells.toNode(rows.get(index));
+                if (!search.matches(row)) {
+                    continue;
+                }
+                id = TableCells.getCell(row, rowIdKey);
+            }
+            if (id.isValueNode() && !id.isNull()) {
+                selected.set(getOrdinal(id.asString()), isSelected);
+                count++;
+            }
+        }
+        compact();
+        return count;
+    }
+
+    private static Optional<Column> getRowIdColumn(final TableModel model, final String rowIdKey) {
+        if (model instanceof ColumnarTableModel columnarModel) {
+            return columnarModel.getRowStore().getColumns().stream()
+                    .filter(column -> column.getKey().equals(rowIdKey))
+                    .findFirst();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Releases the ordinals of the rows that are not selected if these are the majority of the mapped rows. The
+     * selected rows retain their relative order.
+     */
+    private void compact() {
+        int count = selected.cardinality();
+        if (count == 0) {
+            ordinals.clear();
+            rowIds.clear();
+        }
+        else if (rowIds.size() > MINIMUM_ORDINALS && rowIds.size() > 2 * count) {
+            List<String> ids = getSelectedRowIds();
+            ordinals.clear();
+            rowIds.clear();
+            selected.clear();
+            ids.forEach(id -> selected.set(getOrdinal(id)));
+        }
+    }
+
+    /**
+     * Returns the number of rows that are mapped to an ordinal.
+     *
+     * @return the number of mapped rows
+     */
+    synchronized int getMappedCount() {
+        return rowIds.size();
+    }
+
+    /**
+     * Deselects all rows.
+     */
+    synchronized void clear() {
+        selected.clear();
+        compact();
+    }
+
+    /**
+     * Returns the state of this selection as JSON object with the property {@code count} (the number of selected
+     * rows).
+     *
+     * @return the state as JSON object
+     */
+    String toJson() {
+        return TableCells.getMapper().createObjectNode().put("count", getCount()).toString();
+    }
+}
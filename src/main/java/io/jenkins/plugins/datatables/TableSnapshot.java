@@ -0,0 +1,788 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.datatables.ColumnarRowStore.Column;
+import io.jenkins.plugins.datatables.ColumnarRowStore.DetailedColumn;
+import io.jenkins.plugins.datatables.ColumnarRowStore.DoubleColumn;
+import io.jenkins.plugins.datatables.ColumnarRowStore.LongColumn;
+import io.jenkins.plugins.datatables.ColumnarRowStore.TextColumn;
+import io.jenkins.plugins.datatables.ColumnarRowStore.ValueType;
+import io.jenkins.plugins.datatables.TableColumn.Aggregation;
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+
+/**
+ * Persists the rows of a table in a compact, column oriented binary file. Such a snapshot is typically stored in the
+ * directory of a finished build so that later requests can be served without recomputing the table model. Snapshots
+ * are read using a memory mapped file (except on Windows): only the schema, the bit sets of missing values, and the
+ * string dictionaries are loaded into memory, numbers and dictionary codes are read on demand from the mapped file.
+ *
+ * <p>
+ * Besides the rows, a snapshot contains the schema of the table: the ID, the columns, and the parts of the
+ * {@link TableConfiguration} that are evaluated on the server (the row ID and the deferred columns). So a snapshot can
+ * be read as a {@link ColumnarTableModel} (see {@link #readTable(Path)}) that serves the rows, pages, column values,
+ * summaries, and exports of the table without creating the original table model. Note that a snapshot contains all
+ * rows of the table: it is shared by all users, so only tables that do not depend on the permissions of the current
+ * user should be persisted. Additionally, a snapshot contains a fingerprint of the columns and the complete
+ * configuration of the table (see {@link #isSnapshotOf(ColumnarTableModel, TableModel)}), so that a snapshot can be
+ * replaced if the definition of the table has been changed, e.g. by a newer version of a plugin.
+ * </p>
+ *
+ * <p>
+ * The file format contains a header (magic number, version, the schema of the table, number of rows, and the schema
+ * of the columns of the rows) followed by the data of each column: the bit set of missing values and the values as
+ * fixed width numbers or dictionary codes. Snapshots of other versions are rejected, they need to be written again.
+ * The number of snapshots that are kept in memory can be configured using the system property
+ * {@code io.jenkins.plugins.datatables.TableSnapshot.size} (default: 32).
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TableSnapshot {
+    /** Name of the sub folder that contains the snapshots of a build. */
+    public static final String SNAPSHOT_FOLDER = "data-tables";
+
+    private static final int MAGIC = 0x4454_534E; // "DTSN"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".snapshot";
+    private static final int PREFIX_LENGTH = 64;
+
+    private static final byte LONG = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte TEXT = 2;
+    private static final byte JSON = 3;
+    private static final byte DETAILED = 4;
+
+    private static final boolean IS_WINDOWS = File.pathSeparatorChar == ';';
+
+    private static final int SIZE = SystemProperties.getInteger(TableSnapshot.class.getName() + ".size", 32);
+
+    private static final Map<Path, SoftReference<CachedTable>> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 6184457017431539414L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Path, SoftReference<CachedTable>> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    /**
+     * Returns the file of the snapshot for the specified table in the specified directory. The name of the file
+     * consists of a readable prefix of the ID and the SHA-256 hash of the ID, so that different IDs are stored in
+     * different files.
+     *
+     * @param directory
+     *         the directory that contains the snapshots, typically the root directory of a build
+     * @param id
+     *         ID of the table
+     *
+     * @return the snapshot file
+     */
+    public static Path getFile(final Path directory, final String id) {
+        String prefix = StringUtils.left(id.replaceAll("[^A-Za-z0-9._-]", "_"), PREFIX_LENGTH);
+        String hash = HexFormat.of().formatHex(createDigest().digest(id.getBytes(StandardCharsets.UTF_8)));
+
+        return directory.resolve(SNAPSHOT_FOLDER).resolve(prefix + "-" + hash + SUFFIX);
+    }
+
+    /**
+     * Returns whether the specified snapshot has been written for a table with the same ID, columns, and
+     * configuration as the specified table model. The rows of the table model will not be evaluated.
+     *
+     * @param snapshot
+     *         the table that has been read from a snapshot
+     * @param model
+     *         the current model of the table
+     *
+     * @return {@code true} if the snapshot has been written for the same table definition, {@code false} if the
+     *         snapshot needs to be written again
+     */
+    public static boolean isSnapshotOf(final ColumnarTableModel snapshot, final TableModel model) {
+        return snapshot instanceof SnapshotTableModel && ((SnapshotTableModel) snapshot).fingerprint.equals(
+                getFingerprint(model.getId(), model.getColumns(), model.getTableConfiguration()));
+    }
+
+    private static String getFingerprint(final String id, final List<TableColumn> tableColumns,
+            final TableConfiguration configuration) {
+        MessageDigest digest = createDigest();
+        try (DataOutputStream output = new DataOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            writeString(output, id);
+            output.writeInt(tableColumns.size());
+            for (TableColumn column : tableColumns) {
+                writeTableColumn(output, column);
+            }
+            writeString(output, configuration.getConfiguration());
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Can't compute fingerprint of table " + id, exception);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not supported", exception);
+        }
+    }
+
+    /**
+     * Writes the schema and the rows of the specified table model into the specified file. The file will be replaced
+     * atomically.
+     *
+     * @param model
+     *         the table model to persist
+     * @param file
+     *         the file to write
+     *
+     * @throws IOException
+     *         if the file could not be written
+     */
+    public static void write(final TableModel model, final Path file) throws IOException {
+        write(model.getId(), model.getColumns(), model.getTableConfiguration(), toRowStore(model), file);
+    }
+
+    /**
+     * Writes the rows of the specified row store into the specified file. The file will be replaced atomically. The
+     * snapshot does not contain a table schema, so the model of such a snapshot has no columns.
+     *
+     * @param store
+     *         the rows to persist
+     * @param file
+     *         the file to write
+     *
+     * @throws IOException
+     *         if the file could not be written
+     */
+    public static void write(final ColumnarRowStore store, final Path file) throws IOException {
+        write("", List.of(), new TableConfiguration(), store, file);
+    }
+
+    private static void write(final String id, final List<TableColumn> tableColumns,
+            final TableConfiguration configuration, final ColumnarRowStore store, final Path file)
+            throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "table", ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                writeString(output, getFingerprint(id, tableColumns, configuration));
+                writeString(output, id);
+                writeString(output, configuration.getRowId());
+                output.writeBoolean(configuration.isUseDeferredColumns());
+                output.writeInt(tableColumns.size());
+                for (TableColumn column : tableColumns) {
+                    writeTableColumn(output, column);
+                }
+                output.writeInt(store.getRowCount());
+                output.writeInt(store.getColumns().size());
+                for (Column column : store.getColumns()) {
+                    writeString(output, column.getKey());
+                    writeSchema(output, column);
+                }
+                for (Column column : store.getColumns()) {
+                    writeData(output, column, store.getRowCount());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+        synchronized (CACHE) {
+            CACHE.remove(file);
+        }
+    }
+
+    private static void writeTableColumn(final DataOutputStream output, final TableColumn column)
+            throws IOException {
+        writeString(output, column.getDefinition());
+        writeString(output, column.getHeaderLabel());
+        writeString(output, column.getHeaderClass());
+        writeString(output, column.getDataPropertyKey());
+        output.writeInt(column.getAggregations().size());
+        for (Aggregation aggregation : column.getAggregations()) {
+            writeString(output, aggregation.name());
+        }
+    }
+
+    /**
+     * Reads the rows of the snapshot in the specified file. The returned store is backed by a memory mapped buffer of
+     * the file. Stores are cached as long as the file is not modified and enough memory is available.
+     *
+     * @param file
+     *         the file to read
+     *
+     * @return the rows of the snapshot
+     * @throws IOException
+     *         if the file could not be read or is not a valid snapshot
+     */
+    public static ColumnarRowStore read(final Path file) throws IOException {
+        return readTable(file).getRowStore();
+    }
+
+    /**
+     * Reads the snapshot in the specified file as table model. The rows of the returned model are backed by a memory
+     * mapped buffer of the file, the columns and the server side configuration of the model are restored from the
+     * schema of the snapshot. Models are cached as long as the file is not modified and enough memory is available.
+     *
+     * @param file
+     *         the file to read
+     *
+     * @return the table of the snapshot
+     * @throws IOException
+     *         if the file could not be read or is not a valid snapshot
+     */
+    public static ColumnarTableModel readTable(final Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        synchronized (CACHE) {
+            SoftReference<CachedTable> reference = CACHE.get(file);
+            CachedTable cached = reference == null ? null : reference.get();
+            if (cached != null && cached.modified.equals(modified)) {
+                return cached.table;
+            }
+            if (reference != null) {
+                CACHE.remove(file); // cleared or outdated
+            }
+        }
+        SnapshotTableModel table = map(file);
+        synchronized (CACHE) {
+            CACHE.put(file, new SoftReference<>(new CachedTable(table, modified)));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the number of snapshots that are currently cached in memory.
+     *
+     * @return the number of cached snapshots
+     */
+    static int getCacheSize() {
+        synchronized (CACHE) {
+            CACHE.values().removeIf(reference -> reference.get() == null);
+
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Converts the rows of the specified model into a columnar row store. The schema of the store is derived from the
+     * properties of the rows.
+     *
+     * @param model
+     *         the model to convert
+     *
+     * @return the row store
+     */
+    static ColumnarRowStore toRowStore(final TableModel model) {
+        if (model instanceof ColumnarTableModel) {
+            return ((ColumnarTableModel) model).getRowStore();
+        }
+        List<Object> rows = model.getRows();
+        Map<String, PropertyType> schema = new LinkedHashMap<>();
+        for (Object row : rows) {
+            for (Entry<String, JsonNode> property : TableCells.toNode(row).properties()) {
+                schema.computeIfAbsent(property.getKey(), key -> new PropertyType()).update(property.getValue());
+            }
+        }
+        ColumnarRowStore.Builder builder = new ColumnarRowStore.Builder();
+        schema.forEach((key, type) -> type.addColumn(builder, key));
+        for (Object row : rows) {
+            ObjectNode node = TableCells.toNode(row);
+            builder.addRow(schema.entrySet().stream()
+                    .map(property -> property.getValue().toValue(node.path(property.getKey())))
+                    .toArray());
+        }
+        return builder.build();
+    }
+
+    private static void writeSchema(final DataOutputStream output, final Column column) throws IOException {
+        output.writeByte(getKind(column));
+        if (column instanceof DetailedColumn) {
+            output.writeByte(getKind(((DetailedColumn) column).getSort()));
+        }
+    }
+
+    private static byte getKind(final Column column) {
+        if (column instanceof LongColumn) {
+            return LONG;
+        }
+        if (column instanceof DoubleColumn) {
+            return DOUBLE;
+        }
+        if (column instanceof TextColumn) {
+            return ((TextColumn) column).isJson() ? JSON : TEXT;
+        }
+        if (column instanceof DetailedColumn) {
+            return DETAILED;
+        }
+        throw new IllegalArgumentException("Unsupported column " + column.getClass().getName());
+    }
+
+    private static void writeData(final DataOutputStream output, final Column column, final int rows)
+            throws IOException {
+        long[] nulls = column.getNulls().toLongArray();
+        output.writeInt(nulls.length);
+        for (long word : nulls) {
+            output.writeLong(word);
+        }
+        if (column instanceof LongColumn) {
+            LongColumn longColumn = (LongColumn) column;
+            for (int row = 0; row < rows; row++) {
+                output.writeLong(longColumn.get(row));
+            }
+        }
+        else if (column instanceof DoubleColumn) {
+            DoubleColumn doubleColumn = (DoubleColumn) column;
+            for (int row = 0; row < rows; row++) {
+                output.writeDouble(doubleColumn.get(row));
+            }
+        }
+        else if (column instanceof TextColumn) {
+            TextColumn textColumn = (TextColumn) column;
+            List<String> dictionary = textColumn.getDictionary();
+            output.writeInt(dictionary.size());
+            for (String text : dictionary) {
+                writeString(output, text);
+            }
+            for (int row = 0; row < rows; row++) {
+                output.writeInt(textColumn.getCode(row));
+            }
+        }
+        else if (column instanceof DetailedColumn) {
+            DetailedColumn detailedColumn = (DetailedColumn) column;
+            writeData(output, detailedColumn.getDisplay(), rows);
+            writeData(output, detailedColumn.getSort(), rows);
+        }
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static SnapshotTableModel map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is too large to be mapped");
+            }
+            ByteBuffer buffer = readBuffer(channel);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("File " + file + " is not a table snapshot of version " + VERSION);
+            }
+            String fingerprint = readString(buffer);
+            String id = readString(buffer);
+            TableConfiguration configuration = new TableConfiguration();
+            String rowId = readString(buffer);
+            if (!rowId.isEmpty()) {
+                configuration.rowId(rowId);
+            }
+            if (buffer.get() != 0) {
+                configuration.deferHiddenColumns();
+            }
+            int tableColumnCount = buffer.getInt();
+            List<TableColumn> tableColumns = new ArrayList<>();
+            for (int i = 0; i < tableColumnCount; i++) {
+                tableColumns.add(readTableColumn(buffer));
+            }
+            int rows = buffer.getInt();
+            int columnCount = buffer.getInt();
+            List<String> keys = new ArrayList<>();
+            List<byte[]> kinds = new ArrayList<>();
+            for (int i = 0; i < columnCount; i++) {
+                keys.add(readString(buffer));
+                byte kind = buffer.get();
+                kinds.add(kind == DETAILED ? new byte[] {kind, buffer.get()} : new byte[] {kind});
+            }
+            List<Column> columns = new ArrayList<>();
+            for (int i = 0; i < columnCount; i++) {
+                columns.add(readColumn(buffer, keys.get(i), kinds.get(i), rows));
+            }
+            return new SnapshotTableModel(fingerprint, id, tableColumns, configuration,
+                    ColumnarRowStore.create(columns, rows));
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException exception) {
+            throw new IOException("Snapshot " + file + " is corrupt", exception);
+        }
+    }
+
+    private static TableColumn readTableColumn(final ByteBuffer buffer) {
+        String definition = readString(buffer);
+        String headerLabel = readString(buffer);
+        String headerClass = readString(buffer);
+        String dataPropertyKey = readString(buffer);
+        Set<Aggregation> aggregations = EnumSet.noneOf(Aggregation.class);
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            aggregations.add(Aggregation.valueOf(readString(buffer)));
+        }
+        return new TableColumn(definition, headerLabel, toColumnCss(headerClass), dataPropertyKey, aggregations);
+    }
+
+    private static ColumnCss toColumnCss(final String headerClass) {
+        for (ColumnCss css : ColumnCss.values()) {
+            if (css.toString().equals(headerClass)) {
+                return css;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported header class " + headerClass);
+    }
+
+    /**
+     * Maps the content of the file into memory. On Windows, a mapped file cannot be deleted until the mapping has been
+     * garbage collected, which would prevent the deletion of builds. So on Windows the content will be read into a
+     * heap buffer instead.
+     */
+    private static ByteBuffer readBuffer(final FileChannel channel) throws IOException {
+        if (IS_WINDOWS) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full
+            }
+            return buffer.flip();
+        }
+        return channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    private static Column readColumn(final ByteBuffer buffer, final String key, final byte[] kind, final int rows) {
+        BitSet nulls = readNulls(buffer);
+        switch (kind[0]) {
+            case LONG:
+                return new MappedLongColumn(key, nulls, skip(buffer, rows, Long.BYTES));
+            case DOUBLE:
+                return new MappedDoubleColumn(key, nulls, skip(buffer, rows, Double.BYTES));
+            case TEXT:
+            case JSON:
+                List<String> dictionary = readDictionary(buffer);
+                return new MappedTextColumn(key, nulls, dictionary, skip(buffer, rows, Integer.BYTES),
+                        kind[0] == JSON);
+            case DETAILED:
+                Column display = readColumn(buffer, "display", new byte[] {TEXT}, rows);
+                Column sort = readColumn(buffer, "sort", new byte[] {kind[1]}, rows);
+                return new DetailedColumn(key, nulls, display, sort);
+            default:
+                throw new IllegalArgumentException("Unsupported column type " + kind[0]);
+        }
+    }
+
+    private static BitSet readNulls(final ByteBuffer buffer) {
+        long[] words = new long[buffer.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static List<String> readDictionary(final ByteBuffer buffer) {
+        int size = buffer.getInt();
+        List<String> dictionary = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dictionary.add(readString(buffer));
+        }
+        return dictionary;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a read-only slice of the buffer that contains the fixed width values of a column and advances the
+     * position of the buffer behind these values.
+     */
+    private static ByteBuffer skip(final ByteBuffer buffer, final int rows, final int width) {
+        int length = Math.multiplyExact(rows, width);
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice.asReadOnlyBuffer();
+    }
+
+    private TableSnapshot() {
+        // prevents instantiation
+    }
+
+    /**
+     * A table that has been read from a file with the modification time of the file.
+     */
+    private static class CachedTable {
+        private final SnapshotTableModel table;
+        private final FileTime modified;
+
+        CachedTable(final SnapshotTableModel table, final FileTime modified) {
+            this.table = table;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * A table model that has been restored from a snapshot.
+     */
+    private static class SnapshotTableModel extends ColumnarTableModel {
+        private final String fingerprint;
+        private final String id;
+        private final List<TableColumn> columns;
+        private final TableConfiguration configuration;
+        private final ColumnarRowStore store;
+
+        SnapshotTableModel(final String fingerprint, final String id, final List<TableColumn> columns,
+                final TableConfiguration configuration, final ColumnarRowStore store) {
+            this.fingerprint = fingerprint;
+            this.id = id;
+            this.columns = columns;
+            this.configuration = configuration;
+            this.store = store;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return columns;
+        }
+
+        @Override
+        public ColumnarRowStore getRowStore() {
+            return store;
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return configuration;
+        }
+    }
+
+    /**
+     * The type of the values of a row property. The type is derived from all values of the property: if the values
+     * are not of the same type, then the values will be stored as JSON texts.
+     */
+    private static class PropertyType {
+        @CheckForNull
+        private ValueType type;
+        @CheckForNull
+        private ValueType sortType;
+        private boolean isDetailed;
+        private boolean isJson;
+
+        void update(final JsonNode value) {
+            if (isJson || TableCells.isEmpty(value)) {
+                return;
+            }
+            if (isDetailedCell(value)) {
+                if (type != null) {
+                    isJson = true;
+                    return;
+                }
+                isDetailed = true;
+                JsonNode sort = value.get("sort");
+                if (!TableCells.isEmpty(sort)) {
+                    sortType = merge(sortType, getType(sort));
+                }
+            }
+            else if (isDetailed) {
+                isJson = true;
+            }
+            else {
+                type = merge(type, getType(value));
+            }
+        }
+
+        private boolean isDetailedCell(final JsonNode value) {
+            return TableCells.isDetailed(value) && value.size() == 2 && value.get("display").isString();
+        }
+
+        @CheckForNull
+        private ValueType merge(@CheckForNull final ValueType current, @CheckForNull final ValueType next) {
+            if (next == null) {
+                isJson = true; // objects, arrays, or booleans are stored as JSON
+                return current;
+            }
+            if (current == null || current == next) {
+                return next;
+            }
+            if (current == ValueType.TEXT || next == ValueType.TEXT) {
+                isJson = true;
+                return current;
+            }
+            return ValueType.DOUBLE;
+        }
+
+        @CheckForNull
+        private ValueType getType(final JsonNode value) {
+            if (value.isIntegralNumber()) {
+                return ValueType.LONG;
+            }
+            if (value.isNumber()) {
+                return ValueType.DOUBLE;
+            }
+            if (value.isString()) {
+                return ValueType.TEXT;
+            }
+            return null;
+        }
+
+        void addColumn(final ColumnarRowStore.Builder builder, final String key) {
+            if (isJson) {
+                builder.withJsonColumn(key);
+            }
+            else if (isDetailed) {
+                builder.withDetailedColumn(key, sortType == null ? ValueType.TEXT : sortType);
+            }
+            else if (type == ValueType.LONG) {
+                builder.withLongColumn(key);
+            }
+            else if (type == ValueType.DOUBLE) {
+                builder.withDoubleColumn(key);
+            }
+            else {
+                builder.withTextColumn(key);
+            }
+        }
+
+        @CheckForNull
+        Object toValue(final JsonNode value) {
+            if (TableCells.isEmpty(value)) {
+                return null;
+            }
+            if (isJson) {
+                return value.toString();
+            }
+            if (isDetailed) {
+                return new DetailedCell<>(value.get("display").stringValue(), toValue(value.get("sort"), sortType));
+            }
+            return toValue(value, type);
+        }
+
+        @CheckForNull
+        private Object toValue(final JsonNode value, @CheckForNull final ValueType valueType) {
+            if (TableCells.isEmpty(value)) {
+                return null;
+            }
+            if (valueType == ValueType.LONG) {
+                return value.longValue();
+            }
+            if (valueType == ValueType.DOUBLE) {
+                return value.doubleValue();
+            }
+            return value.stringValue();
+        }
+    }
+
+    /**
+     * A column with integral numbers that are read from a mapped buffer.
+     */
+    private static class MappedLongColumn extends LongColumn {
+        private final ByteBuffer values;
+
+        MappedLongColumn(final String key, final BitSet nulls, final ByteBuffer values) {
+            super(key, nulls);
+
+            this.values = values;
+        }
+
+        @Override
+        long get(final int row) {
+            return values.getLong(row * Long.BYTES);
+        }
+    }
+
+    /**
+     * A column with floating point numbers that are read from a mapped buffer.
+     */
+    private static class MappedDoubleColumn extends DoubleColumn {
+        private final ByteBuffer values;
+
+        MappedDoubleColumn(final String key, final BitSet nulls, final ByteBuffer values) {
+            super(key, nulls);
+
+            this.values = values;
+        }
+
+        @Override
+        double get(final int row) {
+            return values.getDouble(row * Double.BYTES);
+        }
+    }
+
+    /**
+     * A column with dictionary coded texts: the dictionary is loaded into memory, the codes are read from a mapped
+     * buffer.
+     */
+    private static class MappedTextColumn extends TextColumn {
+        private final List<String> dictionary;
+        private final ByteBuffer codes;
+        private final boolean isJson;
+
+        MappedTextColumn(final String key, final BitSet nulls, final List<String> dictionary,
+                final ByteBuffer codes, final boolean isJson) {
+            super(key, nulls);
+
+            this.dictionary = dictionary;
+            this.codes = codes;
+            this.isJson = isJson;
+        }
+
+        @Override
+        int getCode(final int row) {
+            return codes.getInt(row * Integer.BYTES);
+        }
+
+        @Override
+        List<String> getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        boolean isJson() {
+            return isJson;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated measurements of all requests for the rows of a table.
+ *
+ * @author Ullrich Hafner
+ * @see TableMetrics
+ */
+public final class TableStatistics {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder payload = new LongAdder();
+    private final LongAdder modelTime = new LongAdder();
+    private final LongAdder serializationTime = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator maximumTime = new LongAccumulator(Math::max, 0);
+
+    TableStatistics(final String name) {
+        this.name = name;
+    }
+
+    void add(final TableRequestRecord request) {
+        requests.increment();
+        if (request.isCacheHit()) {
+            cacheHits.increment();
+        }
+        rows.add(request.getRowCount());
+        payload.add(request.getPayloadSize());
+        modelTime.add(request.getModelTime());
+        serializationTime.add(request.getSerializationTime());
+        totalTime.add(request.getTotalTime());
+        maximumTime.accumulate(request.getTotalTime());
+    }
+
+    void addAbort() {
+        aborts.increment();
+    }
+
+    /**
+     * Returns the name of the table.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of requests for the rows of the table.
+     *
+     * @return the number of requests
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of requests that have been served from the {@link TablePayloadCache}.
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of requests that have been aborted because the browser was no longer interested in the rows
+     * (see {@link TableCancellation}).
+     *
+     * @return the number of aborted requests
+     */
+    public long getAbortedCount() {
+        return aborts.sum();
+    }
+
+    /**
+     * Returns the ratio of requests that have been served from the {@link TablePayloadCache}.
+     *
+     * @return the cache hit rate in the interval [0, 1]
+     */
+    public double getCacheHitRate() {
+        long count = getRequestCount();
+        return count == 0 ? 0 : (double) getCacheHitCount() / count;
+    }
+
+    /**
+     * Returns the total number of rows that have been serialized.
+     *
+     * @return the number of serialized rows
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * Returns the total size of all payloads (number of characters).
+     *
+     * @return the total size of the payloads
+     */
+    public long getPayloadSize() {
+        return payload.sum();
+    }
+
+    /**
+     * Returns the total time in milliseconds that has been spent to create the table models.
+     *
+     * @return the total time to create the models
+     */
+    public double getModelTime() {
+        return modelTime.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the total time in milliseconds that has been spent to create and serialize the rows.
+     *
+     * @return the total time to serialize the rows
+     */
+    public double getSerializationTime() {
+        return serializationTime.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the total time in milliseconds that has been spent to serve all requests.
+     *
+     * @return the total time
+     */
+    public double getTotalTime() {
+        return totalTime.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the average time in milliseconds that has been spent to serve a request.
+     *
+     * @return the average time
+     */
+    public double getAverageTime() {
+        long count = getRequestCount();
+        return count == 0 ? 0 : getTotalTime() / count;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds that has been spent to serve a request.
+     *
+     * @return the maximum time
+     */
+    public double getMaximumTime() {
+        return maximumTime.get() / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,136 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * The summary of a table: contains the aggregated values of all columns that have aggregations configured. The summary
+ * is computed in a single pass over all rows of the table. If a search is provided, only the rows that match the
+ * search will be aggregated.
+ *
+ * @author Ullrich Hafner
+ * @see TableColumn.ColumnBuilder#withAggregation(TableColumn.Aggregation...)
+ */
+public class TableSummary {
+    private final List<ColumnSummary> columns = new ArrayList<>();
+    private final TableSearch search;
+    private int total;
+    private int filtered;
+
+    /**
+     * Computes the summary of the specified rows.
+     *
+     * @param columns
+     *         the columns of the table
+     * @param rows
+     *         the rows to aggregate
+     * @param searchValue
+     *         the search value to filter the rows, an empty value aggregates all rows
+     *
+     * @return the summary
+     */
+    public static TableSummary of(final List<TableColumn> columns, final List<?> rows, final String searchValue) {
+        TableSummary summary = new TableSummary(columns, searchValue);
+        for (Object row : rows) {
+            summary.add(TableCells.toNode(row));
+        }
+        return summary;
+    }
+
+    TableSummary(final List<TableColumn> tableColumns, final String searchValue) {
+        search = new TableSearch(tableColumns, searchValue);
+        tableColumns.stream()
+                .filter(TableColumn::hasAggregations)
+                .map(ColumnSummary::new)
+                .forEach(columns::add);
+    }
+
+    /**
+     * Adds the specified row to this summary if it matches the search.
+     *
+     * @param row
+     *         the row to add
+     *
+     * @return {@code true} if the row matches the search, {@code false} otherwise
+     */
+    boolean add(final JsonNode row) {
+        total++;
+        if (!search.matches(row)) {
+            return false;
+        }
+        filtered++;
+        for (ColumnSummary column : columns) {
+            column.add(row);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the total number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of rows that match the search.
+     *
+     * @return the number of filtered rows
+     */
+    public int getFiltered() {
+        return filtered;
+    }
+
+    /**
+     * Returns the summaries of all columns that have aggregations configured.
+     *
+     * @return the column summaries
+     */
+    public List<ColumnSummary> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Returns the summary of the column with the specified property key.
+     *
+     * @param propertyKey
+     *         the property key of the column
+     *
+     * @return the summary of the column, or an empty optional if the column has no aggregations
+     */
+    public Optional<ColumnSummary> getColumn(final String propertyKey) {
+        return columns.stream().filter(column -> column.getPropertyKey().equals(propertyKey)).findFirst();
+    }
+
+    /**
+     * Returns this summary as JSON object.
+     *
+     * @return the summary as JSON object
+     */
+    public ObjectNode toJsonNode() {
+        ObjectNode summary = TableCells.getMapper().createObjectNode();
+        summary.put("total", total);
+        summary.put("filtered", filtered);
+        ObjectNode columnsNode = summary.putObject("columns");
+        for (ColumnSummary column : columns) {
+            column.write(columnsNode.putObject(column.getPropertyKey()));
+        }
+        return summary;
+    }
+
+    /**
+     * Returns this summary as JSON string.
+     *
+     * @return the summary as JSON
+     */
+    public String toJson() {
+        return TableCells.getMapper().writeValueAsString(toJsonNode());
+    }
+}
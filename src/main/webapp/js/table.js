@@ -1,13 +1,16 @@
-/* global jQuery3, luxon, tableDataProxy, bootstrap5 */
+/* global jQuery3, luxon, tableDataProxy, bootstrap5, crumb */
 jQuery3(document).ready(function () {
     /**
      * Binds all tables that have the class 'data-table' to a new JQuery DataTables instance.
      */
     function bindTables($) {
         /**
-         * Creates the data table instance for the specified table element.
+         * Creates the data table instance for the specified table element. In server-side mode, the rows of the
+         * visible page are requested from the server whenever the table is drawn.
          */
-        function createDataTable(table) {
+        function createDataTable(table, serverSide) {
+            const tableConfiguration = JSON.parse(table.attr('data-table-configuration'));
+            const deferredColumns = getDeferredColumns(table, tableConfiguration, serverSide);
             const toolbar = $(table).next();
             let toolbarContent;
             let bottom;
@@ -79,11 +82,38 @@ jQuery3(document).ready(function () {
                         orderable: false // There is no point in allowing sort by this column if it's not visible.
                     }
                 ],
-                columns: JSON.parse(table.attr('data-columns-definition'))
+                columns: JSON.parse(table.attr('data-columns-definition')).map(function (column, index) {
+                    if (column.template) {
+                        column.render = createTemplateRenderer(column);
+                    }
+                    if (deferredColumns.includes(index)) {
+                        column.defaultContent = ''; // the values will be loaded on demand
+                    }
+                    return column;
+                })
             };
-            const tableConfiguration = JSON.parse(table.attr('data-table-configuration'));
             // overwrite/merge the default configuration with values from the provided table configuration
             const mergedConfiguration = Object.assign(defaultConfiguration, tableConfiguration);
+            if (serverSide) {
+                Object.assign(mergedConfiguration, {
+                    serverSide: true,
+                    processing: true,
+                    searchDelay: 400, // every search request needs to evaluate all rows on the server
+                    ajax: function (data, callback) {
+                        const order = data.order.map(function (column) {
+                            return column.column + ':' + column.dir;
+                        }).join(',');
+                        requestTableData('getTablePage',
+                            [table.attr('id'), data.start, data.length, data.search.value, order], function (page) {
+                                page.draw = data.draw;
+                                callback(page);
+                            }, undefined, function (message) {
+                                callback({draw: data.draw, data: [], recordsTotal: 0, recordsFiltered: 0});
+                                showTableError(table, message);
+                            });
+                    }
+                });
+            }
             const dataTable = table.DataTable(mergedConfiguration);
             // add the buttons to the top of the table
             if (tableConfiguration.buttons) {
@@ -94,36 +124,1248 @@ jQuery3(document).ready(function () {
                     .prependTo($(dataTable.table().container()).closest('.table-responsive'));
             }
 
+            if (tableConfiguration.serverExport) {
+                addExportButtons(table, dataTable);
+            }
+
+            if (tableConfiguration.serverSelection && tableConfiguration.rowId) {
+                bindServerSelection(table, dataTable);
+            }
+
+            if (deferredColumns.length > 0) {
+                bindDeferredColumns(table, dataTable, deferredColumns);
+            }
+
             return dataTable;
         }
 
         /**
-         * Loads the content for the specified table element via an Ajax call.
+         * Adds buttons to the top of the table that download the rows as CSV or Excel file. The file is created on
+         * the server using the current search and order of the table.
          */
-        function loadTableData(table, dataTable) {
-            if (!table[0].hasAttribute('isLoaded')) {
-                table.attr('isLoaded', 'false');
-                tableDataProxy.getTableRows(table.attr('id'), function (t) {
-                    (function () {
-                        const model = JSON.parse(t.responseObject());
-                        dataTable.rows.add(model).draw();
-                        dataTable.columns.adjust().draw();
-
-                        table.attr('isLoaded', 'true');
-                        table.emptyTable = 'No records found';
-                        table.find('.details-icon-close').each(function () {
-                            $(this).hide();
+        function addExportButtons(table, dataTable) {
+            const url = table.attr('data-export-url');
+            if (!url) {
+                return;
+            }
+            const buttons = $('<div class="btn-group btn-group-sm float-end mb-3 table-export-buttons" '
+                + 'role="group"></div>');
+            [['csv', 'CSV'], ['excel', 'Excel']].forEach(function (format) {
+                $('<button type="button" class="btn btn-outline-secondary"></button>')
+                    .text(format[1])
+                    .on('click', function () {
+                        const order = dataTable.order().map(function (column) {
+                            return column[0] + ':' + column[1];
+                        }).join(',');
+                        window.location.href = url + '?id=' + encodeURIComponent(table.attr('id'))
+                            + '&format=' + format[0]
+                            + '&search=' + encodeURIComponent(dataTable.search())
+                            + '&order=' + encodeURIComponent(order);
+                    })
+                    .appendTo(buttons);
+            });
+            buttons.prependTo($(dataTable.table().container()).closest('.table-responsive'));
+        }
+
+        /**
+         * Returns the indexes of the hidden columns of the specified table whose values are not part of the rows sent
+         * by the server. These values are loaded on demand, see bindDeferredColumns. Tables that are refreshed or
+         * shown in server-side mode always get the values of all columns.
+         */
+        function getDeferredColumns(table, configuration, serverSide) {
+            if (!configuration.deferHiddenColumns || serverSide
+                || configuration.live || configuration.refreshInterval) {
+                return [];
+            }
+            const indexes = [];
+            table.find('thead th').each(function (index) {
+                if ($(this).hasClass('hidden')) {
+                    indexes.push(index);
+                }
+            });
+            return indexes;
+        }
+
+        /**
+         * Loads the values of the deferred columns of the specified table when a column becomes visible or when the
+         * rows are searched. The values of a column are requested only once, they are stored in the data of the rows
+         * (the rows have been added in the order of the server). Whenever the rows are replaced (see
+         * replaceTableRows), the loaded values are lost: then the values of the visible columns (or of all columns if
+         * the rows are searched) are requested again, responses for the replaced rows are ignored.
+         */
+        function bindDeferredColumns(table, dataTable, deferredColumns) {
+            let missingColumns = new Set(deferredColumns);
+            let generation = 0;
+
+            function loadColumns(indexes) {
+                const requestedGeneration = generation;
+                indexes.filter(function (index) {
+                    return missingColumns.delete(index);
+                }).forEach(function (index) {
+                    requestTableData('getTableColumnValues', [table.attr('id'), index], function (response) {
+                        if (requestedGeneration !== generation) {
+                            return; // the rows have been replaced in the meantime
+                        }
+                        if (response.key) {
+                            dataTable.rows().every(function (rowIndex) {
+                                if (rowIndex < response.values.length) {
+                                    this.data()[response.key] = response.values[rowIndex];
+                                }
+                            });
+                            dataTable.rows().invalidate('data').draw(false);
+                        }
+                    });
+                });
+            }
+
+            dataTable.on('column-visibility', function (_event, _settings, column, state) {
+                if (state) {
+                    loadColumns([column]);
+                }
+            });
+            dataTable.on('responsive-resize', function (_event, _dt, columns) {
+                loadColumns(deferredColumns.filter(function (index) {
+                    return columns[index];
+                }));
+            });
+            dataTable.on('draw', function () {
+                if (table.attr('isLoaded') === 'true' && dataTable.search() && missingColumns.size > 0) {
+                    loadColumns(deferredColumns);
+                }
+            });
+            table.on('rows-replaced', function () {
+                generation++;
+                missingColumns = new Set(deferredColumns);
+                loadColumns(deferredColumns.filter(function (index) {
+                    return dataTable.search() || dataTable.column(index).visible();
+                }));
+            });
+        }
+
+        /**
+         * Replaces all rows of the specified table with the specified rows. Listeners that store additional values in
+         * the data of the rows are notified with the event 'rows-replaced'.
+         */
+        function replaceTableRows(table, dataTable, rows) {
+            dataTable.clear();
+            dataTable.rows.add(rows);
+            table.trigger('rows-replaced');
+        }
+
+        /**
+         * Stores the selection of the rows of the specified table on the server, so that the selection is not limited
+         * to the rows that have been loaded by the browser. Adds buttons to the top of the table that select all rows
+         * that match the current search (on the server) and that clear the selection. Whenever a page of the table is
+         * drawn, the selection of the visible rows is restored from the server.
+         */
+        function bindServerSelection(table, dataTable) {
+            const id = table.attr('id');
+            const buttons = $('<div class="btn-group btn-group-sm float-end mb-3 me-2 table-selection-buttons" '
+                + 'role="group"></div>');
+            const count = $('<span class="btn btn-outline-secondary disabled"></span>').appendTo(buttons);
+            let isRestoring = false;
+
+            function showCount(response) {
+                count.text(response.count + ' selected');
+            }
+
+            function restoreSelection() {
+                const rows = dataTable.rows({page: 'current'});
+                tableDataProxy.getSelectedRows(id, JSON.stringify(rows.ids().toArray()), function (t) {
+                    const response = JSON.parse(t.responseObject());
+                    const selected = new Set(response.selected || []);
+                    showCount(response);
+                    isRestoring = true;
+                    dataTable.rows({page: 'current'}).every(function () {
+                        if (selected.has(String(this.id()))) {
+                            this.select();
+                        }
+                        else {
+                            this.deselect();
+                        }
+                    });
+                    isRestoring = false;
+                });
+            }
+
+            dataTable.on('select deselect', function (event, _dt, type, indexes) {
+                if (isRestoring || type !== 'row') {
+                    return;
+                }
+                const ids = JSON.stringify(dataTable.rows(indexes).ids().toArray());
+                const isSelected = event.type === 'select';
+                tableDataProxy.updateTableSelection(id, isSelected ? ids : '[]', isSelected ? '[]' : ids,
+                    function (t) {
+                        showCount(JSON.parse(t.responseObject()));
+                    });
+            });
+            dataTable.on('draw', restoreSelection);
+
+            $('<button type="button" class="btn btn-outline-secondary">Select all</button>')
+                .attr('title', 'Selects all rows that match the current search')
+                .on('click', function () {
+                    requestTableData('selectMatchingRows', [id, dataTable.search(), true], function (response) {
+                        showCount(response);
+                        restoreSelection();
+                    });
+                })
+                .appendTo(buttons);
+            $('<button type="button" class="btn btn-outline-secondary">Clear</button>')
+                .on('click', function () {
+                    tableDataProxy.clearTableSelection(id, function (t) {
+                        showCount(JSON.parse(t.responseObject()));
+                        restoreSelection();
+                    });
+                })
+                .appendTo(buttons);
+            buttons.prependTo($(dataTable.table().container()).closest('.table-responsive'));
+            restoreSelection();
+        }
+
+        /**
+         * Escapes the special HTML characters of the specified text.
+         */
+        function escapeHtml(text) {
+            return text.replace(/[&<>"']/g, function (character) {
+                return '&#' + character.charCodeAt(0) + ';';
+            });
+        }
+
+        /**
+         * Creates a renderer for a column with a render template. The template is parsed only once, the placeholders
+         * are replaced with the (escaped) values of the row when a cell is displayed. For all other operations
+         * (sorting, searching, type detection) the raw value of the cell is used.
+         */
+        function createTemplateRenderer(column) {
+            const isDetailed = typeof column.render === 'object';
+            const parts = column.template.split(/\{\{\s*([^}|\s]+)\s*(?:\|\s*(url)\s*)?}}/);
+            const placeholders = [];
+            for (let i = 1; i < parts.length; i += 3) {
+                placeholders.push({
+                    get: parts[i] === 'this' ? null : $.fn.dataTable.util.get(parts[i]),
+                    isUrl: parts[i + 1] === 'url'
+                });
+            }
+            return function (data, type, row) {
+                let value = data;
+                if (isDetailed && data !== null && typeof data === 'object') {
+                    value = type === 'sort' || type === 'type' ? data.sort : data.display;
+                }
+                if (type !== 'display') {
+                    return value;
+                }
+                let html = parts[0];
+                placeholders.forEach(function (placeholder, index) {
+                    const raw = placeholder.get ? placeholder.get(row) : value;
+                    const text = raw === undefined || raw === null ? '' : String(raw);
+                    html += placeholder.isUrl ? encodeURIComponent(text) : escapeHtml(text);
+                    html += parts[3 * index + 3];
+                });
+                return html;
+            };
+        }
+
+        const pendingRequests = {};
+
+        /**
+         * Tracks the pending requests for the rows of the tables, so that the server can cancel the computations of
+         * these rows when the user leaves the page.
+         */
+        function startTableRequest(id) {
+            pendingRequests[id] = (pendingRequests[id] || 0) + 1;
+        }
+
+        function finishTableRequest(id) {
+            if (--pendingRequests[id] <= 0) {
+                delete pendingRequests[id];
+            }
+        }
+
+        /**
+         * Sends the IDs of the tables with pending requests to the server when the user leaves the page. Requests of
+         * the Stapler proxy are dropped by the browser when the page is unloaded, so the IDs are sent as beacon (or as
+         * keepalive request) to the cancel URL of the provider of the tables.
+         */
+        window.addEventListener('pagehide', function () {
+            const idsByUrl = {};
+            Object.keys(pendingRequests).forEach(function (id) {
+                const url = $(document.getElementById(id)).attr('data-cancel-url');
+                if (url) {
+                    (idsByUrl[url] = idsByUrl[url] || []).push(id);
+                }
+            });
+            Object.keys(idsByUrl).forEach(function (url) {
+                const parameters = new URLSearchParams();
+                parameters.append('ids', JSON.stringify(idsByUrl[url]));
+                if (typeof crumb !== 'undefined' && crumb.fieldName) {
+                    parameters.append(crumb.fieldName, crumb.value);
+                }
+                if (!navigator.sendBeacon || !navigator.sendBeacon(url, parameters)) {
+                    fetch(url, {method: 'POST', body: parameters, keepalive: true, credentials: 'same-origin'})
+                        .catch(function (error) {
+                            console.warn('Can\'t cancel the requests of the tables ' + idsByUrl[url].join(', '), error);
                         });
-                    })();
+                }
+            });
+        });
+
+        /**
+         * Invokes the specified method of the table data proxy and passes the parsed JSON response to the callback.
+         * If the server is busy (i.e., the request has been rejected by the queue or the limit of concurrent requests),
+         * then the request will be retried with an exponential backoff. If the server reports an error (e.g., the
+         * computation has reached the timeout), then the request will not be retried. The optional failure function
+         * will be invoked with the error message in this case, or if the server is still busy after all retries. The
+         * optional marker function will be invoked when the response has been received and when it has been parsed.
+         * The first parameter of the method needs to be the ID of the table.
+         */
+        function requestTableData(method, parameters, callback, marker, failure) {
+            const maximumRetries = 8;
+            const mark = marker || function () {
+            };
+            const fail = failure || function () {
+            };
+            const id = parameters[0];
+            let retries = 0;
+
+            function send() {
+                tableDataProxy[method].apply(tableDataProxy, parameters.concat([function (t) {
+                    mark('response');
+                    const response = JSON.parse(t.responseObject());
+                    mark('parsed');
+                    if (response && response.error) {
+                        console.warn('Can\'t invoke ' + method + ': ' + response.message);
+                        finishTableRequest(id);
+                        fail(response.message);
+                    }
+                    else if (response && response.busy === true) {
+                        if (retries >= maximumRetries) {
+                            console.warn('Giving up ' + method + ' after ' + retries + ' retries: server is busy');
+                            finishTableRequest(id);
+                            fail('The server is busy, please reload the page later');
+                            return;
+                        }
+                        const delay = Math.min(30000, response.retryAfter * Math.pow(2, retries));
+                        retries++;
+                        setTimeout(send, delay / 2 + Math.random() * delay / 2);
+                    }
+                    else {
+                        finishTableRequest(id);
+                        callback(response);
+                    }
+                }]));
+            }
+
+            startTableRequest(id);
+            send();
+        }
+
+        const pendingTimings = [];
+        let timingsTimer;
+
+        /**
+         * Creates a function that sets performance marks for the specified table, if telemetry is enabled.
+         */
+        function createTableMarker(table) {
+            const configuration = JSON.parse(table.attr('data-table-configuration'));
+            if (!configuration.telemetry || !window.performance || !performance.mark) {
+                return function () {
+                };
+            }
+            const prefix = 'data-tables:' + table.attr('id') + ':';
+            return function (name) {
+                performance.mark(prefix + name);
+            };
+        }
+
+        /**
+         * Measures the phases of loading the rows of the specified table and queues the timings for the report.
+         */
+        function measureTableTimings(table, rows) {
+            const prefix = 'data-tables:' + table.attr('id') + ':';
+            if (!window.performance || performance.getEntriesByName(prefix + 'start', 'mark').length === 0) {
+                return;
+            }
+            const phases = [
+                ['request', 'start', 'response'],
+                ['parse', 'response', 'parsed'],
+                ['add', 'parsed', 'added'],
+                ['draw', 'added', 'drawn'],
+                ['adjust', 'drawn', 'adjusted'],
+                ['total', 'start', 'adjusted']
+            ];
+            const timings = {id: table.attr('id'), rows: rows};
+            try {
+                phases.forEach(function (phase) {
+                    performance.measure(prefix + phase[0], prefix + phase[1], prefix + phase[2]);
+                    const measures = performance.getEntriesByName(prefix + phase[0], 'measure');
+                    timings[phase[0]] = measures[measures.length - 1].duration;
+                    performance.clearMeasures(prefix + phase[0]);
+                });
+            }
+            catch (error) {
+                console.warn('Can\'t measure timings of table ' + table.attr('id'), error);
+                return;
+            }
+            finally {
+                ['start', 'response', 'parsed', 'added', 'drawn', 'adjusted'].forEach(function (name) {
+                    performance.clearMarks(prefix + name);
                 });
             }
+            pendingTimings.push(timings);
+            clearTimeout(timingsTimer);
+            timingsTimer = setTimeout(reportTableTimings, 2000);
         }
 
-        const allTables = $('table.data-table');
-        allTables.each(function () {
-            const table = $(this);
+        /**
+         * Reports all queued timings to the server using a single request.
+         */
+        function reportTableTimings() {
+            clearTimeout(timingsTimer);
+            if (pendingTimings.length > 0) {
+                tableDataProxy.reportTableTimings(JSON.stringify(pendingTimings.splice(0)), function () {
+                });
+            }
+        }
+
+        window.addEventListener('pagehide', reportTableTimings);
+
+        /**
+         * Formats a numeric value of the table summary.
+         */
+        function formatSummaryValue(value) {
+            if (value === null || isNaN(value)) {
+                return '-';
+            }
+            return Number(value).toLocaleString(undefined, {maximumFractionDigits: 2});
+        }
+
+        /**
+         * Renders the summary of the table in the footer cells of the columns that have aggregations.
+         */
+        function renderTableSummary(table, summary) {
+            const labels = {
+                count: 'Count',
+                sum: 'Total',
+                min: 'Min',
+                max: 'Max',
+                average: 'Average'
+            };
+            table.find('tfoot th[data-summary-key]').each(function () {
+                const cell = $(this);
+                const columnSummary = summary.columns[cell.attr('data-summary-key')];
+                cell.empty();
+                if (!columnSummary) {
+                    return;
+                }
+                Object.keys(columnSummary).forEach(function (aggregation) {
+                    if (aggregation === 'facets') {
+                        const facets = columnSummary.facets;
+                        Object.keys(facets).forEach(function (facet) {
+                            $('<div class="table-summary-facet"/>')
+                                .text((facet || '-') + ': ' + formatSummaryValue(facets[facet]))
+                                .appendTo(cell);
+                        });
+                    }
+                    else {
+                        $('<div class="table-summary-value"/>')
+                            .text(labels[aggregation] + ': ' + formatSummaryValue(columnSummary[aggregation]))
+                            .appendTo(cell);
+                    }
+                });
+            });
+        }
+
+        /**
+         * Loads the summary of the specified table element for the current search value via an Ajax call.
+         */
+        function loadTableSummary(table, dataTable) {
+            if (table.find('tfoot th[data-summary-key]').length === 0) {
+                return;
+            }
+            const search = dataTable.search();
+            requestTableData('getTableSummary', [table.attr('id'), search], function (summary) {
+                if (dataTable.search() === search) {
+                    renderTableSummary(table, summary);
+                }
+            });
+        }
+
+        /**
+         * Reloads the summary of the specified table element whenever the search value changes.
+         */
+        function bindTableSummary(table, dataTable) {
+            if (table.find('tfoot th[data-summary-key]').length === 0) {
+                return;
+            }
+            let lastSearch = dataTable.search();
+            let timer;
+            table.on('search.dt', function () {
+                if (table.attr('isLoaded') !== 'true' || dataTable.search() === lastSearch) {
+                    return;
+                }
+                lastSearch = dataTable.search();
+                clearTimeout(timer);
+                timer = setTimeout(function () {
+                    loadTableSummary(table, dataTable);
+                }, 300);
+            });
+        }
+
+        /**
+         * Applies the changes of a delta response to the rows of the specified table. The changes are applied in
+         * place, so the current page, the order, and the search of the table are retained. The caller needs to draw
+         * the table afterward.
+         */
+        function applyTableDelta(dataTable, configuration, delta) {
+            if (delta.reset) {
+                dataTable.clear();
+                dataTable.rows.add(delta.rows);
+            }
+            else {
+                const getRowId = $.fn.dataTable.util.get(configuration.rowId);
+                delta.removed.forEach(function (id) {
+                    dataTable.row('#' + id).remove();
+                });
+                delta.rows.forEach(function (row) {
+                    const existing = dataTable.row('#' + getRowId(row));
+                    if (existing.any()) {
+                        existing.data(row);
+                    }
+                    else {
+                        dataTable.row.add(row);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Periodically requests the changes of the rows of the specified table since the given cursor. Refreshes are
+         * skipped while the page is hidden.
+         */
+        function refreshTableData(table, dataTable, configuration, cursor) {
+            setTimeout(function () {
+                if (document.hidden) {
+                    refreshTableData(table, dataTable, configuration, cursor);
+                    return;
+                }
+                requestTableData('getTableDelta', [table.attr('id'), cursor], function (delta) {
+                    if (delta.reset || delta.rows.length > 0 || delta.removed.length > 0) {
+                        applyTableDelta(dataTable, configuration, delta);
+                        dataTable.draw(false);
+                        loadTableSummary(table, dataTable);
+                    }
+                    refreshTableData(table, dataTable, configuration, delta.cursor);
+                }, undefined, function () {
+                    refreshTableData(table, dataTable, configuration, cursor);
+                });
+            }, configuration.refreshInterval * 1000);
+        }
+
+        /**
+         * Subscribes to the changes of the rows of the specified table using server-sent events. The received changes
+         * are queued and applied in a single batch per animation frame, so the table is drawn at most once per frame.
+         * If the browser cannot subscribe to the changes (or the server rejects the subscription), then the rows will
+         * be refreshed periodically instead.
+         */
+        function subscribeTableEvents(table, dataTable, configuration, cursor) {
+            const url = table.attr('data-events-url');
+            const polling = Object.assign({}, configuration, {refreshInterval: configuration.refreshInterval || 30});
+            if (!url || !window.EventSource) {
+                refreshTableData(table, dataTable, polling, cursor);
+                return;
+            }
+
+            let latestCursor = cursor;
+            let pendingDeltas = [];
+            let isScheduled = false;
+            const events = new EventSource(url + '?id=' + encodeURIComponent(table.attr('id'))
+                + '&cursor=' + encodeURIComponent(cursor));
+
+            function applyPendingDeltas() {
+                isScheduled = false;
+                pendingDeltas.splice(0).forEach(function (delta) {
+                    applyTableDelta(dataTable, configuration, delta);
+                });
+                dataTable.draw(false);
+                loadTableSummary(table, dataTable);
+            }
+
+            events.addEventListener('delta', function (event) {
+                const delta = JSON.parse(event.data);
+                latestCursor = delta.cursor;
+                if (delta.reset) {
+                    pendingDeltas = []; // all queued changes will be replaced anyway
+                }
+                pendingDeltas.push(delta);
+                if (!isScheduled) {
+                    isScheduled = true;
+                    requestAnimationFrame(applyPendingDeltas);
+                }
+            });
+            events.onerror = function () {
+                if (events.readyState === EventSource.CLOSED) {
+                    refreshTableData(table, dataTable, polling, latestCursor);
+                }
+            };
+            window.addEventListener('pagehide', function () {
+                events.close();
+            });
+        }
+
+        /**
+         * Shows the specified error message in the empty table instead of the rows.
+         */
+        function showTableError(table, message) {
+            table.find('td.dt-empty').text(message);
+        }
+
+        /**
+         * Shows the initially loaded rows of the specified table.
+         */
+        function showTableRows(table, dataTable, rows, mark) {
+            replaceTableRows(table, dataTable, rows);
+            mark('added');
+            dataTable.draw();
+            mark('drawn');
+            dataTable.columns.adjust().draw();
+            mark('adjusted');
+            measureTableTimings(table, rows.length);
+
+            table.attr('isLoaded', 'true');
+            table.emptyTable = 'No records found';
+            table.find('.details-icon-close').each(function () {
+                $(this).hide();
+            });
+            loadTableSummary(table, dataTable);
+        }
+
+        /**
+         * Replaces the data table instance of the specified table with a new instance in server-side mode. This mode
+         * is used if the server reports that the table is too large to be loaded at once.
+         */
+        function showServerSideTable(table, dataTable) {
+            $(dataTable.table().container()).closest('.table-responsive')
+                .children('.dt-buttons, .table-export-buttons, .table-selection-buttons').remove();
+            dataTable.destroy();
+            table.off();
+            table.attr('isLoaded', 'true');
+            const serverSideTable = bindTable(table, true);
+            loadTableSummary(table, serverSideTable);
+        }
+
+        /**
+         * Creates the persistent cache of table rows in the IndexedDB of the browser. The cache stores the rows of each
+         * table together with the version of the rows. The metadata of the entries is stored separately from the
+         * rows, so that the least recently used tables can be evicted without reading their rows. The cache belongs to
+         * the specified user: if another user (or nobody) has been logged in when the cache has been filled, then all
+         * cached rows are removed before the cache is used.
+         */
+        function createTableCache(user) {
+            const maximumSize = 50 * 1024 * 1024; // estimated size in bytes
+            let database;
+
+            function clearForUser(db) {
+                return new Promise(function (resolve, reject) {
+                    const transaction = db.transaction(['meta', 'entries', 'rows'], 'readwrite');
+                    const meta = transaction.objectStore('meta');
+                    meta.get('user').onsuccess = function (event) {
+                        if (event.target.result !== user) {
+                            transaction.objectStore('entries').clear();
+                            transaction.objectStore('rows').clear();
+                            meta.put(user, 'user');
+                        }
+                    };
+                    transaction.oncomplete = function () {
+                        resolve(db);
+                    };
+                    transaction.onerror = transaction.onabort = function () {
+                        reject(transaction.error);
+                    };
+                });
+            }
+
+            function open() {
+                if (!database) {
+                    database = new Promise(function (resolve, reject) {
+                        const request = indexedDB.open('data-tables', 2);
+                        request.onupgradeneeded = function (event) {
+                            if (event.oldVersion < 1) {
+                                request.result.createObjectStore('rows');
+                                request.result.createObjectStore('entries', {keyPath: 'key'})
+                                    .createIndex('lastAccess', 'lastAccess');
+                            }
+                            request.result.createObjectStore('meta');
+                        };
+                        request.onsuccess = function () {
+                            request.result.onversionchange = function () {
+                                request.result.close(); // do not block the removal of the database on logout
+                                database = undefined;
+                            };
+                            resolve(request.result);
+                        };
+                        request.onerror = function () {
+                            reject(request.error);
+                        };
+                    }).then(clearForUser);
+                }
+                return database;
+            }
+
+            function update(callback) {
+                return open().then(function (db) {
+                    return new Promise(function (resolve, reject) {
+                        const transaction = db.transaction(['entries', 'rows'], 'readwrite');
+                        let result;
+                        callback(transaction.objectStore('entries'), transaction.objectStore('rows'),
+                            function (value) {
+                                result = value;
+                            });
+                        transaction.oncomplete = function () {
+                            resolve(result);
+                        };
+                        transaction.onerror = transaction.onabort = function () {
+                            reject(transaction.error);
+                        };
+                    });
+                });
+            }
+
+            function remove(key) {
+                return update(function (entries, rows) {
+                    entries.delete(key);
+                    rows.delete(key);
+                });
+            }
+
+            function evict() {
+                return update(function (entries, rows) {
+                    let size = 0;
+                    entries.index('lastAccess').openCursor(null, 'prev').onsuccess = function (event) {
+                        const cursor = event.target.result;
+                        if (cursor) {
+                            size += cursor.value.size;
+                            if (size > maximumSize) {
+                                rows.delete(cursor.value.key);
+                                cursor.delete();
+                            }
+                            cursor.continue();
+                        }
+                    };
+                });
+            }
+
+            return {
+                get: function (key) {
+                    return update(function (entries, rows, resolve) {
+                        entries.get(key).onsuccess = function (event) {
+                            const entry = event.target.result;
+                            if (entry) {
+                                entry.lastAccess = Date.now();
+                                entries.put(entry);
+                                rows.get(key).onsuccess = function (rowsEvent) {
+                                    if (rowsEvent.target.result) {
+                                        resolve({version: entry.version, rows: rowsEvent.target.result});
+                                    }
+                                };
+                            }
+                        };
+                    });
+                },
+                put: function (key, version, value) {
+                    const size = JSON.stringify(value).length * 2; // UTF-16
+                    if (size > maximumSize) {
+                        return remove(key);
+                    }
+                    return update(function (entries, rows) {
+                        rows.put(value, key);
+                        entries.put({key: key, version: version, size: size, lastAccess: Date.now()});
+                    }).then(evict);
+                },
+                remove: remove
+            };
+        }
+
+        let tableCache;
+
+        /**
+         * Decodes a CBOR data item (RFC 8949) from the specified buffer. Supports all data items that are created by
+         * the server: integers, floating point numbers, strings, arrays, maps, and simple values. The value
+         * undefined is used for properties that are missing in a row.
+         */
+        function decodeCbor(buffer) {
+            const view = new DataView(buffer);
+            const decoder = new TextDecoder('utf-8');
+            let offset = 0;
+
+            function readArgument(info) {
+                let value;
+                if (info < 24) {
+                    return info;
+                }
+                if (info === 24) {
+                    value = view.getUint8(offset);
+                    offset += 1;
+                }
+                else if (info === 25) {
+                    value = view.getUint16(offset);
+                    offset += 2;
+                }
+                else if (info === 26) {
+                    value = view.getUint32(offset);
+                    offset += 4;
+                }
+                else if (info === 27) {
+                    value = view.getUint32(offset) * 4294967296 + view.getUint32(offset + 4);
+                    offset += 8;
+                }
+                else {
+                    throw new Error('Unsupported CBOR argument ' + info + ' at offset ' + offset);
+                }
+                return value;
+            }
+
+            function readFloat16() {
+                const half = view.getUint16(offset);
+                offset += 2;
+                const exponent = (half >> 10) & 0x1f;
+                const fraction = half & 0x3ff;
+                const sign = half & 0x8000 ? -1 : 1;
+                if (exponent === 0) {
+                    return sign * fraction * Math.pow(2, -24);
+                }
+                if (exponent === 31) {
+                    return fraction ? NaN : sign * Infinity;
+                }
+                return sign * (1024 + fraction) * Math.pow(2, exponent - 25);
+            }
+
+            function readItem() {
+                const initial = view.getUint8(offset++);
+                const majorType = initial >> 5;
+                const info = initial & 0x1f;
+                let length;
+                let value;
+                switch (majorType) {
+                    case 0:
+                        return readArgument(info);
+                    case 1:
+                        return -1 - readArgument(info);
+                    case 2:
+                        length = readArgument(info);
+                        value = new Uint8Array(buffer, offset, length);
+                        offset += length;
+                        return value;
+                    case 3:
+                        length = readArgument(info);
+                        value = decoder.decode(new Uint8Array(buffer, offset, length));
+                        offset += length;
+                        return value;
+                    case 4:
+                        length = readArgument(info);
+                        value = new Array(length);
+                        for (let i = 0; i < length; i++) {
+                            value[i] = readItem();
+                        }
+                        return value;
+                    case 5:
+                        length = readArgument(info);
+                        value = {};
+                        for (let i = 0; i < length; i++) {
+                            const key = readItem();
+                            value[key] = readItem();
+                        }
+                        return value;
+                    case 7:
+                        if (info === 20) {
+                            return false;
+                        }
+                        if (info === 21) {
+                            return true;
+                        }
+                        if (info === 22) {
+                            return null;
+                        }
+                        if (info === 23) {
+                            return undefined;
+                        }
+                        if (info === 25) {
+                            return readFloat16();
+                        }
+                        if (info === 26) {
+                            value = view.getFloat32(offset);
+                            offset += 4;
+                            return value;
+                        }
+                        if (info === 27) {
+                            value = view.getFloat64(offset);
+                            offset += 8;
+                            return value;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                throw new Error('Unsupported CBOR data item ' + initial + ' at offset ' + (offset - 1));
+            }
+
+            return readItem();
+        }
+
+        /**
+         * Loads the rows of the specified table in the binary CBOR format and converts the columnar envelope of the
+         * server into the row objects. If the server is busy or if the rows cannot be decoded, then the rows will be
+         * loaded as JSON. If the server reports an error (e.g., the computation has reached the timeout), then the
+         * failure function will be invoked with the error message. The request is aborted when the user leaves the
+         * page.
+         */
+        function requestBinaryTableRows(table, callback, marker, failure) {
             const id = table.attr('id');
-            const dataTable = createDataTable(table);
+            const url = table.attr('data-rows-url') + '?id=' + encodeURIComponent(id);
+            const controller = window.AbortController ? new AbortController() : undefined;
+            const abort = function () {
+                controller.abort();
+            };
+            const finish = function () {
+                finishTableRequest(id);
+                window.removeEventListener('pagehide', abort);
+            };
+            if (controller) {
+                window.addEventListener('pagehide', abort);
+            }
+            startTableRequest(id);
+            const options = {credentials: 'same-origin', signal: controller && controller.signal};
+            fetch(url, options).then(function (response) {
+                if (!response.ok) {
+                    const error = new Error('HTTP status ' + response.status);
+                    error.status = response.status;
+                    throw error;
+                }
+                return response.arrayBuffer();
+            }).then(function (buffer) {
+                marker('response');
+                const envelope = decodeCbor(buffer);
+                const columns = envelope.columns;
+                const rows = envelope.rows.map(function (values) {
+                    const row = {};
+                    for (let i = 0; i < values.length; i++) {
+                        if (values[i] !== undefined) {
+                            row[columns[i]] = values[i];
+                        }
+                    }
+                    return row;
+                });
+                marker('parsed');
+                return rows;
+            }).then(function (rows) {
+                finish();
+                callback(rows);
+            }, function (error) {
+                finish();
+                if (error.name === 'AbortError') {
+                    return;
+                }
+                if (error.status && error.status !== 503) {
+                    console.warn('Can\'t load binary rows of table ' + id, error);
+                    failure('The rows of the table could not be loaded (' + error.message + ')');
+                    return;
+                }
+                console.warn('Can\'t load binary rows of table ' + id + ', falling back to JSON', error);
+                requestTableData('requestTableRows', [id], callback, marker, failure);
+            });
+        }
+
+        /**
+         * Shows the cached rows of the specified table immediately and revalidates these rows afterward using the
+         * version of the rows. The rows are loaded via an Ajax call only if the version has changed or if the rows
+         * are not cached yet. The done callback will be invoked when the rows are up-to-date, the failure callback if
+         * the rows cannot be loaded.
+         */
+        function loadCachedTableData(table, dataTable, done, failure) {
+            const id = table.attr('id');
+            const user = table.attr('data-user') || '';
+            const key = user + '@' + window.location.pathname + '#' + id;
+            tableCache = tableCache || createTableCache(user);
+            let isShown = false;
+            const fail = function (message) {
+                if (isShown) {
+                    done(); // keep showing the cached rows
+                }
+                else {
+                    failure(message);
+                }
+            };
+            const cached = tableCache.get(key).catch(function (error) {
+                console.warn('Can\'t read cached rows of table ' + id, error);
+            });
+            cached.then(function (entry) {
+                if (entry) {
+                    isShown = true;
+                    showTableRows(table, dataTable, entry.rows, function () {
+                    });
+                }
+            });
+            requestTableData('getTableVersion', [id], function (response) {
+                cached.then(function (entry) {
+                    if (entry && response.version && entry.version === response.version) {
+                        done();
+                        return;
+                    }
+                    const mark = createTableMarker(table);
+                    mark('start');
+                    requestTableData('requestTableRows', [id], function (rows) {
+                        if (isShown) {
+                            replaceTableRows(table, dataTable, rows);
+                            dataTable.draw(false);
+                            loadTableSummary(table, dataTable);
+                        }
+                        else {
+                            showTableRows(table, dataTable, rows, mark);
+                        }
+                        done();
+                        const stored = response.version ? tableCache.put(key, response.version, rows)
+                            : tableCache.remove(key);
+                        stored.catch(function (error) {
+                            console.warn('Can\'t cache rows of table ' + id, error);
+                        });
+                    }, mark, fail);
+                });
+            }, undefined, fail);
+        }
+
+        /**
+         * Loads the content for the specified table element via an Ajax call. If the table has a refresh interval,
+         * then the rows will be updated periodically afterward. If the table is live, then the changes of the rows
+         * will be pushed by the server. If the table uses the client cache, then the cached rows will be shown first.
+         * The done callback will be invoked when the rows have been shown.
+         */
+        function loadTableData(table, dataTable, done) {
+            if (table[0].hasAttribute('isLoaded')) {
+                done();
+            }
+            else {
+                table.attr('isLoaded', 'false');
+                const configuration = JSON.parse(table.attr('data-table-configuration'));
+                const mark = createTableMarker(table);
+                const fail = function (message) {
+                    showTableError(table, message);
+                    done();
+                };
+                if (configuration.live || configuration.refreshInterval) {
+                    mark('start');
+                    requestTableData('getTableDelta', [table.attr('id'), ''], function (delta) {
+                        showTableRows(table, dataTable, delta.rows, mark);
+                        done();
+                        if (configuration.live) {
+                            subscribeTableEvents(table, dataTable, configuration, delta.cursor);
+                        }
+                        else {
+                            refreshTableData(table, dataTable, configuration, delta.cursor);
+                        }
+                    }, mark, fail);
+                }
+                else if (configuration.clientCache && window.indexedDB) {
+                    loadCachedTableData(table, dataTable, done, fail);
+                }
+                else if (configuration.binaryRows && table.attr('data-rows-url') && window.fetch) {
+                    mark('start');
+                    requestBinaryTableRows(table, function (rows) {
+                        showTableRows(table, dataTable, rows, mark);
+                        done();
+                    }, mark, fail);
+                }
+                else {
+                    mark('start');
+                    requestTableData('getTableContent', [table.attr('id')], function (content) {
+                        if (content.serverSide) {
+                            showServerSideTable(table, dataTable);
+                        }
+                        else {
+                            showTableRows(table, dataTable, content.rows, mark);
+                        }
+                        done();
+                    }, mark, fail);
+                }
+            }
+        }
+
+        /**
+         * Creates a scheduler for loading the rows of the tables of the page. Tables in or near the viewport are
+         * loaded first, all other tables are deferred until the browser is idle. The number of concurrent loads is
+         * limited, so that a page with many tables does not send all requests at once. Queued loads are cancelled when
+         * the user leaves the page.
+         */
+        function createLoadScheduler(maximumConcurrentLoads) {
+            const nearViewport = 200; // pixels
+            const maximumLoadTime = 60000; // releases the slot of a load that never finishes
+            const queue = [];
+            let active = 0;
+            let isCancelled = false;
+            let isIdleScheduled = false;
+
+            const observer = window.IntersectionObserver ? new IntersectionObserver(function (entries) {
+                entries.forEach(function (entry) {
+                    queue.forEach(function (item) {
+                        if (item.element === entry.target) {
+                            item.priority = entry.isIntersecting ? 0 : 1;
+                        }
+                    });
+                });
+                next();
+            }, {rootMargin: nearViewport + 'px'}) : null;
+
+            function isNearViewport(element) {
+                const bounds = element.getBoundingClientRect();
+                return bounds.top < window.innerHeight + nearViewport && bounds.bottom > -nearViewport;
+            }
+
+            function whenIdle(callback) {
+                if (window.requestIdleCallback) {
+                    requestIdleCallback(callback, {timeout: 5000});
+                }
+                else {
+                    setTimeout(callback, 200);
+                }
+            }
+
+            function start(item) {
+                queue.splice(queue.indexOf(item), 1);
+                if (observer) {
+                    observer.unobserve(item.element);
+                }
+                active++;
+                let isDone = false;
+                const timeout = setTimeout(finish, maximumLoadTime);
+
+                function finish() {
+                    if (!isDone) {
+                        isDone = true;
+                        clearTimeout(timeout);
+                        active--;
+                        next();
+                    }
+                }
+
+                item.load(finish);
+            }
+
+            function next() {
+                while (!isCancelled && active < maximumConcurrentLoads && queue.length > 0) {
+                    const urgent = queue.filter(function (item) {
+                        return item.priority === 0;
+                    });
+                    if (urgent.length === 0) {
+                        deferUntilIdle();
+                        return;
+                    }
+                    start(urgent[0]);
+                }
+            }
+
+            function deferUntilIdle() {
+                if (!isIdleScheduled) {
+                    isIdleScheduled = true;
+                    whenIdle(function () {
+                        isIdleScheduled = false;
+                        if (!isCancelled && active < maximumConcurrentLoads && queue.length > 0) {
+                            start(queue[0]);
+                            next();
+                        }
+                    });
+                }
+            }
+
+            window.addEventListener('pagehide', function () {
+                isCancelled = true;
+            });
+            window.addEventListener('pageshow', function (event) {
+                if (event.persisted) { // restored from the back-forward cache
+                    isCancelled = false;
+                    next();
+                }
+            });
+
+            return {
+                /**
+                 * Schedules the specified load of the rows of a table. The load function gets a callback that needs
+                 * to be invoked when the rows have been loaded. Urgent loads (e.g., of a table that became visible
+                 * due to a user interaction) will be started as soon as possible.
+                 */
+                schedule: function (element, load, isUrgent) {
+                    const item = {element: element, load: load, priority: 1};
+                    if (isUrgent || !observer || isNearViewport(element)) {
+                        item.priority = 0;
+                    }
+                    queue.push(item);
+                    if (observer && !isUrgent) {
+                        observer.observe(element);
+                    }
+                    next();
+                }
+            };
+        }
+
+        /**
+         * Creates a loader for the optional DataTables extensions. If the page uses the core bundle of the table tag,
+         * then the extensions are not part of the page: the bundle of an extension is loaded on demand if the
+         * configuration of a table requires the extension. Otherwise, the extensions have been included as adjuncts.
+         */
+        function createExtensionLoader() {
+            const extensions = {
+                responsive: {property: 'responsive', api: 'Responsive'},
+                buttons: {property: 'buttons', api: 'Buttons'},
+                colreorder: {property: 'colReorder', api: 'ColReorder'},
+                select: {property: 'select', api: 'select'}
+            };
+            const bundle = $('script.data-tables-bundle');
+            const files = bundle.length ? JSON.parse(bundle.attr('data-extensions') || '{}') : {};
+            const baseUrl = bundle.length ? bundle.attr('src').replace(/[^/]*$/, '') : '';
+            const loads = {};
+
+            function loadBundle(name) {
+                if (!loads[name]) {
+                    loads[name] = new Promise(function (resolve, reject) {
+                        if (files[name].css) {
+                            $('<link rel="stylesheet" type="text/css">')
+                                .attr('href', baseUrl + files[name].css)
+                                .appendTo('head');
+                        }
+                        const script = document.createElement('script');
+                        script.src = baseUrl + files[name].js;
+                        script.onload = resolve;
+                        script.onerror = reject;
+                        document.head.appendChild(script);
+                    });
+                }
+                return loads[name];
+            }
+
+            return {
+                /**
+                 * Returns the names of the extension bundles that are required by the specified table but have not
+                 * been loaded yet.
+                 */
+                getMissingExtensions: function (table) {
+                    const configuration = JSON.parse(table.attr('data-table-configuration'));
+                    return Object.keys(extensions).filter(function (name) {
+                        return configuration[extensions[name].property] && !$.fn.dataTable[extensions[name].api]
+                            && files[name] && files[name].js;
+                    });
+                },
+                /**
+                 * Loads the specified extension bundles. Each bundle is loaded only once, even if several tables
+                 * require it.
+                 */
+                load: function (names) {
+                    return Promise.all(names.map(loadBundle));
+                }
+            };
+        }
+
+        /**
+         * Creates the data table instance for the specified table element and binds the event handlers of the table.
+         */
+        function bindTable(table, serverSide) {
+            const dataTable = createDataTable(table, serverSide);
 
             // Add event listener for opening and closing details
             table.on('click', 'div.details-control', function () {
@@ -170,12 +1412,52 @@ jQuery3(document).ready(function () {
                 } );
             });
 
-            if (table.is(":visible")) {
-                loadTableData(table, dataTable);
+            bindTableSummary(table, dataTable);
+
+            return dataTable;
+        }
+
+        const loadScheduler = createLoadScheduler(2);
+        const extensionLoader = createExtensionLoader();
+        if (window.indexedDB) {
+            $(document).on('click', 'a[href$="/logout"]', function () {
+                indexedDB.deleteDatabase('data-tables'); // the cached rows must not be shown to the next user
+            });
+        }
+
+        const allTables = $('table.data-table');
+        allTables.each(function () {
+            const table = $(this);
+            if (table.attr('data-table-bound') || $.fn.dataTable.isDataTable(table)) {
+                return; // the table has already been bound by another copy of this script (bundle and adjuncts)
+            }
+            table.attr('data-table-bound', 'true');
+
+            const initialize = function () {
+                const dataTable = bindTable(table, false);
+
+                const load = function (done) {
+                    loadTableData(table, dataTable, done);
+                };
+                if (table.is(":visible")) {
+                    loadScheduler.schedule(table[0], load, false);
+                }
+                else {
+                    table.on('becameVisible', function () {
+                        loadScheduler.schedule(table[0], load, true);
+                    });
+                }
+            };
+
+            const missingExtensions = extensionLoader.getMissingExtensions(table);
+            if (missingExtensions.length === 0) {
+                initialize();
             }
             else {
-                table.on('becameVisible', function () {
-                    loadTableData(table, dataTable);
+                extensionLoader.load(missingExtensions).then(initialize, function (error) {
+                    console.warn('Can\'t load the extensions ' + missingExtensions.join(', ') + ' of table '
+                        + table.attr('id'), error);
+                    initialize();
                 });
             }
         });
@@ -0,0 +1,95 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link CborRowEncoder}.
+ *
+ * @author Ullrich Hafner
+ */
+class CborRowEncoderTest {
+    private static final String EMPTY_ENVELOPE = "a2" + "67636f6c756d6e73" + "80" + "64726f7773" + "80";
+
+    @Test
+    void shouldEncodeEmptyTable() throws IOException {
+        CborRowEncoder encoder = CborRowEncoder.encode(List.of());
+
+        assertThat(encoder.getRowCount()).isZero();
+        assertThat(toHex(encoder)).isEqualTo(EMPTY_ENVELOPE);
+        assertThat(encoder.getSize()).isEqualTo(EMPTY_ENVELOPE.length() / 2);
+    }
+
+    @Test
+    void shouldStorePropertyNamesOnlyOnce() throws IOException {
+        ObjectNode first = createRow().put("a", 1).put("b", "x");
+        ObjectNode second = createRow().put("b", "y").put("c", -1.5);
+
+        CborRowEncoder encoder = CborRowEncoder.encode(List.of(first, second));
+
+        assertThat(encoder.getRowCount()).isEqualTo(2);
+        assertThat(toHex(encoder)).isEqualTo("a2"
+                + "67636f6c756d6e73" + "83" + "6161" + "6162" + "6163" // columns: [a, b, c]
+                + "64726f7773" + "82" // rows: 2
+                + "82" + "01" + "6178" // [1, "x"]
+                + "83" + "f7" + "6179" + "fabfc00000"); // [undefined, "y", -1.5]
+        assertThat(encoder.getSize()).isEqualTo(toHex(encoder).length() / 2);
+    }
+
+    @Test
+    void shouldEncodeValuesCompactly() throws IOException {
+        ObjectNode row = createRow().put("a", 1000).put("b", -500).put("c", 0.1).put("d", true);
+        row.putObject("e").putNull("x");
+
+        assertThat(toHex(CborRowEncoder.encode(List.of(row)))).endsWith("85"
+                + "1903e8" // 1000
+                + "3901f3" // -500
+                + "fb3fb999999999999a" // 0.1 cannot be represented as float
+                + "f5" // true
+                + "a16178f6"); // {"x": null}
+    }
+
+    @Test
+    void shouldEncodeBeans() throws IOException {
+        CborRowEncoder encoder = CborRowEncoder.encode(List.of(new Row("one", 1)));
+
+        assertThat(toHex(encoder)).endsWith("81" + "82" + "636f6e65" + "01");
+    }
+
+    private ObjectNode createRow() {
+        return TableCells.getMapper().createObjectNode();
+    }
+
+    private String toHex(final CborRowEncoder encoder) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        encoder.writeTo(output);
+        return HexFormat.of().formatHex(output.toByteArray());
+    }
+
+    @SuppressWarnings("unused") // Called by Jackson
+    static class Row {
+        private final String name;
+        private final int value;
+
+        Row(final String name, final int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link ClientTableTimings}.
+ *
+ * @author Ullrich Hafner
+ */
+class ClientTableTimingsTest {
+    @Test
+    void shouldComputePercentilesOfReportedTimings() {
+        ClientTableTimings timings = new ClientTableTimings();
+
+        StringBuilder reports = new StringBuilder("[");
+        for (int i = 1; i <= 10; i++) {
+            if (i > 1) {
+                reports.append(',');
+            }
+            reports.append(String.format("{\"id\":\"issues\",\"rows\":100,\"request\":%d,\"total\":%d}", i, i * 10));
+        }
+        timings.record(TableCells.getMapper().readTree(reports.append(']').toString()), id -> "job/" + id);
+
+        assertThat(timings.getTable("issues")).isEmpty();
+        assertThat(timings.getTable("job/issues")).isPresent().get().satisfies(table -> {
+            assertThat(table.getName()).isEqualTo("job/issues");
+            assertThat(table.getCount()).isEqualTo(10);
+            assertThat(table.getPercentile("request", 50)).isEqualTo(5);
+            assertThat(table.getPercentile("request", 90)).isEqualTo(9);
+            assertThat(table.getPercentile("request", 100)).isEqualTo(10);
+            assertThat(table.getPercentile("total", 99)).isEqualTo(100);
+            assertThat(table.getPercentile("draw", 50)).isZero();
+            assertThat(table.getPercentile("unknown", 50)).isZero();
+        });
+
+        timings.reset();
+        assertThat(timings.getTables()).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreInvalidReports() {
+        ClientTableTimings timings = new ClientTableTimings();
+
+        timings.record(TableCells.getMapper().readTree("{\"id\":\"object\"}"), Function.identity());
+        timings.record(TableCells.getMapper().readTree("[{\"id\":\"<script>\",\"total\":1},"
+                + "{\"id\":1,\"total\":1},"
+                + "{\"id\":\"valid\",\"total\":-1,\"draw\":\"slow\",\"parse\":1.0E10}]"), Function.identity());
+
+        assertThat(timings.getTables()).extracting(ClientTableTimings.TableTiming::getName).containsExactly("valid");
+        assertThat(timings.getTable("valid")).isPresent().get().satisfies(table -> {
+            assertThat(table.getPercentile("total", 50)).isZero();
+            assertThat(table.getPercentile("draw", 50)).isZero();
+            assertThat(table.getPercentile("parse", 50)).isZero();
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.ColumnarRowStore.Builder;
+import io.jenkins.plugins.datatables.ColumnarRowStore.ValueType;
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the classes {@link ColumnarRowStore} and {@link ColumnarTableModel}.
+ *
+ * @author Ullrich Hafner
+ */
+class ColumnarRowStoreTest {
+    private static final String EXPECTED_ROWS = "["
+            + "{name: \"one\", size: 1, ratio: 0.5, age: {display: \"1 day\", sort: 1}},"
+            + "{name: \"two\", size: null, ratio: 1.5, age: null},"
+            + "{name: \"one\", size: 3, ratio: null, age: {display: \"3 days\", sort: 3}}"
+            + "]";
+
+    @Test
+    void shouldWriteRowsAsJson() {
+        ColumnarRowStore store = createStore();
+
+        assertThat(store.getRowCount()).isEqualTo(3);
+        assertThat(store.getPropertyKeys()).containsExactly("name", "size", "ratio", "age");
+        assertThatJson(store.toJson()).isEqualTo(EXPECTED_ROWS);
+    }
+
+    @Test
+    void shouldProvideRowsOnDemand() {
+        ColumnarRowStore store = createStore();
+
+        assertThatJson(store.getRow(1)).isEqualTo("{name: \"two\", size: null, ratio: 1.5, age: null}");
+        assertThatJson(store.asRows()).isEqualTo(EXPECTED_ROWS);
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> store.getRow(3));
+    }
+
+    @Test
+    void shouldStoreTextsInDictionary() {
+        ColumnarRowStore store = createStore();
+
+        ColumnarRowStore.TextColumn names = (ColumnarRowStore.TextColumn) store.getColumns().get(0);
+        assertThat(names.getDictionary()).containsExactly("one", "two");
+        assertThat(names.getCodes()).containsExactly(0, 1, 0);
+    }
+
+    @Test
+    void shouldEnsureValidBuilderState() {
+        Builder builder = new Builder().withTextColumn("name");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.withLongColumn("name"));
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.addRow("one", 2));
+
+        builder.addRow("one");
+        assertThatIllegalStateException().isThrownBy(() -> builder.withLongColumn("size"));
+
+        Builder numbers = new Builder().withLongColumn("size");
+        assertThatIllegalArgumentException().isThrownBy(() -> numbers.addRow("one"));
+        Builder details = new Builder().withDetailedColumn("age", ValueType.LONG);
+        assertThatIllegalArgumentException().isThrownBy(() -> details.addRow(1));
+    }
+
+    @Test
+    void shouldBackTableModel() {
+        ColumnarRowStore store = createStore();
+        ColumnarTableModel model = new ColumnarTableModel() {
+            @Override
+            public ColumnarRowStore getRowStore() {
+                return store;
+            }
+
+            @Override
+            public String getId() {
+                return "columnar";
+            }
+
+            @Override
+            public List<TableColumn> getColumns() {
+                return List.of(new ColumnBuilder().withHeaderLabel("Size").withDataPropertyKey("size")
+                        .withAggregation(TableColumn.Aggregation.SUM).build());
+            }
+        };
+
+        assertThat(model.getRows()).hasSize(3);
+        assertThat(model.getSummary().getColumn("size")).hasValueSatisfying(
+                size -> assertThat(size.getSum()).isEqualTo(4.0));
+        assertThatJson(new TestProvider(model).getTableRows("columnar")).isEqualTo(EXPECTED_ROWS);
+    }
+
+    private ColumnarRowStore createStore() {
+        return new Builder()
+                .withTextColumn("name")
+                .withLongColumn("size")
+                .withDoubleColumn("ratio")
+                .withDetailedColumn("age", ValueType.LONG)
+                .addRow("one", 1, 0.5, new DetailedCell<>("1 day", 1))
+                .addRow("two", null, 1.5, null)
+                .addRow("one", 3L, null, new DetailedCell<>("3 days", 3))
+                .build();
+    }
+
+    private static class TestProvider extends DefaultAsyncTableContentProvider {
+        private final TableModel model;
+
+        TestProvider(final TableModel model) {
+            this.model = model;
+        }
+
+        @Override
+        public TableModel getTableModel(final String id) {
+            return model;
+        }
+    }
+}
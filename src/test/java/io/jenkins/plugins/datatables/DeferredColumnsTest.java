@@ -0,0 +1,148 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link DeferredColumns}.
+ *
+ * @author Ullrich Hafner
+ */
+class DeferredColumnsTest {
+    @Test
+    void shouldDeferHiddenColumnsOnlyIfConfigured() {
+        assertThat(DeferredColumns.getDeferredKeys(new HiddenColumnsModel(new TableConfiguration()))).isEmpty();
+        assertThat(DeferredColumns.getDeferredKeys(new HiddenColumnsModel(
+                new TableConfiguration().deferHiddenColumns()))).containsExactlyInAnyOrder("details", "id");
+    }
+
+    @Test
+    void shouldNeverDeferRowId() {
+        assertThat(DeferredColumns.getDeferredKeys(new HiddenColumnsModel(
+                new TableConfiguration().deferHiddenColumns().rowId("id")))).containsExactly("details");
+    }
+
+    @Test
+    void shouldStripDeferredColumnsFromRows() {
+        TableModel model = new HiddenColumnsModel(new TableConfiguration().deferHiddenColumns().rowId("id"));
+
+        TableModel stripped = DeferredColumns.strip(model);
+
+        assertThat(stripped.getId()).isEqualTo(model.getId());
+        assertThat(stripped.getColumns()).isEqualTo(model.getColumns());
+        assertThat(stripped.getRows()).hasSize(2);
+        assertThatJson(stripped.getRows().get(0)).isEqualTo("{\"id\":\"1\",\"name\":\"one\",\"nested\":{\"a\":1}}");
+        assertThatJson(model.getRows().get(0)).node("details").isEqualTo("first");
+    }
+
+    @Test
+    void shouldStripDeferredColumnsFromRowStore() {
+        TableModel model = new HiddenColumnsModel(new TableConfiguration().deferHiddenColumns().rowId("id"));
+        ColumnarRowStore store = new ColumnarRowStore.Builder()
+                .withTextColumn("id").withTextColumn("name").withTextColumn("details")
+                .addRow("1", "one", "first")
+                .build();
+        ColumnarTableModel columnar = new ColumnarTableModel() {
+            @Override
+            public String getId() {
+                return model.getId();
+            }
+
+            @Override
+            public List<TableColumn> getColumns() {
+                return model.getColumns();
+            }
+
+            @Override
+            public ColumnarRowStore getRowStore() {
+                return store;
+            }
+
+            @Override
+            public TableConfiguration getTableConfiguration() {
+                return model.getTableConfiguration();
+            }
+        };
+
+        TableModel stripped = DeferredColumns.strip(columnar);
+
+        assertThat(stripped).isInstanceOf(ColumnarTableModel.class);
+        assertThat(((ColumnarTableModel) stripped).getRowStore().getPropertyKeys()).containsExactly("id", "name");
+        assertThat(store.getPropertyKeys()).containsExactly("id", "name", "details");
+    }
+
+    @Test
+    void shouldNotWrapModelsWithoutDeferredColumns() {
+        TableModel model = new HiddenColumnsModel(new TableConfiguration());
+
+        assertThat(DeferredColumns.strip(model)).isSameAs(model);
+    }
+
+    @Test
+    void shouldProvideValuesOfColumn() {
+        TableModel model = new HiddenColumnsModel(new TableConfiguration().deferHiddenColumns());
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+
+        assertThatJson(DeferredColumns.getColumnValues(model, 2, measurement))
+                .isEqualTo("{\"key\":\"details\",\"values\":[\"first\",null]}");
+        assertThat(measurement.getRowCount()).isEqualTo(2);
+        assertThatJson(DeferredColumns.getColumnValues(model, 3, measurement))
+                .isEqualTo("{\"key\":\"nested.a\",\"values\":[1,2]}");
+        assertThatJson(DeferredColumns.getColumnValues(model, 4, measurement))
+                .isEqualTo("{\"key\":\"\",\"values\":[]}");
+        assertThatJson(DeferredColumns.getColumnValues(model, -1, measurement))
+                .isEqualTo("{\"key\":\"\",\"values\":[]}");
+    }
+
+    private static class HiddenColumnsModel extends TableModel {
+        private final TableConfiguration configuration;
+
+        HiddenColumnsModel(final TableConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public String getId() {
+            return "hidden";
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(
+                    new ColumnBuilder().withHeaderLabel("ID").withDataPropertyKey("id")
+                            .withHeaderClass(ColumnCss.HIDDEN).build(),
+                    new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build(),
+                    new ColumnBuilder().withHeaderLabel("Details").withDataPropertyKey("details")
+                            .withHeaderClass(ColumnCss.HIDDEN).build(),
+                    new ColumnBuilder().withHeaderLabel("Nested").withDataPropertyKey("nested.a")
+                            .withHeaderClass(ColumnCss.HIDDEN).build());
+        }
+
+        @Override
+        public List<Object> getRows() {
+            ObjectNode first = createRow("1", "one").put("details", "first");
+            first.putObject("nested").put("a", 1);
+            ObjectNode second = createRow("2", "two");
+            second.putObject("nested").put("a", 2);
+            return List.of(first, second);
+        }
+
+        private ObjectNode createRow(final String id, final String name) {
+            return TableCells.getMapper().createObjectNode().put("id", id).put("name", name);
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.jenkins.plugins.datatables;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link MemoizingAsyncTableContentProvider}.
+ *
+ * @author Ullrich Hafner
+ */
+class MemoizingAsyncTableContentProviderTest {
+    @Test
+    void shouldReuseModelPerId() {
+        CountingProvider provider = new CountingProvider(Duration.ofMinutes(1));
+
+        TableModel first = provider.getTableModel("first");
+        assertThat(provider.getTableModel("first")).isSameAs(first);
+        assertThat(provider.count).isEqualTo(1);
+
+        TableModel second = provider.getTableModel("second");
+        assertThat(second).isNotSameAs(first);
+        assertThat(provider.getTableModel("second")).isSameAs(second);
+        assertThat(provider.count).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReuseModelPerUser() {
+        CountingProvider provider = new CountingProvider(Duration.ofMinutes(1));
+
+        TableModel anonymous = provider.getTableModel("id");
+        TableModel system;
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            system = provider.getTableModel("id");
+            assertThat(provider.getTableModel("id")).isSameAs(system);
+        }
+        assertThat(system).isNotSameAs(anonymous);
+        assertThat(provider.getTableModel("id")).isSameAs(anonymous);
+        assertThat(provider.count).isEqualTo(2);
+
+        provider.invalidateTableModel("id");
+        assertThat(provider.getTableModel("id")).isNotSameAs(anonymous);
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            assertThat(provider.getTableModel("id")).isNotSameAs(system);
+        }
+        assertThat(provider.count).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCreateNewModelAfterChange() {
+        CountingProvider provider = new CountingProvider(Duration.ofMinutes(1));
+
+        TableModel model = provider.getTableModel("id");
+        provider.fireTableChanged("id");
+
+        assertThat(provider.getTableModel("id")).isNotSameAs(model);
+        assertThat(provider.count).isEqualTo(2);
+
+        provider.invalidateTableModel("id");
+        provider.getTableModel("id");
+        assertThat(provider.count).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotMemoizeWithoutExpiration() {
+        CountingProvider provider = new CountingProvider(Duration.ZERO);
+
+        assertThat(provider.getTableModel("id")).isNotSameAs(provider.getTableModel("id"));
+        assertThat(provider.count).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCreateNewModelAfterExpiration() throws InterruptedException {
+        CountingProvider provider = new CountingProvider(Duration.ofMillis(1));
+
+        TableModel model = provider.getTableModel("id");
+        Thread.sleep(5);
+
+        assertThat(provider.getTableModel("id")).isNotSameAs(model);
+        assertThat(provider.count).isEqualTo(2);
+    }
+
+    private static class CountingProvider extends MemoizingAsyncTableContentProvider {
+        private final Duration expiration;
+        private int count;
+
+        CountingProvider(final Duration expiration) {
+            this.expiration = expiration;
+        }
+
+        @Override
+        protected TableModel createTableModel(final String id) {
+            count++;
+            return new TableModel() {
+                @Override
+                public String getId() {
+                    return id;
+                }
+
+                @Override
+                public List<TableColumn> getColumns() {
+                    return List.of();
+                }
+
+                @Override
+                public List<Object> getRows() {
+                    return List.of();
+                }
+            };
+        }
+
+        @Override
+        protected Duration getTableModelExpiration() {
+            return expiration;
+        }
+    }
+}
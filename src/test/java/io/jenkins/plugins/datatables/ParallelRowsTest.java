@@ -0,0 +1,60 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.core.JsonGenerator;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link ParallelRows}.
+ *
+ * @author Ullrich Hafner
+ */
+class ParallelRowsTest {
+    private static final int LARGE = 50_000;
+
+    @Test
+    void shouldMapRowsInOrder() {
+        List<Integer> source = IntStream.range(0, LARGE).boxed().collect(Collectors.toList());
+
+        assertThat(ParallelRows.isParallel(LARGE)).isTrue();
+        assertThat(ParallelRows.map(source, value -> "row-" + value))
+                .hasSize(LARGE)
+                .startsWith("row-0", "row-1")
+                .endsWith("row-" + (LARGE - 1))
+                .isEqualTo(source.stream().map(value -> "row-" + value).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldSerializeLargeTablesLikeSequentialPath() {
+        List<Object> rows = IntStream.range(0, LARGE)
+                .mapToObj(value -> TableCells.getMapper().createObjectNode().put("id", value).put("name", "n" + value))
+                .collect(Collectors.toList());
+
+        String parallel = write(rows);
+
+        assertThat(parallel).isEqualTo(TableCells.getMapper().writeValueAsString(rows));
+    }
+
+    @Test
+    void shouldSerializeSmallTablesSequentially() {
+        assertThat(ParallelRows.isParallel(10)).isFalse();
+        assertThat(write(List.of())).isEqualTo("[]");
+        assertThat(write(List.of(TableCells.getMapper().createObjectNode().put("id", 1))))
+                .isEqualTo("[{\"id\":1}]");
+    }
+
+    private String write(final List<?> rows) {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = TableCells.getMapper().createGenerator(json)) {
+            ParallelRows.writeRows(rows, generator);
+        }
+        return json.toString();
+    }
+}
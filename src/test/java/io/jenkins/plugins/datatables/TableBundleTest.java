@@ -0,0 +1,66 @@
+package io.jenkins.plugins.datatables;
+
+import org.junit.jupiter.api.Test;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableBundle}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableBundleTest {
+    private static final String CORE_JS = "core-0123456789abcdef.js";
+    private static final String CORE_CSS = "core-fedcba9876543210.css";
+    private static final String BUTTONS_JS = "buttons-00000000000000ff.js";
+    private static final String MANIFEST = "{"
+            + "\"core\": {\"js\": \"" + CORE_JS + "\", \"css\": \"" + CORE_CSS + "\"},"
+            + "\"buttons\": {\"js\": \"" + BUTTONS_JS + "\", \"css\": \"../buttons.css\"}"
+            + "}";
+
+    @Test
+    void shouldProvideFilesOfManifest() {
+        TableBundle bundle = new TableBundle(MANIFEST);
+
+        assertThat(bundle.isAvailable()).isTrue();
+        assertThat(bundle.getUrlName()).isEqualTo(TableBundle.URL);
+        assertThat(bundle.getFile(TableBundle.CORE, "js")).isEqualTo(CORE_JS);
+        assertThat(bundle.getFile(TableBundle.CORE, "css")).isEqualTo(CORE_CSS);
+        assertThat(bundle.getFile("buttons", "js")).isEqualTo(BUTTONS_JS);
+        assertThat(bundle.getFile("select", "js")).isEmpty();
+
+        assertThatJson(bundle.getExtensionsDefinition()).isEqualTo("{\"buttons\": {\"js\": \"" + BUTTONS_JS + "\"}}");
+    }
+
+    @Test
+    void shouldServeOnlyFilesOfManifest() {
+        TableBundle bundle = new TableBundle(MANIFEST);
+
+        assertThat(bundle.isBundleFile(CORE_JS)).isTrue();
+        assertThat(bundle.isBundleFile(CORE_CSS)).isTrue();
+        assertThat(bundle.isBundleFile(BUTTONS_JS)).isTrue();
+
+        assertThat(bundle.isBundleFile("bundles.json")).isFalse();
+        assertThat(bundle.isBundleFile("../buttons.css")).isFalse();
+        assertThat(bundle.isBundleFile("core-0123456789abcdee.js")).isFalse();
+        assertThat(bundle.isBundleFile("")).isFalse();
+    }
+
+    @Test
+    void shouldRejectFileNamesWithWrongType() {
+        TableBundle bundle = new TableBundle(
+                "{\"core\": {\"js\": \"" + CORE_CSS + "\", \"css\": \"" + CORE_CSS + "\"}}");
+
+        assertThat(bundle.isAvailable()).isFalse();
+        assertThat(bundle.getFile(TableBundle.CORE, "js")).isEmpty();
+    }
+
+    @Test
+    void shouldDisableBundlesWithoutManifest() {
+        assertThat(new TableBundle().isAvailable()).as("bundles are opt-in").isFalse();
+        assertThat(new TableBundle("").isAvailable()).isFalse();
+        assertThat(new TableBundle("{").isAvailable()).isFalse();
+        assertThat(new TableBundle("").getExtensionsDefinition()).isEqualTo("{}");
+    }
+}
@@ -0,0 +1,105 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jenkins.model.Jenkins;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link TableCancellation}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableCancellationTest {
+    @Test
+    void shouldNeverCancelComputationsOutsideOfExecutor() {
+        assertThat(TableCancellation.current().isCancelled()).isFalse();
+        assertThatNoException().isThrownBy(TableCancellation::checkCancelled);
+
+        TableCancellation.current().cancel();
+        assertThat(TableCancellation.current().isCancelled()).isFalse();
+    }
+
+    @Test
+    void shouldCancelComputationsOfSpecifiedTablesScopeAndRequester() {
+        Object scope = new Object();
+        TableCancellation first = TableCancellation.register("user", scope, "first");
+        TableCancellation second = TableCancellation.register("user", scope, "second");
+        TableCancellation other = TableCancellation.register("other", scope, "first");
+        TableCancellation otherScope = TableCancellation.register("user", new Object(), "first");
+        try {
+            assertThat(TableCancellation.cancel("user", scope, Set.of("first"))).isEqualTo(1);
+
+            assertThat(first.isCancelled()).isTrue();
+            assertThat(second.isCancelled()).isFalse();
+            assertThat(other.isCancelled()).isFalse();
+            assertThat(otherScope.isCancelled()).isFalse();
+            assertThatExceptionOfType(CancellationException.class).isThrownBy(first::throwIfCancelled)
+                    .withMessageContaining("first");
+            assertThatExceptionOfType(CancellationException.class).isThrownBy(() -> first.get(() -> "value"));
+        }
+        finally {
+            first.unregister();
+            second.unregister();
+            other.unregister();
+            otherScope.unregister();
+        }
+        assertThat(TableCancellation.cancel("user", scope, Set.of("second"))).isZero();
+    }
+
+    @Test
+    void shouldProvideCancellationOfCurrentComputation() throws Exception {
+        TableCancellation cancellation = TableCancellation.register("user", new Object(), "table");
+        try {
+            assertThat(cancellation.get(TableCancellation::current)).isSameAs(cancellation);
+            assertThat(cancellation.call(TableCancellation::current)).isSameAs(cancellation);
+            assertThat(TableCancellation.current()).isNotSameAs(cancellation);
+        }
+        finally {
+            cancellation.unregister();
+        }
+    }
+
+    @Test
+    void shouldStopComputationInExecutor() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        String requester = TableRequestExecutor.getRequester(Jenkins.getAuthentication2());
+        Object scope = new Object();
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(
+                () -> TableRequestExecutor.execute(scope, "cancelled", () -> {
+                    started.countDown();
+                    for (int i = 0; i < 1000; i++) {
+                        TableCancellation.checkCancelled();
+                        sleep();
+                    }
+                    return "finished";
+                }).orElse("busy"));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(TableCancellation.cancel(requester, new Object(), List.of("cancelled"))).isZero();
+        assertThat(TableCancellation.cancel(requester, scope, List.of("cancelled"))).isEqualTo(1);
+
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+                .withCauseInstanceOf(CancellationException.class);
+        assertThat(TableCancellation.cancel(requester, scope, List.of("cancelled"))).isZero();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(10);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
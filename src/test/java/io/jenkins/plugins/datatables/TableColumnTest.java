@@ -81,6 +81,21 @@ class TableColumnTest {
         assertThatJson(withSimple.getDefinition()).node(RENDER).isAbsent();
     }
 
+    @Test
+    void shouldCreateColumnWithRenderTemplate() {
+        ColumnBuilder builder = new ColumnBuilder().withHeaderLabel(LABEL).withDataPropertyKey(KEY);
+
+        assertThatJson(builder.build().getDefinition()).node("template").isAbsent();
+
+        String template = "<a href=\"{{id|url}}/\">{{this}}</a>";
+        TableColumn column = builder.withRenderTemplate(template).withDetailedCell().build();
+        assertThatJson(column.getDefinition()).node("template").isEqualTo(template);
+        assertThatJson(column.getDefinition()).node(RENDER).node("_").isEqualTo("display");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.withRenderTemplate(" "))
+                .withMessageContaining("template");
+    }
+
     @Test
     void shouldCreateColumnWithOtherProperties() {
         ColumnBuilder builder = new ColumnBuilder();
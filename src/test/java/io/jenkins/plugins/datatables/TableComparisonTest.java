@@ -0,0 +1,147 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+import io.jenkins.plugins.datatables.TableComparison.Partition;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link TableComparison}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableComparisonTest {
+    @AfterEach
+    void clearCache() {
+        TableComparison.clearCache();
+    }
+
+    @Test
+    void shouldPartitionRowsByKey() {
+        TableComparison comparison = TableComparison.compare(
+                createModel("current", "a", "b", "d", "e"),
+                createModel("reference", "b", "c", "a", "f"), "key");
+
+        assertThat(getKeys(comparison, Partition.NEW)).containsExactly("d", "e");
+        assertThat(getKeys(comparison, Partition.OUTSTANDING)).containsExactly("a", "b");
+        assertThat(getKeys(comparison, Partition.FIXED)).containsExactly("c", "f");
+        assertThat(comparison.getRowCount(Partition.NEW)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMatchDuplicateKeysPairwise() {
+        TableComparison comparison = TableComparison.compare(
+                createModel("current", "a", "a", "a"),
+                createModel("reference", "a", "b", "a"), "key");
+
+        assertThat(getKeys(comparison, Partition.NEW)).containsExactly("a");
+        assertThat(getKeys(comparison, Partition.OUTSTANDING)).containsExactly("a", "a");
+        assertThat(getKeys(comparison, Partition.FIXED)).containsExactly("b");
+    }
+
+    @Test
+    void shouldNotMatchRowsWithoutKey() {
+        TableComparison comparison = TableComparison.compare(
+                createModel("current", "a", "", "b"),
+                createModel("reference", "", "a"), "key");
+
+        assertThat(comparison.getRowCount(Partition.NEW)).isEqualTo(2);
+        assertThat(getKeys(comparison, Partition.OUTSTANDING)).containsExactly("a");
+        assertThat(comparison.getRowCount(Partition.FIXED)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUseRowIdOfCurrentModel() {
+        TableComparison comparison = TableComparison.compare(
+                createModel("current", "a", "b"),
+                createModel("reference", "b", "c"));
+
+        assertThat(getKeys(comparison, Partition.NEW)).containsExactly("a");
+        assertThat(getKeys(comparison, Partition.OUTSTANDING)).containsExactly("b");
+        assertThat(getKeys(comparison, Partition.FIXED)).containsExactly("c");
+    }
+
+    @Test
+    void shouldCreateModelsOfPartitions() {
+        TableModel current = createModel("current", "a", "b");
+        TableModel reference = createModel("reference", "b", "c");
+        TableComparison comparison = TableComparison.compare(current, reference, "key");
+
+        TableModel added = comparison.getTableModel(Partition.NEW, "new");
+        assertThat(added.getId()).isEqualTo("new");
+        assertThat(added.getRows()).hasSize(1);
+        assertThat(added.getColumnsDefinition()).isEqualTo(current.getColumnsDefinition());
+        assertThat(added.getTableConfigurationDefinition()).isEqualTo(current.getTableConfigurationDefinition());
+
+        TableModel fixed = comparison.getTableModel(Partition.FIXED, "fixed");
+        assertThat(fixed.getId()).isEqualTo("fixed");
+        assertThat(fixed.getColumns()).isSameAs(reference.getColumns());
+    }
+
+    @Test
+    void shouldCacheComparisons() {
+        AtomicInteger count = new AtomicInteger();
+        Supplier<TableModel> current = () -> {
+            count.incrementAndGet();
+            return createModel("current", "a");
+        };
+        Supplier<TableModel> reference = () -> createModel("reference", "b");
+
+        TableComparison comparison = TableComparison.get("#2:#1", current, reference, "key");
+        assertThat(TableComparison.get("#2:#1", current, reference, "key")).isSameAs(comparison);
+        assertThat(count).hasValue(1);
+
+        assertThat(TableComparison.get("#3:#1", current, reference, "key")).isNotSameAs(comparison);
+        assertThat(count).hasValue(2);
+    }
+
+    private List<String> getKeys(final TableComparison comparison, final Partition partition) {
+        List<String> keys = new ArrayList<>();
+        comparison.getRows(partition).forEach(row -> keys.add(((ObjectNode) row).get("key").asString()));
+        return keys;
+    }
+
+    private TableModel createModel(final String id, final String... keys) {
+        List<TableColumn> columns = List.of(
+                new ColumnBuilder().withHeaderLabel("Key").withDataPropertyKey("key").build());
+        List<Object> rows = new ArrayList<>();
+        for (String key : keys) {
+            ObjectNode row = TableCells.getMapper().createObjectNode();
+            if (!key.isEmpty()) {
+                row.put("key", key);
+            }
+            rows.add(row);
+        }
+        return new TableModel() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public List<TableColumn> getColumns() {
+                return columns;
+            }
+
+            @Override
+            public List<Object> getRows() {
+                return rows;
+            }
+
+            @Override
+            public TableConfiguration getTableConfiguration() {
+                return new TableConfiguration().rowId("key");
+            }
+        };
+    }
+}
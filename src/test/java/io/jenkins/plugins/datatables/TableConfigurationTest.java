@@ -6,6 +6,7 @@ import io.jenkins.plugins.datatables.TableConfiguration.SelectStyle;
 
 import static io.jenkins.plugins.datatables.TableConfigurationAssert.*;
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * Tests for the class {@link TableConfiguration}.
@@ -195,4 +196,93 @@ class TableConfigurationTest {
                 t -> assertThatJson(t).node("paging").isEqualTo(false)
         );
     }
+
+    @Test
+    void shouldCreateTelemetryConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .telemetry();
+
+        assertThat(configuration).hasConfiguration("{\"telemetry\":true}");
+        assertThat(configuration).isUseTelemetry();
+        assertThat(configuration).isNotUseStateSave();
+        assertThat(configuration).isUsePaging();
+    }
+
+    @Test
+    void shouldCreateRefreshConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .rowId("id")
+                .refresh(10);
+
+        assertThatJson(configuration.getConfiguration()).isEqualTo("{\"rowId\":\"id\",\"refreshInterval\":10}");
+        assertThat(configuration).hasRowId("id");
+        assertThat(configuration).hasRefreshInterval(10);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new TableConfiguration().refresh(0))
+                .withMessageContaining("0");
+    }
+
+    @Test
+    void shouldCreateLiveConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .rowId("id")
+                .live();
+
+        assertThatJson(configuration.getConfiguration()).isEqualTo("{\"rowId\":\"id\",\"live\":true}");
+        assertThat(configuration).isUseLive();
+        assertThat(new TableConfiguration()).isNotUseLive();
+    }
+
+    @Test
+    void shouldCreateClientCacheConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .clientCache();
+
+        assertThat(configuration).hasConfiguration("{\"clientCache\":true}");
+        assertThat(configuration).isUseClientCache();
+        assertThat(new TableConfiguration()).isNotUseClientCache();
+    }
+
+    @Test
+    void shouldCreateServerExportConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .serverExport();
+
+        assertThat(configuration).hasConfiguration("{\"serverExport\":true}");
+        assertThat(configuration).isUseServerExport();
+        assertThat(new TableConfiguration()).isNotUseServerExport();
+    }
+
+    @Test
+    void shouldCreateBinaryRowsConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .binaryRows();
+
+        assertThat(configuration).hasConfiguration("{\"binaryRows\":true}");
+        assertThat(configuration).isUseBinaryRows();
+        assertThat(new TableConfiguration()).isNotUseBinaryRows();
+    }
+
+    @Test
+    void shouldCreateServerSelectionConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .serverSelection();
+
+        assertThatJson(configuration.getConfiguration()).isEqualTo("{\"select\":\"multi\",\"serverSelection\":true}");
+        assertThat(configuration).isUseServerSelection().isUseSelect();
+        assertThat(new TableConfiguration()).isNotUseServerSelection();
+
+        assertThatJson(new TableConfiguration().select(SelectStyle.OS).serverSelection().getConfiguration())
+                .node("select").isEqualTo("os");
+    }
+
+    @Test
+    void shouldCreateDeferredColumnsConfiguration() {
+        TableConfiguration configuration = new TableConfiguration()
+                .deferHiddenColumns();
+
+        assertThat(configuration).hasConfiguration("{\"deferHiddenColumns\":true}");
+        assertThat(configuration).isUseDeferredColumns();
+        assertThat(new TableConfiguration()).isNotUseDeferredColumns();
+    }
 }
@@ -0,0 +1,106 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+import jenkins.model.Jenkins;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link TableEventChannel}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableEventChannelTest {
+    private final List<ObjectNode> rows = new ArrayList<>();
+    private final TableHistory history = new TableHistory("id");
+    private final TableEventChannel channel = new TableEventChannel("table",
+            cursors -> history.update(new ArrayList<>(rows), cursors));
+
+    @Test
+    void shouldPushChangesToSubscribers() {
+        rows.add(row("1", "one"));
+        String cursor = history.update(rows, "").get(TableHistory.CURSOR).asString();
+
+        StringWriter output = new StringWriter();
+        PrintWriter writer = new PrintWriter(output);
+        AtomicBoolean isClosed = new AtomicBoolean();
+        assertThat(channel.subscribe(writer, cursor, Jenkins.getAuthentication2(), () -> isClosed.set(true))).isTrue();
+        assertThat(channel.getSubscriberCount()).isEqualTo(1);
+        assertThat(output.toString()).startsWith("retry: 5000\n\n");
+
+        channel.flush();
+        assertThat(output.toString()).doesNotContain("event: delta");
+
+        rows.add(row("2", "two"));
+        channel.flush();
+        assertThat(output.toString())
+                .contains("event: delta\nid: ")
+                .contains("\"reset\":false")
+                .contains("\"rows\":[{\"id\":\"2\",\"name\":\"two\"}]")
+                .doesNotContain("\"name\":\"one\"");
+
+        channel.unsubscribe(writer);
+        assertThat(isClosed).isTrue();
+        assertThat(channel.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void shouldLimitNumberOfSubscribers() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(subscribe(new PrintWriter(new StringWriter()))).isTrue();
+        }
+        assertThat(channel.isFull()).isTrue();
+        assertThat(subscribe(new PrintWriter(new StringWriter()))).isFalse();
+        assertThat(channel.getSubscriberCount()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldRemoveClosedConnections() {
+        PrintWriter closed = new PrintWriter(OutputStream.nullOutputStream());
+        closed.close();
+
+        assertThat(subscribe(closed)).isTrue();
+        assertThat(channel.getSubscriberCount()).isZero();
+        assertThat(channel.isFull()).isFalse();
+    }
+
+    @Test
+    void shouldComputeChangesOnRequestExecutor() throws InterruptedException {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        TableEventChannel executed = new TableEventChannel("executed", cursors -> {
+            thread.complete(Thread.currentThread().getName());
+            return history.update(new ArrayList<>(rows), cursors);
+        });
+
+        StringWriter output = new StringWriter();
+        assertThat(executed.subscribe(new PrintWriter(output), "", Jenkins.getAuthentication2(), () -> { })).isTrue();
+        rows.add(row("1", "one"));
+        executed.publish();
+
+        assertThat(thread.orTimeout(10, TimeUnit.SECONDS).join()).startsWith("DataTables.request");
+        for (int i = 0; i < 100 && !output.toString().contains("event: delta"); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(output.toString()).contains("\"rows\":[{\"id\":\"1\",\"name\":\"one\"}]");
+    }
+
+    private boolean subscribe(final PrintWriter writer) {
+        return channel.subscribe(writer, "", Jenkins.getAuthentication2(), () -> { });
+    }
+
+    private static ObjectNode row(final String id, final String name) {
+        return TableCells.getMapper().createObjectNode().put("id", id).put("name", name);
+    }
+}
@@ -0,0 +1,118 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+import io.jenkins.plugins.datatables.TableExport.Format;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link TableExport}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableExportTest {
+    private static final String BOM = "\uFEFF";
+
+    @Test
+    void shouldExportAllRowsAsCsv() throws IOException {
+        assertThat(export(Format.CSV, "", "")).isEqualTo(BOM
+                + "Name,Age\r\n"
+                + "one,1 day\r\n"
+                + "\"two, three\",10 days\r\n"
+                + "'=SUM(A1),2 days\r\n");
+    }
+
+    @Test
+    void shouldExportMatchingRowsInOrderOfSortValues() throws IOException {
+        assertThat(export(Format.CSV, "", "1:desc")).isEqualTo(BOM
+                + "Name,Age\r\n"
+                + "\"two, three\",10 days\r\n"
+                + "'=SUM(A1),2 days\r\n"
+                + "one,1 day\r\n");
+        assertThat(export(Format.CSV, "secret", "1:asc")).isEqualTo(BOM
+                + "Name,Age\r\n"
+                + "one,1 day\r\n"
+                + "\"two, three\",10 days\r\n");
+    }
+
+    @Test
+    void shouldExportRowsAsExcelWorkbook() throws IOException {
+        String excel = export(Format.EXCEL, "one", "");
+
+        assertThat(excel).startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .contains("<Worksheet ss:Name=\"export\">")
+                .contains("<Row ss:StyleID=\"header\"><Cell><Data ss:Type=\"String\">Name</Data></Cell>")
+                .contains("<Row><Cell><Data ss:Type=\"String\">one</Data></Cell>"
+                        + "<Cell><Data ss:Type=\"String\">1 day</Data></Cell></Row>")
+                .doesNotContain("three")
+                .endsWith("</Workbook>\n");
+    }
+
+    @Test
+    void shouldFindFormatByName() {
+        assertThat(Format.fromName("csv")).contains(Format.CSV);
+        assertThat(Format.fromName("EXCEL")).contains(Format.EXCEL);
+        assertThat(Format.fromName("pdf")).isEmpty();
+        assertThat(Format.fromName(null)).isEmpty();
+    }
+
+    private String export(final Format format, final String search, final String order) throws IOException {
+        StringWriter writer = new StringWriter();
+        new TableExport(new ExportModel(), search, order).write(format, writer);
+        return writer.toString();
+    }
+
+    private static class ExportModel extends TableModel {
+        @Override
+        public String getId() {
+            return "export";
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build(),
+                    new ColumnBuilder().withHeaderLabel("Age").withDataPropertyKey("age").withDetailedCell().build(),
+                    new ColumnBuilder().withHeaderLabel("Tag").withDataPropertyKey("tag")
+                            .withHeaderClass(ColumnCss.HIDDEN).build());
+        }
+
+        @Override
+        public List<Object> getRows() {
+            return List.of(new Row("<b>one</b>", new DetailedCell<>("1 day", 1), "secret"),
+                    new Row("two, three", new DetailedCell<>("10 days", 10), "secret"),
+                    new Row("=SUM(A1)", new DetailedCell<>("2 days", 2), "public"));
+        }
+    }
+
+    @SuppressWarnings("unused") // Called by Jackson
+    static class Row {
+        private final String name;
+        private final DetailedCell<Integer> age;
+        private final String tag;
+
+        Row(final String name, final DetailedCell<Integer> age, final String tag) {
+            this.name = name;
+            this.age = age;
+            this.tag = tag;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DetailedCell<Integer> getAge() {
+            return age;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.javacrumbs.jsonunit.core.Option;
+
+import tools.jackson.databind.JsonNode;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableHistory} and the delta protocol of {@link DefaultAsyncTableContentProvider}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableHistoryTest {
+    @Test
+    void shouldSendOnlyChangedRows() {
+        DeltaProvider provider = new DeltaProvider("id");
+        provider.rows.add(row("1", "one"));
+        provider.rows.add(row("2", "two"));
+
+        JsonNode initial = readDelta(provider, "");
+        assertThat(initial.get("reset").booleanValue()).isTrue();
+        assertThatJson(initial.get("rows")).isEqualTo("[{id: \"1\", name: \"one\"}, {id: \"2\", name: \"two\"}]");
+        String cursor = initial.get("cursor").asString();
+
+        JsonNode unchanged = readDelta(provider, cursor);
+        assertThat(unchanged.get("reset").booleanValue()).isFalse();
+        assertThat(unchanged.get("cursor").asString()).isEqualTo(cursor);
+        assertThatJson(unchanged.get("rows")).isArray().isEmpty();
+        assertThatJson(unchanged.get("removed")).isArray().isEmpty();
+
+        provider.rows.set(0, row("1", "changed"));
+        provider.rows.remove(1);
+        provider.rows.add(row("3", "three"));
+
+        JsonNode delta = readDelta(provider, cursor);
+        assertThat(delta.get("reset").booleanValue()).isFalse();
+        assertThat(delta.get("cursor").asString()).isNotEqualTo(cursor);
+        assertThatJson(delta.get("rows")).when(Option.IGNORING_ARRAY_ORDER)
+                .isEqualTo("[{id: \"1\", name: \"changed\"}, {id: \"3\", name: \"three\"}]");
+        assertThatJson(delta.get("removed")).isEqualTo("[\"2\"]");
+
+        JsonNode next = readDelta(provider, delta.get("cursor").asString());
+        assertThatJson(next.get("rows")).isArray().isEmpty();
+        assertThatJson(next.get("removed")).isArray().isEmpty();
+    }
+
+    @Test
+    void shouldResetForUnknownCursor() {
+        DeltaProvider provider = new DeltaProvider("id");
+        provider.rows.add(row("1", "one"));
+
+        readDelta(provider, "");
+
+        JsonNode reset = readDelta(provider, "unknown:1");
+        assertThat(reset.get("reset").booleanValue()).isTrue();
+        assertThatJson(reset.get("rows")).isArray().hasSize(1);
+    }
+
+    @Test
+    void shouldResetForDuplicateRowIds() {
+        DeltaProvider provider = new DeltaProvider("id");
+        provider.rows.add(row("1", "one"));
+        String cursor = readDelta(provider, "").get("cursor").asString();
+
+        provider.rows.add(row("1", "duplicate"));
+
+        assertThat(readDelta(provider, cursor).get("reset").booleanValue()).isTrue();
+    }
+
+    @Test
+    void shouldTrackHistoryPerUser() {
+        DeltaProvider provider = new DeltaProvider("id");
+        provider.rows.add(row("1", "one"));
+        String cursor = readDelta(provider, "").get("cursor").asString();
+
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            JsonNode other = readDelta(provider, cursor);
+            assertThat(other.get("reset").booleanValue()).isTrue();
+            assertThat(other.get("cursor").asString()).isNotEqualTo(cursor);
+
+            provider.rows.add(row("2", "two"));
+            readDelta(provider, other.get("cursor").asString());
+        }
+
+        JsonNode delta = readDelta(provider, cursor);
+        assertThat(delta.get("reset").booleanValue()).isFalse();
+        assertThatJson(delta.get("rows")).isEqualTo("[{id: \"2\", name: \"two\"}]");
+    }
+
+    @Test
+    void shouldAlwaysResetWithoutRowId() {
+        DeltaProvider provider = new DeltaProvider("");
+        provider.rows.add(row("1", "one"));
+
+        JsonNode reset = readDelta(provider, "");
+        assertThat(reset.get("reset").booleanValue()).isTrue();
+        assertThat(reset.get("cursor").asString()).isEmpty();
+        assertThatJson(reset.get("rows")).isArray().hasSize(1);
+    }
+
+    private JsonNode readDelta(final DeltaProvider provider, final String cursor) {
+        return TableCells.getMapper().readTree(provider.getTableDelta("table", cursor));
+    }
+
+    private static Object row(final String id, final String name) {
+        return TableCells.getMapper().createObjectNode().put("id", id).put("name", name);
+    }
+
+    private static class DeltaProvider extends DefaultAsyncTableContentProvider {
+        private final List<Object> rows = new ArrayList<>();
+        private final String rowId;
+
+        DeltaProvider(final String rowId) {
+            this.rowId = rowId;
+        }
+
+        @Override
+        public TableModel getTableModel(final String id) {
+            return new TableModel() {
+                @Override
+                public String getId() {
+                    return id;
+                }
+
+                @Override
+                public List<TableColumn> getColumns() {
+                    return List.of(new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build());
+                }
+
+                @Override
+                public List<Object> getRows() {
+                    return new ArrayList<>(rows);
+                }
+
+                @Override
+                public TableConfiguration getTableConfiguration() {
+                    return rowId.isEmpty() ? new TableConfiguration() : new TableConfiguration().rowId(rowId);
+                }
+            };
+        }
+    }
+}
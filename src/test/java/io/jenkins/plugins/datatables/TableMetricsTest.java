@@ -0,0 +1,149 @@
+package io.jenkins.plugins.datatables;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+
+/**
+ * Tests the class {@link TableMetrics}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableMetricsTest {
+    private static final String NAME = "job/metrics";
+
+    @AfterEach
+    void clearCache() {
+        TablePayloadCache.clear();
+    }
+
+    @Test
+    void shouldRecordRequestsOfProvider() {
+        MetricsProvider provider = new MetricsProvider();
+
+        provider.getTableRows("metrics");
+        provider.getTableRows("metrics");
+
+        Optional<TableStatistics> statistics = TableMetrics.getInstance().getTable(NAME);
+        assertThat(statistics).isPresent();
+        TableStatistics table = statistics.get();
+        assertThat(table.getRequestCount()).isEqualTo(2);
+        assertThat(table.getCacheHitCount()).isEqualTo(1);
+        assertThat(table.getCacheHitRate()).isEqualTo(0.5);
+        assertThat(table.getRowCount()).isEqualTo(2);
+        assertThat(table.getPayloadSize()).isEqualTo(2 * "[{\"name\":\"one\"},{\"name\":\"two\"}]".length());
+        assertThat(table.getTotalTime()).isGreaterThan(0);
+        assertThat(table.getMaximumTime()).isLessThanOrEqualTo(table.getTotalTime());
+        assertThat(table.getAverageTime()).isEqualTo(table.getTotalTime() / 2);
+    }
+
+    @Test
+    void shouldNotifyListeners() {
+        TableMetrics metrics = new TableMetrics();
+        List<TableRequestRecord> requests = new ArrayList<>();
+        metrics.setListeners(List.of(requests::add, request -> {
+            throw new IllegalStateException("Should be ignored");
+        }));
+
+        TableRequestRecord request = new TableRequestRecord.Builder("table")
+                .withRowCount(5).addModelTime(10).addSerializationTime(20).build("[]");
+        metrics.record(request);
+
+        assertThat(requests).containsExactly(request);
+        assertThat(request.getName()).isEqualTo("table");
+        assertThat(request.getRowCount()).isEqualTo(5);
+        assertThat(request.getPayloadSize()).isEqualTo(2);
+        assertThat(request.getModelTime()).isEqualTo(10);
+        assertThat(request.getSerializationTime()).isEqualTo(20);
+        assertThat(request.isCacheHit()).isFalse();
+        assertThat(metrics.getRequestCount()).isEqualTo(1);
+        assertThat(metrics.getTables()).extracting(TableStatistics::getName).containsExactly("table");
+
+        metrics.reset();
+        assertThat(metrics.getRequestCount()).isZero();
+        assertThat(metrics.getTables()).isEmpty();
+    }
+
+    @Test
+    void shouldCountAbortedRequests() {
+        TableMetrics metrics = new TableMetrics();
+
+        metrics.recordAbort("table");
+        metrics.recordAbort("table");
+
+        assertThat(metrics.getAbortedCount()).isEqualTo(2);
+        assertThat(metrics.getRequestCount()).isZero();
+        assertThat(metrics.getTable("table")).isPresent().get()
+                .satisfies(table -> assertThat(table.getAbortedCount()).isEqualTo(2));
+
+        metrics.reset();
+        assertThat(metrics.getAbortedCount()).isZero();
+    }
+
+    @Test
+    void shouldExposeMetricsInJmx() throws JMException {
+        TableMetrics metrics = new TableMetrics();
+        metrics.record(new TableRequestRecord.Builder("jmx").withCacheHit().build("[]"));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("io.jenkins.plugins.datatables:type=TableMetricsTest");
+        server.registerMBean(metrics, name);
+        try {
+            assertThat(server.getAttribute(name, "RequestCount")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "CacheHitRate")).isEqualTo(1.0);
+            CompositeData[] tables = (CompositeData[]) server.getAttribute(name, "Tables");
+            assertThat(tables).hasSize(1);
+            assertThat(tables[0].get("name")).isEqualTo("jmx");
+            assertThat(tables[0].get("cacheHitCount")).isEqualTo(1L);
+        }
+        finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private static class MetricsProvider extends DefaultAsyncTableContentProvider {
+        @Override
+        protected Optional<String> getTableCacheKey(final String id) {
+            return Optional.of("metrics-test/" + id);
+        }
+
+        @Override
+        protected String getTableMetricsName(final String id) {
+            return "job/" + id;
+        }
+
+        @Override
+        public TableModel getTableModel(final String id) {
+            return new TableModel() {
+                @Override
+                public String getId() {
+                    return id;
+                }
+
+                @Override
+                public List<TableColumn> getColumns() {
+                    return List.of(new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build());
+                }
+
+                @Override
+                public List<Object> getRows() {
+                    return List.of(TableCells.getMapper().createObjectNode().put("name", "one"),
+                            TableCells.getMapper().createObjectNode().put("name", "two"));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TablePaging}.
+ *
+ * @author Ullrich Hafner
+ */
+class TablePagingTest {
+    @Test
+    void shouldUseServerSideModeForLargeTables() {
+        assertThat(TablePaging.isServerSide(100, 10_000)).isFalse();
+        assertThat(TablePaging.isServerSide(50_000, 10_000)).isFalse();
+        assertThat(TablePaging.isServerSide(50_001, 10_000)).isTrue();
+        assertThat(TablePaging.isServerSide(100, 10_000_001)).isTrue();
+    }
+
+    @Test
+    void shouldEstimateModeFromModel() {
+        assertThat(TablePaging.isServerSide(new NumberModel(10))).isFalse();
+        assertThat(TablePaging.isServerSide(new NumberModel(50_001))).isTrue();
+    }
+
+    @Test
+    void shouldEstimatePayloadSizeFromSample() {
+        assertThat(TablePaging.estimatePayloadSize(List.of())).isEqualTo(2);
+
+        List<Object> rows = new NumberModel(10).getRows();
+        assertThat(TablePaging.estimatePayloadSize(rows))
+                .isEqualTo(TableCells.getMapper().writeValueAsString(rows).length());
+
+        List<Object> large = new NumberModel(10_000).getRows();
+        assertThat(TablePaging.estimatePayloadSize(large))
+                .isCloseTo(TableCells.getMapper().writeValueAsString(large).length(), withinPercentage(10));
+    }
+
+    @Test
+    void shouldCreateResponses() {
+        assertThatJson(TablePaging.getServerSideResponse()).isEqualTo("{\"serverSide\":true}");
+        assertThatJson(TablePaging.getClientSideResponse("[1,2]")).isEqualTo("{\"rows\":[1,2]}");
+    }
+
+    @Test
+    void shouldCreatePageOfOrderedRows() {
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+
+        assertThatJson(TablePaging.createPage(new NumberModel(), 2, 3, "", "0:desc", measurement)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":10,"
+                        + "\"data\":[{\"number\":7},{\"number\":6},{\"number\":5}]}");
+        assertThat(measurement.getRowCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCreatePageOfMatchingRows() {
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+
+        assertThatJson(TablePaging.createPage(new NumberModel(), 0, 10, "1", "", measurement)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":2,\"data\":[{\"number\":1},{\"number\":10}]}");
+        assertThatJson(TablePaging.createPage(new NumberModel(), 8, -1, "", "", measurement)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":10,\"data\":[{\"number\":9},{\"number\":10}]}");
+        assertThatJson(TablePaging.createPage(new NumberModel(), 20, 10, "", "", measurement)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":10,\"data\":[]}");
+    }
+
+    private static class NumberModel extends TableModel {
+        private final int size;
+
+        NumberModel() {
+            this(10);
+        }
+
+        NumberModel(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public String getId() {
+            return "numbers";
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Number").withDataPropertyKey("number").build());
+        }
+
+        @Override
+        public List<Object> getRows() {
+            List<Object> rows = new ArrayList<>();
+            for (int i = 1; i <= size; i++) {
+                rows.add(TableCells.getMapper().createObjectNode().put("number", i));
+            }
+            return rows;
+        }
+    }
+}
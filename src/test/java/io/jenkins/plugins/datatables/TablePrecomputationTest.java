@@ -0,0 +1,193 @@
+package io.jenkins.plugins.datatables;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.Authentication;
+
+import hudson.security.ACL;
+import jenkins.model.Jenkins;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the classes {@link TablePrecomputation} and {@link TablePayloadCache}.
+ *
+ * @author Ullrich Hafner
+ */
+class TablePrecomputationTest {
+    private static final String KEY = "job#1/table";
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void clearCache() {
+        TablePayloadCache.clear();
+    }
+
+    @Test
+    void shouldMaterializeTableInBackground() throws InterruptedException {
+        CachingProvider provider = new CachingProvider(Optional.of(KEY), Optional.empty());
+
+        assertThat(TablePrecomputation.schedule(provider, List.of("table"))).isTrue();
+
+        for (int i = 0; i < 100 && !TablePayloadCache.contains(KEY); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(TablePayloadCache.get(KEY)).contains("[{\"name\":\"row\"}]");
+        assertThat(provider.getTableRows("table")).isEqualTo("[{\"name\":\"row\"}]");
+        assertThat(provider.created).hasValue(1);
+
+        provider.materializeTable("table");
+        assertThat(provider.created).hasValue(1);
+    }
+
+    @Test
+    void shouldMaterializeTablesAsSystem() throws InterruptedException {
+        CachingProvider provider = new CachingProvider(Optional.of(KEY), Optional.empty());
+
+        assertThat(TablePrecomputation.schedule(provider, List.of("table"))).isTrue();
+
+        for (int i = 0; i < 100 && !TablePayloadCache.contains(KEY); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(provider.authentication.get()).isSameAs(ACL.SYSTEM2);
+    }
+
+    @Test
+    void shouldCreateSnapshotIfCachingIsDisabled() {
+        CachingProvider provider = new CachingProvider(Optional.empty(), Optional.of(directory));
+
+        provider.materializeTable("table");
+
+        assertThat(TableSnapshot.getFile(directory, "table")).exists();
+        assertThat(provider.created).hasValue(1);
+        assertThat(provider.getTableRows("table")).isEqualTo("[{\"name\":\"row\"}]");
+        assertThat(provider.created).hasValue(1);
+    }
+
+    @Test
+    void shouldIgnoreTablesWithoutCacheOrSnapshot() {
+        CachingProvider provider = new CachingProvider(Optional.empty(), Optional.empty());
+
+        provider.materializeTable("table");
+
+        assertThat(provider.created).hasValue(0);
+    }
+
+    @Test
+    void shouldInvalidateCachedPayloads() {
+        TablePayloadCache.put(KEY, "[]");
+        assertThat(TablePayloadCache.get(KEY)).contains("[]");
+
+        TablePayloadCache.invalidate(KEY);
+        assertThat(TablePayloadCache.get(KEY)).isEmpty();
+    }
+
+    @Test
+    void shouldStoreRowCountWithCachedPayload() {
+        TablePayloadCache.put(KEY, "[{},{}]", 2);
+
+        assertThat(TablePayloadCache.getRows(KEY)).hasValueSatisfying(rows -> {
+            assertThat(rows.getPayload()).isEqualTo("[{},{}]");
+            assertThat(rows.getRowCount()).isEqualTo(2);
+        });
+        assertThat(new CachingProvider(Optional.of(KEY), Optional.empty()).getTableRows("table")).isEqualTo("[{},{}]");
+        assertThat(TableMetrics.getInstance().getTable("table")).hasValueSatisfying(
+                table -> assertThat(table.getRowCount()).isGreaterThanOrEqualTo(2));
+    }
+
+    @Test
+    void shouldCreateRowsOnlyOfBrowserRequestsInWorkerThread() {
+        CachingProvider provider = new CachingProvider(Optional.empty(), Optional.empty());
+
+        assertThat(provider.getTableRows("table")).isEqualTo("[{\"name\":\"row\"}]");
+        assertThat(provider.thread).hasValue(Thread.currentThread().getName());
+
+        assertThat(provider.requestTableRows("table")).isEqualTo("[{\"name\":\"row\"}]");
+        assertThat(provider.thread.get()).startsWith("DataTables.request");
+    }
+
+    @Test
+    void shouldUseCacheKeyAsVersionOfRows() {
+        assertThatJson(new CachingProvider(Optional.of(KEY), Optional.empty()).getTableVersion("table"))
+                .isEqualTo("{\"version\":\"job#1/table\"}");
+        assertThatJson(new CachingProvider(Optional.empty(), Optional.empty()).getTableVersion("table"))
+                .isEqualTo("{\"version\":\"\"}");
+    }
+
+    @Test
+    void shouldReturnRowsOfSmallTablesAsContent() {
+        CachingProvider provider = new CachingProvider(Optional.of(KEY), Optional.empty());
+
+        assertThatJson(provider.getTableContent("table")).isEqualTo("{\"rows\":[{\"name\":\"row\"}]}");
+        assertThatJson(provider.getTableContent("table")).isEqualTo("{\"rows\":[{\"name\":\"row\"}]}");
+        assertThat(provider.created).hasValue(1);
+    }
+
+    @Test
+    void shouldReturnPageOfRows() {
+        CachingProvider provider = new CachingProvider(Optional.empty(), Optional.empty());
+
+        assertThatJson(provider.getTablePage("table", 0, 10, "row", "0:asc")).isEqualTo(
+                "{\"recordsTotal\":1,\"recordsFiltered\":1,\"data\":[{\"name\":\"row\"}]}");
+        assertThatJson(provider.getTablePage("table", 0, 10, "other", "")).isEqualTo(
+                "{\"recordsTotal\":1,\"recordsFiltered\":0,\"data\":[]}");
+    }
+
+    private static class CachingProvider extends DefaultAsyncTableContentProvider {
+        private final Optional<String> cacheKey;
+        private final Optional<Path> snapshotDirectory;
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicReference<Authentication> authentication = new AtomicReference<>();
+        private final AtomicReference<String> thread = new AtomicReference<>();
+
+        CachingProvider(final Optional<String> cacheKey, final Optional<Path> snapshotDirectory) {
+            this.cacheKey = cacheKey;
+            this.snapshotDirectory = snapshotDirectory;
+        }
+
+        @Override
+        protected Optional<String> getTableCacheKey(final String id) {
+            return cacheKey;
+        }
+
+        @Override
+        protected Optional<Path> getTableSnapshotDirectory() {
+            return snapshotDirectory;
+        }
+
+        @Override
+        public TableModel getTableModel(final String id) {
+            created.incrementAndGet();
+            authentication.set(Jenkins.getAuthentication2());
+            thread.set(Thread.currentThread().getName());
+            return new TableModel() {
+                @Override
+                public String getId() {
+                    return id;
+                }
+
+                @Override
+                public List<TableColumn> getColumns() {
+                    return List.of(new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build());
+                }
+
+                @Override
+                public List<Object> getRows() {
+                    return List.of(TableCells.getMapper().createObjectNode().put("name", "row"));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableQueryCache}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableQueryCacheTest {
+    private static final String ID = "numbers";
+
+    @Test
+    void shouldCreateModelOnlyOnceForAllPagesAndQueries() {
+        TableQueryCache cache = new TableQueryCache();
+        AtomicInteger created = new AtomicInteger();
+        Supplier<TableModel> model = () -> {
+            created.incrementAndGet();
+            return new NumberModel();
+        };
+
+        TableRequestRecord.Builder first = new TableRequestRecord.Builder("table");
+        assertThatJson(cache.createPage(ID, "user", model, 2, 3, "", "0:desc", first)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":10,"
+                        + "\"data\":[{\"number\":7},{\"number\":6},{\"number\":5}]}");
+        assertThat(first.build(0).isCacheHit()).isFalse();
+
+        TableRequestRecord.Builder second = new TableRequestRecord.Builder("table");
+        assertThatJson(cache.createPage(ID, "user", model, 0, 10, "1", "0:desc", second)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":2,\"data\":[{\"number\":10},{\"number\":1}]}");
+        assertThat(second.build(0).isCacheHit()).isTrue();
+
+        assertThatJson(cache.createPage(ID, "user", model, 8, -1, null, null, second)).isEqualTo(
+                "{\"recordsTotal\":10,\"recordsFiltered\":10,\"data\":[{\"number\":9},{\"number\":10}]}");
+        assertThat(created).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnSamePagesAsUncachedPaging() {
+        TableQueryCache cache = new TableQueryCache();
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+
+        for (String order : List.of("", "0:asc", "0:desc")) {
+            for (String search : List.of("", "1", "2", "none")) {
+                assertThatJson(cache.createPage(ID, "user", NumberModel::new, 1, 4, search, order, measurement))
+                        .isEqualTo(TablePaging.createPage(new NumberModel(), 1, 4, search, order, measurement));
+            }
+        }
+    }
+
+    @Test
+    void shouldCacheTablesPerUser() {
+        TableQueryCache cache = new TableQueryCache();
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+
+        cache.createPage(ID, "alice", () -> new NumberModel(10), 0, 10, "", "", measurement);
+        assertThatJson(cache.createPage(ID, "bob", () -> new NumberModel(2), 0, 10, "", "", measurement))
+                .isEqualTo("{\"recordsTotal\":2,\"recordsFiltered\":2,\"data\":[{\"number\":1},{\"number\":2}]}");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateTableOfAllUsers() {
+        TableQueryCache cache = new TableQueryCache();
+        TableRequestRecord.Builder measurement = new TableRequestRecord.Builder("table");
+        AtomicInteger created = new AtomicInteger();
+        Supplier<TableModel> model = () -> {
+            created.incrementAndGet();
+            return new NumberModel();
+        };
+
+        cache.createPage(ID, "alice", model, 0, 10, "", "", measurement);
+        cache.createPage(ID, "bob", model, 0, 10, "", "", measurement);
+        cache.createPage("other", "bob", model, 0, 10, "", "", measurement);
+        assertThat(created).hasValue(3);
+
+        cache.invalidate(ID);
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.createPage(ID, "alice", model, 0, 10, "", "", measurement);
+        assertThat(created).hasValue(4);
+    }
+
+    private static class NumberModel extends TableModel {
+        private final int size;
+
+        NumberModel() {
+            this(10);
+        }
+
+        NumberModel(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public String getId() {
+            return ID;
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Number").withDataPropertyKey("number").build());
+        }
+
+        @Override
+        public List<Object> getRows() {
+            List<Object> rows = new ArrayList<>();
+            for (int i = 1; i <= size; i++) {
+                rows.add(TableCells.getMapper().createObjectNode().put("number", i));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.jenkins.plugins.datatables;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jenkins.model.Jenkins;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableRequestExecutor}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableRequestExecutorTest {
+    @Test
+    void shouldComputeContentInWorkerThread() {
+        String caller = Thread.currentThread().getName();
+
+        assertThat(TableRequestExecutor.execute(() -> Thread.currentThread().getName()))
+                .isPresent().get().isNotEqualTo(caller);
+    }
+
+    @Test
+    void shouldComputeNestedRequestsInSameWorkerThread() {
+        Optional<String> nested = TableRequestExecutor.execute(
+                () -> TableRequestExecutor.execute(() -> "nested").orElse("busy"));
+
+        assertThat(nested).contains("nested");
+    }
+
+    @Test
+    void shouldPropagateExceptions() {
+        assertThatIllegalArgumentException().isThrownBy(() -> TableRequestExecutor.execute(() -> {
+            throw new IllegalArgumentException("Invalid table");
+        })).withMessage("Invalid table");
+    }
+
+    @Test
+    void shouldRejectTooManyConcurrentRequestsOfSameUser() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        CompletableFuture<Optional<String>> first = CompletableFuture.supplyAsync(() -> block(started, finish));
+        CompletableFuture<Optional<String>> second = CompletableFuture.supplyAsync(() -> block(started, finish));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(TableRequestExecutor.execute(() -> "third")).isEmpty();
+
+        finish.countDown();
+        assertThat(first.join()).contains("blocked");
+        assertThat(second.join()).contains("blocked");
+        assertThat(TableRequestExecutor.execute(() -> "fourth")).contains("fourth");
+    }
+
+    @Test
+    void shouldCancelComputationAfterTimeout() {
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Boolean> isCancelled = new CompletableFuture<>();
+
+        assertThatExceptionOfType(TableRequestTimeoutException.class).isThrownBy(
+                () -> TableRequestExecutor.execute(new Object(), "timeout", () -> {
+                    try {
+                        finish.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                    isCancelled.complete(TableCancellation.current().isCancelled());
+                    return "late";
+                }, Duration.ofMillis(100)));
+
+        finish.countDown();
+        assertThat(isCancelled.join()).isTrue();
+        assertThat(TableRequestExecutor.execute(() -> "next")).contains("next");
+    }
+
+    @Test
+    void shouldUseUserAsRequesterOutsideOfRequests() {
+        assertThat(TableRequestExecutor.getRequester(Jenkins.getAuthentication2())).startsWith("user:");
+    }
+
+    @Test
+    void shouldCreateBusyResponse() {
+        assertThatJson(TableRequestExecutor.getBusyResponse()).isEqualTo("{busy: true, retryAfter: 1000}");
+    }
+
+    @Test
+    void shouldCreateTimeoutResponse() {
+        assertThatJson(TableRequestExecutor.getTimeoutResponse()).node("error").isEqualTo("timeout");
+        assertThatJson(TableRequestExecutor.getTimeoutResponse()).isObject().doesNotContainKey("busy");
+    }
+
+    private Optional<String> block(final CountDownLatch started, final CountDownLatch finish) {
+        return TableRequestExecutor.execute(() -> {
+            started.countDown();
+            try {
+                finish.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return "blocked";
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableSelection}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableSelectionTest {
+    @Test
+    void shouldBeEmptyInitially() {
+        TableSelection selection = new TableSelection();
+
+        assertThat(selection.isEmpty()).isTrue();
+        assertThat(selection.getCount()).isZero();
+        assertThat(selection.getSelectedRowIds()).isEmpty();
+        assertThat(selection.isSelected("1")).isFalse();
+        assertThatJson(selection.toJson()).isEqualTo("{\"count\":0}");
+    }
+
+    @Test
+    void shouldSelectAndDeselectRows() {
+        TableSelection selection = new TableSelection();
+
+        selection.select(List.of("a", "b", "c", ""), true);
+        assertThat(selection.getCount()).isEqualTo(3);
+        assertThat(selection.getSelectedRowIds()).containsExactly("a", "b", "c");
+
+        selection.select(List.of("b", "unknown"), false);
+        assertThat(selection.getSelectedRowIds()).containsExactly("a", "c");
+        assertThat(selection.isSelected("b")).isFalse();
+        assertThat(selection.getSelectedRowIds(List.of("c", "b", "a", "x"))).containsExactly("c", "a");
+        assertThatJson(selection.toJson()).isEqualTo("{\"count\":2}");
+
+        selection.clear();
+        assertThat(selection.isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldSelectMatchingRows() {
+        TableSelection selection = new TableSelection();
+        selection.select(List.of("5"), true);
+
+        assertThat(selection.selectMatching(new NumberModel("id"), "1", true)).isEqualTo(2);
+        assertThat(selection.getSelectedRowIds()).containsExactlyInAnyOrder("1", "5", "10");
+
+        assertThat(selection.selectMatching(new NumberModel("id"), "", false)).isEqualTo(10);
+        assertThat(selection.isEmpty()).isTrue();
+
+        assertThat(selection.selectMatching(new NumberModel("id"), "", true)).isEqualTo(10);
+        assertThat(selection.getCount()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldIgnoreModelsWithoutRowId() {
+        TableSelection selection = new TableSelection();
+
+        assertThat(selection.selectMatching(new NumberModel(""), "", true)).isZero();
+        assertThat(selection.isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldSelectMatchingRowsOfRowStore() {
+        TableSelection selection = new TableSelection();
+        ColumnarRowStore store = new ColumnarRowStore.Builder()
+                .withTextColumn("id").withTextColumn("number")
+                .addRow("a", "1").addRow("b", "2").addRow("c", "12")
+                .build();
+        TableModel model = new NumberModel("id");
+        ColumnarTableModel columnar = new ColumnarTableModel() {
+            @Override
+            public String getId() {
+                return model.getId();
+            }
+
+            @Override
+            public List<TableColumn> getColumns() {
+                return model.getColumns();
+            }
+
+            @Override
+            public ColumnarRowStore getRowStore() {
+                return store;
+            }
+
+            @Override
+            public TableConfiguration getTableConfiguration() {
+                return model.getTableConfiguration();
+            }
+        };
+
+        assertThat(selection.selectMatching(columnar, "2", true)).isEqualTo(2);
+        assertThat(selection.getSelectedRowIds()).containsExactly("b", "c");
+
+        assertThat(selection.selectMatching(columnar, "", true)).isEqualTo(3);
+        assertThat(selection.getSelectedRowIds()).containsExactly("b", "c", "a");
+    }
+
+    @Test
+    void shouldReleaseOrdinalsOfDeselectedRows() {
+        TableSelection selection = new TableSelection();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ids.add(String.valueOf(i));
+        }
+
+        selection.select(ids, true);
+        assertThat(selection.getMappedCount()).isEqualTo(2000);
+
+        selection.select(ids.subList(1, 2000), false);
+        assertThat(selection.getMappedCount()).isOne();
+        assertThat(selection.getSelectedRowIds()).containsExactly("0");
+        assertThat(selection.isSelected("1")).isFalse();
+
+        selection.clear();
+        assertThat(selection.getMappedCount()).isZero();
+    }
+
+    @Test
+    void shouldRetainMostRecentlyUsedSelections() {
+        Map<String, TableSelection> selections = TableSelection.createSelections();
+        for (int i = 0; i < 100; i++) {
+            selections.put(String.valueOf(i), new TableSelection());
+        }
+
+        assertThat(selections).hasSize(64).containsKey("99").doesNotContainKey("0");
+    }
+
+    private static class NumberModel extends TableModel {
+        private final String rowId;
+
+        NumberModel(final String rowId) {
+            this.rowId = rowId;
+        }
+
+        @Override
+        public String getId() {
+            return "numbers";
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return new TableConfiguration().rowId(rowId);
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Number").withDataPropertyKey("number").build());
+        }
+
+        @Override
+        public List<Object> getRows() {
+            List<Object> rows = new ArrayList<>();
+            for (int i = 1; i <= 10; i++) {
+                rows.add(TableCells.getMapper().createObjectNode().put("id", String.valueOf(i)).put("number", i));
+            }
+            return rows;
+        }
+    }
+}
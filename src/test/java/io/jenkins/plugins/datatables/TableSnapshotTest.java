@@ -0,0 +1,263 @@
+package io.jenkins.plugins.datatables;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.jenkins.plugins.datatables.TableColumn.Aggregation;
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+import io.jenkins.plugins.datatables.TableColumn.ColumnCss;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the class {@link TableSnapshot}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableSnapshotTest {
+    private static final String EXPECTED_ROWS = "["
+            + "{name: \"one\", size: 1, ratio: 1.0, flag: true, age: {display: \"1 day\", sort: 1}},"
+            + "{name: \"two\", size: null, ratio: 1.5, flag: false, age: null},"
+            + "{name: \"one\", size: 3, ratio: 2.0, flag: null, age: {display: \"3 days\", sort: 3}}"
+            + "]";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldWriteAndReadSnapshot() throws IOException {
+        Path file = TableSnapshot.getFile(directory, "my table/1");
+        assertThat(file.getFileName().toString()).startsWith("my_table_1-").endsWith(".snapshot");
+        assertThat(file).isNotEqualTo(TableSnapshot.getFile(directory, "my table:1"))
+                .isEqualTo(TableSnapshot.getFile(directory, "my table/1"));
+
+        TableSnapshot.write(new RowsModel(), file);
+
+        ColumnarRowStore store = TableSnapshot.read(file);
+        assertThat(store.getRowCount()).isEqualTo(3);
+        assertThat(store.getPropertyKeys()).containsExactly("name", "size", "ratio", "flag", "age");
+        assertThatJson(store.toJson()).isEqualTo(EXPECTED_ROWS);
+        assertThatJson(store.getRow(2)).isEqualTo(
+                "{name: \"one\", size: 3, ratio: 2.0, flag: null, age: {display: \"3 days\", sort: 3}}");
+        assertThat(TableSnapshot.read(file)).isSameAs(store);
+        assertThat(TableSnapshot.getCacheSize()).isPositive();
+    }
+
+    @Test
+    void shouldRestoreSchemaOfTable() throws IOException {
+        Path file = TableSnapshot.getFile(directory, "schema");
+
+        TableSnapshot.write(new RowsModel(new TableConfiguration().rowId("name").deferHiddenColumns()), file);
+
+        ColumnarTableModel table = TableSnapshot.readTable(file);
+        assertThat(table.getId()).isEqualTo("id");
+        assertThat(table.getTableConfiguration().getRowId()).isEqualTo("name");
+        assertThat(table.getTableConfiguration().isUseDeferredColumns()).isTrue();
+        assertThat(table.getColumns()).hasSize(2);
+        TableColumn size = table.getColumns().get(1);
+        assertThat(size.getHeaderLabel()).isEqualTo("Size");
+        assertThat(size.getDataPropertyKey()).isEqualTo("size");
+        assertThat(size.getHeaderClass()).isEqualTo(ColumnCss.HIDDEN.toString());
+        assertThat(size.getAggregations()).containsExactly(Aggregation.SUM);
+        assertThat(size.getDefinition()).isEqualTo(new RowsModel().getColumns().get(1).getDefinition());
+        assertThatJson(table.getSummary().toJson()).node("columns.size.sum").isEqualTo(4.0);
+    }
+
+    @Test
+    void shouldRejectInvalidFiles() throws IOException {
+        Path file = directory.resolve("invalid.snapshot");
+        Files.writeString(file, "no snapshot");
+
+        assertThatIOException().isThrownBy(() -> TableSnapshot.read(file)).withMessageContaining("invalid.snapshot");
+    }
+
+    @Test
+    void shouldServeRowsFromSnapshot() {
+        SnapshotProvider provider = new SnapshotProvider(directory);
+
+        assertThatJson(provider.getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+        assertThat(provider.created).isEqualTo(1);
+        assertThat(TableSnapshot.getFile(directory, "id")).exists();
+
+        assertThatJson(provider.getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+        assertThat(provider.created).isEqualTo(1);
+
+        assertThatJson(new SnapshotProvider(directory).getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+    }
+
+    @Test
+    void shouldServePagesAndColumnsFromSnapshot() {
+        SnapshotProvider provider = new SnapshotProvider(directory);
+        provider.materializeTable("id");
+        assertThat(provider.created).isEqualTo(1);
+
+        assertThatJson(provider.getTablePage("id", 1, 1, "", "")).node("data").isEqualTo(
+                "[{name: \"two\", size: null, ratio: 1.5, flag: false, age: null}]");
+        assertThatJson(provider.getTableColumnValues("id", 1)).isEqualTo("{key: \"size\", values: [1, null, 3]}");
+        assertThatJson(provider.getTableSummary("id", "")).node("columns.size.sum").isEqualTo(4.0);
+        assertThat(provider.created).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReplaceOutdatedSnapshot() throws IOException {
+        Path file = TableSnapshot.getFile(directory, "id");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "outdated");
+
+        SnapshotProvider provider = new SnapshotProvider(directory);
+        assertThatJson(provider.getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+        assertThat(provider.created).isEqualTo(1);
+        assertThat(TableSnapshot.readTable(file).getRowStore().getRowCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDetectChangedDefinitionOfTable() throws IOException {
+        Path file = TableSnapshot.getFile(directory, "id");
+        TableSnapshot.write(new RowsModel(), file);
+
+        ColumnarTableModel snapshot = TableSnapshot.readTable(file);
+        assertThat(TableSnapshot.isSnapshotOf(snapshot, new RowsModel())).isTrue();
+        assertThat(TableSnapshot.isSnapshotOf(snapshot, new RowsModel(new TableConfiguration().rowId("size"))))
+                .isFalse();
+        assertThat(TableSnapshot.isSnapshotOf(snapshot, new RowsModel(new TableConfiguration().rowId("name")
+                .buttons()))).isFalse();
+        assertThat(TableSnapshot.isSnapshotOf(snapshot, new RenamedRowsModel())).isFalse();
+    }
+
+    @Test
+    void shouldReplaceSnapshotOfChangedTable() throws IOException {
+        SnapshotProvider provider = new SnapshotProvider(directory);
+        provider.materializeTable("id");
+        assertThat(provider.created).isEqualTo(1);
+
+        SnapshotProvider unchanged = new SnapshotProvider(directory);
+        assertThatJson(unchanged.getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+        assertThatJson(unchanged.getTableRows("id")).isEqualTo(EXPECTED_ROWS);
+        assertThat(unchanged.created).isEqualTo(1); // verifies the snapshot only once
+
+        SnapshotProvider changed = new SnapshotProvider(directory, new RenamedRowsModel());
+        assertThatJson(changed.getTablePage("id", 0, 1, "", "")).node("data").isEqualTo(
+                "[{name: \"one\", size: 1, ratio: 1.0, flag: true, age: {display: \"1 day\", sort: 1}}]");
+        assertThat(changed.created).isEqualTo(1);
+        assertThatJson(changed.getTableColumnValues("id", 1)).isEqualTo("{key: \"size\", values: [1, null, 3]}");
+        assertThat(changed.created).isEqualTo(1);
+        assertThat(TableSnapshot.readTable(TableSnapshot.getFile(directory, "id")).getColumns().get(0)
+                .getHeaderLabel()).isEqualTo("Title");
+    }
+
+    private static class SnapshotProvider extends DefaultAsyncTableContentProvider {
+        private final Path directory;
+        private final TableModel model;
+        private int created;
+
+        SnapshotProvider(final Path directory) {
+            this(directory, new RowsModel());
+        }
+
+        SnapshotProvider(final Path directory, final TableModel model) {
+            this.directory = directory;
+            this.model = model;
+        }
+
+        @Override
+        protected Optional<Path> getTableSnapshotDirectory() {
+            return Optional.of(directory);
+        }
+
+        @Override
+        public TableModel getTableModel(final String id) {
+            created++;
+            return model;
+        }
+    }
+
+    private static class RenamedRowsModel extends RowsModel {
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Title").withDataPropertyKey("name").build(),
+                    new ColumnBuilder().withHeaderLabel("Size").withDataPropertyKey("size")
+                            .withHeaderClass(ColumnCss.HIDDEN).withAggregation(Aggregation.SUM).build());
+        }
+    }
+
+    private static class RowsModel extends TableModel {
+        private final TableConfiguration configuration;
+
+        RowsModel() {
+            this(new TableConfiguration().rowId("name"));
+        }
+
+        RowsModel(final TableConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public String getId() {
+            return "id";
+        }
+
+        @Override
+        public List<TableColumn> getColumns() {
+            return List.of(new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build(),
+                    new ColumnBuilder().withHeaderLabel("Size").withDataPropertyKey("size")
+                            .withHeaderClass(ColumnCss.HIDDEN).withAggregation(Aggregation.SUM).build());
+        }
+
+        @Override
+        public TableConfiguration getTableConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public List<Object> getRows() {
+            return List.of(new Row("one", 1, 1, true, new DetailedCell<>("1 day", 1)),
+                    new Row("two", null, 1.5, false, null),
+                    new Row("one", 3, 2, null, new DetailedCell<>("3 days", 3)));
+        }
+    }
+
+    @SuppressWarnings("unused") // Called by Jackson
+    static class Row {
+        private final String name;
+        private final Integer size;
+        private final Number ratio;
+        private final Boolean flag;
+        private final DetailedCell<Integer> age;
+
+        Row(final String name, final Integer size, final Number ratio, final Boolean flag,
+                final DetailedCell<Integer> age) {
+            this.name = name;
+            this.size = size;
+            this.ratio = ratio;
+            this.flag = flag;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getSize() {
+            return size;
+        }
+
+        public Number getRatio() {
+            return ratio;
+        }
+
+        public Boolean getFlag() {
+            return flag;
+        }
+
+        public DetailedCell<Integer> getAge() {
+            return age;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.jenkins.plugins.datatables;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.datatables.TableColumn.Aggregation;
+import io.jenkins.plugins.datatables.TableColumn.ColumnBuilder;
+
+import static io.jenkins.plugins.datatables.assertions.Assertions.*;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.*;
+
+/**
+ * Tests the classes {@link TableSummary}, {@link ColumnSummary}, and {@link TableSearch}.
+ *
+ * @author Ullrich Hafner
+ */
+class TableSummaryTest {
+    private static final List<TableColumn> COLUMNS = List.of(
+            new ColumnBuilder().withHeaderLabel("Name").withDataPropertyKey("name").build(),
+            new ColumnBuilder().withHeaderLabel("Severity").withDataPropertyKey("severity")
+                    .withAggregation(Aggregation.FACETS).build(),
+            new ColumnBuilder().withHeaderLabel("Size").withDataPropertyKey("size").withDetailedCell()
+                    .withAggregation(Aggregation.COUNT, Aggregation.SUM, Aggregation.MIN, Aggregation.MAX,
+                            Aggregation.AVERAGE).build());
+    private static final List<Object> ROWS = List.of(
+            new Row("Alpha", "<b>High</b>", 10),
+            new Row("Beta", "Low", 20),
+            new Row("Gamma", "High", 30),
+            new Row("Delta Alpha", "Normal", 40));
+
+    @Test
+    void shouldAggregateAllRows() {
+        TableSummary summary = TableSummary.of(COLUMNS, ROWS, "");
+
+        assertThat(summary.getTotal()).isEqualTo(4);
+        assertThat(summary.getFiltered()).isEqualTo(4);
+        assertThat(summary.getColumns()).hasSize(2);
+        assertThat(summary.getColumn("name")).isEmpty();
+
+        assertThat(summary.getColumn("size")).hasValueSatisfying(size -> {
+            assertThat(size.getCount()).isEqualTo(4);
+            assertThat(size.getSum()).isEqualTo(100.0);
+            assertThat(size.getMin()).hasValue(10.0);
+            assertThat(size.getMax()).hasValue(40.0);
+            assertThat(size.getAverage()).hasValue(25.0);
+        });
+        assertThat(summary.getColumn("severity")).hasValueSatisfying(
+                severity -> assertThat(severity.getFacets()).containsExactly(
+                        entry("High", 2), entry("Low", 1), entry("Normal", 1)));
+
+        assertThatJson(summary.toJson()).node("columns.size").isEqualTo(
+                "{count: 4, sum: 100.0, min: 10.0, max: 40.0, average: 25.0}");
+        assertThatJson(summary.toJson()).node("columns.severity.facets").isEqualTo(
+                "{High: 2, Low: 1, Normal: 1}");
+    }
+
+    @Test
+    void shouldAggregateOnlyMatchingRows() {
+        TableSummary summary = TableSummary.of(COLUMNS, ROWS, "alpha");
+
+        assertThat(summary.getTotal()).isEqualTo(4);
+        assertThat(summary.getFiltered()).isEqualTo(2);
+        assertThat(summary.getColumn("size")).hasValueSatisfying(size -> {
+            assertThat(size.getCount()).isEqualTo(2);
+            assertThat(size.getSum()).isEqualTo(50.0);
+        });
+
+        TableSummary empty = TableSummary.of(COLUMNS, ROWS, "Epsilon");
+        assertThat(empty.getFiltered()).isZero();
+        assertThat(empty.getColumn("size")).hasValueSatisfying(size -> {
+            assertThat(size.getMin()).isEmpty();
+            assertThat(size.getAverage()).isEmpty();
+        });
+        assertThatJson(empty.toJson()).node("columns.size.min").isNull();
+    }
+
+    @Test
+    void shouldSearchWithSmartSearchSemantics() {
+        assertThat(new TableSearch(COLUMNS, "").isEmpty()).isTrue();
+        assertThat(new TableSearch(COLUMNS, "  ").isEmpty()).isTrue();
+
+        Row row = new Row("Delta Alpha", "<b>High</b>", 40);
+        assertThat(new TableSearch(COLUMNS, "alpha high").matches(row)).isTrue();
+        assertThat(new TableSearch(COLUMNS, "\"delta alpha\"").matches(row)).isTrue();
+        assertThat(new TableSearch(COLUMNS, "\"alpha delta\"").matches(row)).isFalse();
+        assertThat(new TableSearch(COLUMNS, "<b>").matches(row)).isFalse();
+        assertThat(new TableSearch(COLUMNS, "40").matches(row)).isTrue();
+        assertThat(new TableSearch(COLUMNS, "alpha low").matches(row)).isFalse();
+    }
+
+    @SuppressWarnings("unused") // Called by Jackson
+    static class Row {
+        private final String name;
+        private final String severity;
+        private final int size;
+
+        Row(final String name, final String severity, final int size) {
+            this.name = name;
+            this.severity = severity;
+            this.size = size;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        public DetailedCell<Integer> getSize() {
+            return new DetailedCell<>(size + " KB", size);
+        }
+    }
+}